@@ -0,0 +1,42 @@
+package com.dac.graphql.app.aspect;
+
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.adapter.TimedDatabaseAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps every database adapter bean in a {@link TimedDatabaseAdapter}, so all components that
+ * inject a {@link DatabaseAdapter} share the per-statement timers.
+ */
+@Component
+public class DatabaseMetricsPostProcessor implements BeanPostProcessor, Ordered {
+
+    static final int ORDER = 0;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    // The registry is looked up lazily, so it is not created early by this post-processor
+    public DatabaseMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DatabaseAdapter adapter && !(bean instanceof TimedDatabaseAdapter)) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry != null) {
+                return new TimedDatabaseAdapter(adapter, registry);
+            }
+        }
+        return bean;
+    }
+}
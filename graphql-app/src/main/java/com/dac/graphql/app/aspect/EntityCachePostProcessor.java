@@ -0,0 +1,51 @@
+package com.dac.graphql.app.aspect;
+
+import com.dac.graphql.core.adapter.CachingDatabaseAdapter;
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps every database adapter bean in a {@link CachingDatabaseAdapter} when
+ * graphql.entity-cache.enabled is set. It runs after {@link DatabaseMetricsPostProcessor}, so
+ * the cache is outermost and rows served from it are not timed as statements.
+ */
+@Component
+public class EntityCachePostProcessor implements BeanPostProcessor, Ordered {
+
+    private final boolean enabled;
+    private final long maxEntries;
+    private final long ttlSeconds;
+    private final long negativeTtlSeconds;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public EntityCachePostProcessor(@Value("${graphql.entity-cache.enabled:false}") boolean enabled,
+                                    @Value("${graphql.entity-cache.max-entries:100000}") long maxEntries,
+                                    @Value("${graphql.entity-cache.ttl-seconds:300}") long ttlSeconds,
+                                    @Value("${graphql.entity-cache.negative-ttl-seconds:30}") long negativeTtlSeconds,
+                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlSeconds = ttlSeconds;
+        this.negativeTtlSeconds = negativeTtlSeconds;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        return DatabaseMetricsPostProcessor.ORDER + 1;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (enabled && bean instanceof DatabaseAdapter adapter && !(bean instanceof CachingDatabaseAdapter)) {
+            return new CachingDatabaseAdapter(adapter, maxEntries, ttlSeconds, negativeTtlSeconds,
+                    meterRegistry.getIfAvailable());
+        }
+        return bean;
+    }
+}
@@ -68,4 +68,25 @@ class DynamicSchemaComponentTest {
                 .andExpect(jsonPath("$.data").exists())
                 .andExpect(jsonPath("$.data.cats").isArray());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void manyAliasedKeyLookupsRunWithTheDefaultLimits() throws Exception {
+        MockMultipartFile schemaFile = new MockMultipartFile("file", "shelf-schema.graphql", "text/plain",
+                "type Shelf { id: ID! label: String } type Query { shelf(id: ID!): Shelf }".getBytes());
+        mockMvc.perform(multipart("/api/upload-graphql-spec/shelf").file(schemaFile))
+                .andExpect(status().isOk());
+
+        // Aliased lookups are batched into one query, so the limits must not reject them out of the box
+        StringBuilder query = new StringBuilder("{");
+        for (int i = 0; i < 200; i++) {
+            query.append(" s").append(i).append(": shelf(id: ").append(i).append(") { label }");
+        }
+        query.append(" }");
+        mockMvc.perform(post("/graphql/shelf")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"query\":\"" + query + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.data.s199").hasJsonPath());
+    }
+}
@@ -0,0 +1,173 @@
+package com.dac.graphql.benchmarks;
+
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.adapter.JdbcSupport;
+import com.dac.graphql.core.adapter.SqlUpdate;
+import com.dac.graphql.core.service.FieldSqlPlan;
+import com.dac.graphql.core.service.SchemaModel;
+import com.dac.graphql.core.service.SchemaService;
+import graphql.language.FieldDefinition;
+import graphql.language.ObjectTypeDefinition;
+import graphql.parser.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of building SQL in the generic fetchers: the string building each call used
+ * to do (lower-casing, regex, streams, debug printing) against binding a {@link FieldSqlPlan}
+ * resolved when the GraphQL instance is built. Debug lines go to a discarding stream, so
+ * only their formatting is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldSqlPlanBenchmark {
+
+    private static final String SCHEMA = """
+            type Book {
+              id: ID!
+              title: String
+              year: Int
+              author: String
+            }
+
+            type Query {
+              book(id: ID, title: String): Book
+            }
+
+            type Mutation {
+              addBook(id: ID!, title: String, year: Int, author: String): Book
+              updateBook(id: ID!, title: String, year: Int, author: String): Book
+            }
+            """;
+
+    private final PrintStream debug = new PrintStream(OutputStream.nullOutputStream());
+
+    private SchemaModel model;
+    private FieldDefinition queryField;
+    private FieldDefinition addField;
+    private FieldDefinition updateField;
+    private FieldSqlPlan queryPlan;
+    private FieldSqlPlan addPlan;
+    private FieldSqlPlan updatePlan;
+    private Map<String, Object> queryArgs;
+    private Map<String, Object> mutationArgs;
+    private List<String> columns;
+
+    @Setup
+    public void setUp() throws Exception {
+        File schemaFile = File.createTempFile("benchmark", ".graphql");
+        schemaFile.deleteOnExit();
+        Files.writeString(schemaFile.toPath(), SCHEMA);
+        SchemaService schemaService = new SchemaService();
+        Field adapterField = SchemaService.class.getDeclaredField("databaseAdapter");
+        adapterField.setAccessible(true);
+        adapterField.set(schemaService, Proxy.newProxyInstance(DatabaseAdapter.class.getClassLoader(),
+                new Class<?>[]{DatabaseAdapter.class}, (proxy, method, args) -> "TEXT"));
+        model = schemaService.loadSchemaModel(schemaFile);
+
+        ObjectTypeDefinition query = type("Query");
+        ObjectTypeDefinition mutation = type("Mutation");
+        queryField = query.getFieldDefinitions().get(0);
+        addField = mutation.getFieldDefinitions().get(0);
+        updateField = mutation.getFieldDefinitions().get(1);
+        queryPlan = FieldSqlPlan.forQuery(model, queryField);
+        addPlan = FieldSqlPlan.forMutation(model, addField);
+        updatePlan = FieldSqlPlan.forMutation(model, updateField);
+
+        queryArgs = new LinkedHashMap<>();
+        queryArgs.put("id", "b1");
+        mutationArgs = new LinkedHashMap<>();
+        mutationArgs.put("id", "b1");
+        mutationArgs.put("title", "Dune");
+        mutationArgs.put("year", 1965);
+        mutationArgs.put("author", "Herbert");
+        columns = List.of("id", "title", "year");
+    }
+
+    private static ObjectTypeDefinition type(String name) {
+        return new Parser().parseDocument(SCHEMA).getDefinitionsOfType(ObjectTypeDefinition.class).stream()
+                .filter(definition -> definition.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    @Benchmark
+    public Object[] queryPerCall() {
+        String tableName = SchemaModel.getBaseTypeName(queryField.getType());
+        String selected = JdbcSupport.selectList(columns);
+        debug.println("[GraphQL] Querying table: " + tableName + ", field: " + queryField.getName() + ", args: " + queryArgs);
+        String where = String.join(" AND ", queryArgs.keySet().stream().map(k -> k + " = ?").toArray(String[]::new));
+        String sql = "SELECT " + selected + " FROM " + tableName + " WHERE " + where;
+        debug.println("[GraphQL] SQL: " + sql + ", args: " + queryArgs.values());
+        return new Object[]{sql, queryArgs.values().toArray()};
+    }
+
+    @Benchmark
+    public FieldSqlPlan.Select queryPlanned() {
+        return queryPlan.bindSelect(queryArgs, columns);
+    }
+
+    @Benchmark
+    public SqlUpdate insertPerCall() {
+        String op = addField.getName().toLowerCase();
+        String typeName = op.replaceAll("^(add|update|delete)", "");
+        String tableName = Character.toUpperCase(typeName.charAt(0)) + typeName.substring(1);
+        SchemaModel.Table table = model.getTableIgnoreCase(tableName);
+        Map<String, Object> columnArgs = new LinkedHashMap<>(mutationArgs);
+        for (SchemaModel.Relation relation : table.relations()) {
+            if (relation.kind() != SchemaModel.RelationKind.MANY_TO_ONE) columnArgs.remove(relation.fieldName());
+        }
+        String names = String.join(", ", columnArgs.keySet());
+        String placeholders = String.join(", ", columnArgs.keySet().stream().map(k -> "?").toArray(String[]::new));
+        return new SqlUpdate("INSERT INTO " + tableName + " (" + names + ") VALUES (" + placeholders + ")",
+                columnArgs.values().toArray());
+    }
+
+    @Benchmark
+    public SqlUpdate insertPlanned() {
+        return addPlan.bindUpdate(mutationArgs);
+    }
+
+    @Benchmark
+    public SqlUpdate updatePerCall() {
+        String op = updateField.getName().toLowerCase();
+        String typeName = op.replaceAll("^(add|update|delete)", "");
+        String tableName = Character.toUpperCase(typeName.charAt(0)) + typeName.substring(1);
+        String idArg = mutationArgs.keySet().iterator().next();
+        String setClause = String.join(", ", mutationArgs.keySet().stream().filter(k -> !k.equals(idArg))
+                .map(k -> k + " = ?").toArray(String[]::new));
+        Object[] params = new Object[mutationArgs.size()];
+        int idx = 0;
+        for (String key : mutationArgs.keySet()) {
+            if (!key.equals(idArg)) params[idx++] = mutationArgs.get(key);
+        }
+        params[idx] = mutationArgs.get(idArg);
+        return new SqlUpdate("UPDATE " + tableName + " SET " + setClause + " WHERE " + idArg + " = ?", params);
+    }
+
+    @Benchmark
+    public SqlUpdate updatePlanned() {
+        return updatePlan.bindUpdate(mutationArgs);
+    }
+}
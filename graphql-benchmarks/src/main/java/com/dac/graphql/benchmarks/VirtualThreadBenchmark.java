@@ -0,0 +1,119 @@
+package com.dac.graphql.benchmarks;
+
+import com.dac.graphql.core.service.FetcherExecutor;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.execution.AsyncExecutionStrategy;
+import graphql.schema.DataFetcher;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Request throughput with 2000 concurrent clients, each running a query with two root fields
+ * whose fetchers block for a simulated JDBC round trip. "platform" serves requests on a pool
+ * of 200 threads (Tomcat's default maximum) and fetches on the request thread; "virtual" serves
+ * each request on a virtual thread and fetches each field on its own, as
+ * graphql.execution.virtual-threads does. The virtual mode needs Java 21 or later, so run it
+ * from a build with the java21 profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int CLIENTS = 2000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final String QUERY = "{ books { id } authors { id } }";
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param("5")
+    public int latencyMillis;
+
+    private ExecutorService requests;
+    private FetcherExecutor fetchers;
+    private GraphQL graphQL;
+
+    @Setup
+    public void setUp() {
+        if (mode.equals("virtual")) {
+            requests = FetcherExecutor.newVirtualThreadExecutor();
+            if (requests == null) {
+                throw new IllegalStateException("mode=virtual needs Java 21 or later, running " + Runtime.version());
+            }
+            fetchers = new FetcherExecutor(FetcherExecutor.newVirtualThreadExecutor());
+        } else {
+            requests = Executors.newFixedThreadPool(PLATFORM_THREADS);
+            fetchers = new FetcherExecutor((ExecutorService) null);
+        }
+        String sdl = """
+                type Row { id: ID }
+                type Query { books: [Row] authors: [Row] }
+                """;
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type
+                        .dataFetcher("books", blockingFetcher())
+                        .dataFetcher("authors", blockingFetcher()))
+                .build();
+        graphQL = GraphQL.newGraphQL(new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(sdl), wiring))
+                .queryExecutionStrategy(new AsyncExecutionStrategy())
+                .build();
+    }
+
+    private DataFetcher<Object> blockingFetcher() {
+        List<Map<String, Object>> rows = List.of(Map.of("id", 1), Map.of("id", 2));
+        return env -> fetchers.fetch(() -> {
+            Thread.sleep(latencyMillis);
+            return rows;
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        requests.shutdownNow();
+        fetchers.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CLIENTS)
+    public int requests() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(CLIENTS);
+        AtomicInteger failed = new AtomicInteger();
+        for (int i = 0; i < CLIENTS; i++) {
+            requests.execute(() -> {
+                ExecutionResult result = graphQL.execute(QUERY);
+                if (!result.getErrors().isEmpty()) failed.incrementAndGet();
+                done.countDown();
+            });
+        }
+        done.await();
+        if (failed.get() > 0) throw new IllegalStateException(failed.get() + " requests failed");
+        return CLIENTS;
+    }
+}
@@ -0,0 +1,446 @@
+package com.dac.graphql.core.adapter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Database adapter decorator that caches rows by table and primary key, so repeated lookups by
+ * ID are served without JDBC. Two reads go through the cache: {@link #executeQueryByKeys} on a
+ * table's primary key, as the batched key loaders issue it, and {@link #executeQuerySingle} for
+ * {@code SELECT ... FROM t WHERE key = ?}. Misses load whole rows, so an entry serves any
+ * projection, and keys without a row are cached too, for a shorter time.
+ * <p>
+ * Writes through this adapter update the cache once they return: a delete stores the key as
+ * missing; inserts and updates evict their key, so the next read caches the row as the database
+ * stored it. A write that fails only evicts, since it may or may not have been applied.
+ * Statements whose keys cannot be read from the SQL drop the whole table. A read that overlaps
+ * a write to the same table does not store what it read, so a row loaded before a commit cannot
+ * outlive it. Writes made by other processes are seen when entries expire or are invalidated.
+ * Eviction is Caffeine's size-bounded W-TinyLFU policy.
+ */
+public class CachingDatabaseAdapter implements DatabaseAdapter {
+
+    public static final String CACHE_NAME = "graphql.entities";
+
+    // Bulk-inserted keys evicted one by one; larger loads drop the table
+    private static final int MAX_TRACKED_KEYS = 10_000;
+    private static final Pattern SELECT_BY_KEY =
+            Pattern.compile("(?is)\\s*SELECT\\s+.+?\\s+FROM\\s+([A-Za-z_][A-Za-z0-9_]*)\\s+WHERE\\s+([A-Za-z_][A-Za-z0-9_]*)\\s*=\\s*\\?\\s*");
+    private static final Pattern INSERT =
+            Pattern.compile("(?is)\\s*INSERT\\s+INTO\\s+([A-Za-z_][A-Za-z0-9_]*)\\s*\\(([^)]*)\\)\\s*VALUES\\s*\\(.*");
+    private static final Pattern UPDATE =
+            Pattern.compile("(?is)\\s*UPDATE\\s+([A-Za-z_][A-Za-z0-9_]*)\\s+SET\\s+(.+?)\\s+WHERE\\s+([A-Za-z_][A-Za-z0-9_]*)\\s*=\\s*\\?\\s*");
+    private static final Pattern DELETE =
+            Pattern.compile("(?is)\\s*DELETE\\s+FROM\\s+([A-Za-z_][A-Za-z0-9_]*)\\s+WHERE\\s+([A-Za-z_][A-Za-z0-9_]*)\\s*=\\s*\\?\\s*");
+
+    /**
+     * A cached key: the lower-cased table and the key as a string, since GraphQL IDs arrive as
+     * strings while key columns may hold numbers.
+     */
+    private record Key(String table, String key) {
+    }
+
+    // row is null for a key without a row
+    private record Entry(Map<String, Object> row) {
+    }
+
+    private final DatabaseAdapter delegate;
+    private final Cache<Key, Entry> cache;
+    // Lower-cased table name -> its primary key column, if it has a single-column one
+    private final Map<String, Optional<String>> primaryKeys = new ConcurrentHashMap<>();
+    // Lower-cased table name -> writes started; reads store rows only if none started meanwhile
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    // Calls to invalidateAll, which count as a write to every table
+    private final AtomicLong epoch = new AtomicLong();
+
+    /**
+     * @param delegate the adapter that runs statements
+     * @param maxEntries rows and missing keys cached at most
+     * @param ttlSeconds how long a row is kept
+     * @param negativeTtlSeconds how long a missing key is kept
+     * @param registry registry for cache metrics, or null
+     */
+    public CachingDatabaseAdapter(DatabaseAdapter delegate, long maxEntries, long ttlSeconds, long negativeTtlSeconds,
+                                  MeterRegistry registry) {
+        this.delegate = delegate;
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        long negativeTtlNanos = TimeUnit.SECONDS.toNanos(negativeTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return entry.row() == null ? negativeTtlNanos : ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        if (registry != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+        }
+    }
+
+    public DatabaseAdapter getDelegate() {
+        return delegate;
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Drop the cached rows of a table, e.g. after another process wrote it.
+     *
+     * @param tableName the table
+     */
+    public void invalidate(String tableName) {
+        String table = tableName.toLowerCase(Locale.ROOT);
+        beginWrite(table);
+        cache.asMap().keySet().removeIf(key -> key.table().equals(table));
+    }
+
+    /**
+     * Drop cached keys of a table, e.g. after another process wrote them.
+     *
+     * @param tableName the table
+     * @param keys the written keys
+     */
+    public void invalidate(String tableName, Collection<?> keys) {
+        evict(tableName.toLowerCase(Locale.ROOT), keys.toArray());
+    }
+
+    /** Drop all cached rows. */
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    // --- Reads ---
+
+    @Override
+    public List<Map<String, Object>> executeQueryByKeys(String tableName, List<String> columns, String keyColumn,
+                                                        List<?> keys) throws SQLException {
+        String table = tableName.toLowerCase(Locale.ROOT);
+        if (!isPrimaryKey(tableName, keyColumn)) {
+            return delegate.executeQueryByKeys(tableName, columns, keyColumn, keys);
+        }
+        List<Map<String, Object>> rows = new ArrayList<>(keys.size());
+        List<Object> missing = new ArrayList<>();
+        for (Object key : keys) {
+            Entry entry = cache.getIfPresent(new Key(table, String.valueOf(key)));
+            if (entry == null) {
+                missing.add(key);
+            } else if (entry.row() != null) {
+                rows.add(entry.row());
+            }
+        }
+        if (missing.isEmpty()) return rows;
+        long generation = generation(table);
+        List<Map<String, Object>> loaded = delegate.executeQueryByKeys(tableName, List.of(), keyColumn, missing);
+        Map<Key, Entry> entries = new HashMap<>();
+        for (Object key : missing) {
+            entries.put(new Key(table, String.valueOf(key)), new Entry(null));
+        }
+        for (Map<String, Object> row : loaded) {
+            Map<String, Object> copy = copyOf(row);
+            rows.add(copy);
+            entries.put(new Key(table, String.valueOf(columnValue(row, keyColumn))), new Entry(copy));
+        }
+        store(table, generation, entries);
+        return rows;
+    }
+
+    @Override
+    public Map<String, Object> executeQuerySingle(String sql, Object... params) throws SQLException {
+        Matcher matcher = SELECT_BY_KEY.matcher(sql);
+        if (params.length != 1 || !matcher.matches() || !isPrimaryKey(matcher.group(1), matcher.group(2))) {
+            return delegate.executeQuerySingle(sql, params);
+        }
+        String table = matcher.group(1).toLowerCase(Locale.ROOT);
+        Key key = new Key(table, String.valueOf(params[0]));
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null) return entry.row();
+        long generation = generation(table);
+        Map<String, Object> row = delegate.executeQuerySingle(
+                "SELECT * FROM " + matcher.group(1) + " WHERE " + matcher.group(2) + " = ?", params);
+        Map<String, Object> copy = row == null ? null : copyOf(row);
+        store(table, generation, Map.of(key, new Entry(copy)));
+        return copy;
+    }
+
+    private boolean isPrimaryKey(String tableName, String column) throws SQLException {
+        String primaryKey = primaryKey(tableName);
+        return primaryKey != null && primaryKey.equalsIgnoreCase(column);
+    }
+
+    // The table's primary key column, or null; looked up once per table
+    private String primaryKey(String tableName) throws SQLException {
+        String table = tableName.toLowerCase(Locale.ROOT);
+        Optional<String> primaryKey = primaryKeys.get(table);
+        if (primaryKey == null) {
+            primaryKey = Optional.ofNullable(delegate.primaryKeyColumn(tableName));
+            primaryKeys.put(table, primaryKey);
+        }
+        return primaryKey.orElse(null);
+    }
+
+    private void store(String table, long generation, Map<Key, Entry> entries) {
+        if (generation(table) != generation) return;
+        cache.putAll(entries);
+        // A write that began while storing may have evicted its key before the put
+        if (generation(table) != generation) cache.invalidateAll(entries.keySet());
+    }
+
+    // Rows of a columnar result keep the whole result reachable, so cached rows are copied
+    private static Map<String, Object> copyOf(Map<String, Object> row) {
+        if (row instanceof ResultRows.Row resultRow) return ResultRows.copyOf(resultRow);
+        return Collections.unmodifiableMap(new HashMap<>(row));
+    }
+
+    private static Object columnValue(Map<String, Object> row, String column) {
+        if (row instanceof ResultRows.Row resultRow) return resultRow.getIgnoreCase(column);
+        if (row.containsKey(column)) return row.get(column);
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(column)) return entry.getValue();
+        }
+        return null;
+    }
+
+    private long generation(String table) {
+        AtomicLong generation = generations.get(table);
+        return epoch.get() + (generation == null ? 0 : generation.get());
+    }
+
+    private void beginWrite(String table) {
+        generations.computeIfAbsent(table, name -> new AtomicLong()).incrementAndGet();
+    }
+
+    // --- Writes ---
+
+    @Override
+    public int executeUpdate(String sql, Object... params) throws SQLException {
+        boolean succeeded = false;
+        try {
+            int count = delegate.executeUpdate(sql, params);
+            succeeded = true;
+            return count;
+        } finally {
+            written(sql, params, succeeded);
+        }
+    }
+
+    @Override
+    public int[] executeBatch(List<SqlUpdate> updates) throws SQLException {
+        boolean succeeded = false;
+        try {
+            int[] counts = delegate.executeBatch(updates);
+            succeeded = true;
+            return counts;
+        } finally {
+            for (SqlUpdate update : updates) {
+                written(update.sql(), update.params(), succeeded);
+            }
+        }
+    }
+
+    @Override
+    public long bulkInsert(String tableName, List<String> columns, Iterator<Object[]> rows) throws SQLException {
+        String primaryKey = primaryKey(tableName);
+        int keyIndex = -1;
+        for (int i = 0; primaryKey != null && i < columns.size(); i++) {
+            if (columns.get(i).equalsIgnoreCase(primaryKey)) keyIndex = i;
+        }
+        List<Object> keys = new ArrayList<>();
+        int index = keyIndex;
+        Iterator<Object[]> tracked = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                Object[] row = rows.next();
+                if (index >= 0 && keys.size() <= MAX_TRACKED_KEYS) keys.add(row[index]);
+                return row;
+            }
+        };
+        try {
+            return delegate.bulkInsert(tableName, columns, tracked);
+        } finally {
+            if (keyIndex < 0 || keys.size() > MAX_TRACKED_KEYS) {
+                invalidate(tableName);
+            } else {
+                evict(tableName.toLowerCase(Locale.ROOT), keys.toArray());
+            }
+        }
+    }
+
+    @Override
+    public void createTable(String tableName, String columns) throws SQLException {
+        try {
+            delegate.createTable(tableName, columns);
+        } finally {
+            primaryKeys.remove(tableName.toLowerCase(Locale.ROOT));
+            invalidate(tableName);
+        }
+    }
+
+    // Update the cache for a statement that ran, or may have run, through this adapter
+    private void written(String sql, Object[] params, boolean succeeded) {
+        try {
+            if (writtenKeys(sql, params, succeeded)) return;
+        } catch (SQLException e) {
+            // The primary key is unknown, so the keys written are too
+        }
+        String table = SqlStatements.table(sql);
+        if (table.equals("unknown")) {
+            invalidateAll();
+        } else {
+            invalidate(table);
+        }
+    }
+
+    // Update the keys a statement wrote; false if they cannot be read from the statement
+    private boolean writtenKeys(String sql, Object[] params, boolean succeeded) throws SQLException {
+        Matcher delete = DELETE.matcher(sql);
+        if (delete.matches() && params.length == 1 && isPrimaryKey(delete.group(1), delete.group(2))) {
+            String table = delete.group(1).toLowerCase(Locale.ROOT);
+            evict(table, params[0]);
+            // Only a delete known to have committed may answer later reads with "no row"
+            if (succeeded) cache.put(new Key(table, String.valueOf(params[0])), new Entry(null));
+            return true;
+        }
+        Matcher update = UPDATE.matcher(sql);
+        if (update.matches() && params.length > 0 && isPrimaryKey(update.group(1), update.group(3))
+                && !setsColumn(update.group(2), update.group(3))) {
+            evict(update.group(1).toLowerCase(Locale.ROOT), params[params.length - 1]);
+            return true;
+        }
+        Matcher insert = INSERT.matcher(sql);
+        String primaryKey = insert.matches() ? primaryKey(insert.group(1)) : null;
+        if (primaryKey != null) {
+            String[] columns = insert.group(2).split(",");
+            for (int i = 0; i < columns.length; i++) {
+                if (!columns[i].trim().equalsIgnoreCase(primaryKey) || params.length % columns.length != 0) continue;
+                // One key per row of a multi-row insert
+                Object[] keys = new Object[params.length / columns.length];
+                for (int row = 0; row < keys.length; row++) {
+                    keys[row] = params[row * columns.length + i];
+                }
+                evict(insert.group(1).toLowerCase(Locale.ROOT), keys);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evict(String table, Object... keys) {
+        beginWrite(table);
+        for (Object key : keys) {
+            cache.invalidate(new Key(table, String.valueOf(key)));
+        }
+    }
+
+    // Whether a SET list assigns the column, which changes the row's key
+    private static boolean setsColumn(String assignments, String column) {
+        for (String assignment : assignments.split(",")) {
+            String target = assignment.split("=")[0].trim();
+            if (target.equalsIgnoreCase(column)) return true;
+        }
+        return false;
+    }
+
+    // --- Delegated ---
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return delegate.getConnection();
+    }
+
+    @Override
+    public List<Map<String, Object>> executeQuery(String sql, Object... params) throws SQLException {
+        return delegate.executeQuery(sql, params);
+    }
+
+    @Override
+    public void streamQuery(String sql, Object[] params, RowHandler handler) throws SQLException {
+        delegate.streamQuery(sql, params, handler);
+    }
+
+    @Override
+    public void createIndex(String tableName, List<String> columns, boolean unique) throws SQLException {
+        delegate.createIndex(tableName, columns, unique);
+    }
+
+    @Override
+    public Set<String> indexedColumns(String tableName) throws SQLException {
+        return delegate.indexedColumns(tableName);
+    }
+
+    @Override
+    public String primaryKeyColumn(String tableName) throws SQLException {
+        return delegate.primaryKeyColumn(tableName);
+    }
+
+    @Override
+    public void publish(String channel, String payload) throws SQLException {
+        delegate.publish(channel, payload);
+    }
+
+    @Override
+    public boolean subscribe(String channel, ChangeListener listener) {
+        return delegate.subscribe(channel, listener);
+    }
+
+    @Override
+    public long estimatedRowCount(String tableName) throws SQLException {
+        return delegate.estimatedRowCount(tableName);
+    }
+
+    @Override
+    public String mapGraphQLTypeToSql(String graphQLType) {
+        return delegate.mapGraphQLTypeToSql(graphQLType);
+    }
+
+    @Override
+    public String keyReferenceSqlType() {
+        return delegate.keyReferenceSqlType();
+    }
+
+    @Override
+    public String getDatabaseType() {
+        return delegate.getDatabaseType();
+    }
+}
@@ -0,0 +1,21 @@
+package com.dac.graphql.core.adapter;
+
+/**
+ * Receives the change notifications that nodes sharing a database publish with
+ * {@link DatabaseAdapter#publish(String, String)}.
+ */
+public interface ChangeListener {
+
+    /**
+     * A notification arrived. Called on the adapter's listener thread, one payload at a time.
+     *
+     * @param payload the published payload
+     */
+    void changed(String payload);
+
+    /**
+     * Notifications may have been missed, e.g. while reconnecting, so anything derived from the
+     * shared database should be dropped.
+     */
+    void resynchronize();
+}
@@ -1,9 +1,16 @@
 package com.dac.graphql.core.adapter;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Database adapter interface for database-agnostic operations.
@@ -39,6 +46,52 @@ public interface DatabaseAdapter {
      */
     Map<String, Object> executeQuerySingle(String sql, Object... params) throws SQLException;
     
+    /**
+     * Fetch the rows of a table whose key column matches any of the given keys in a single query.
+     * Rows are returned in database order; callers map them back to their keys.
+     * 
+     * @param tableName table to query
+     * @param columns columns to select; an empty list selects all columns
+     * @param keyColumn column compared against the keys
+     * @param keys key values to look up
+     * @return matching rows as maps
+     * @throws SQLException if query execution fails
+     */
+    default List<Map<String, Object>> executeQueryByKeys(String tableName, List<String> columns, String keyColumn, List<?> keys) throws SQLException {
+        if (keys.isEmpty()) return Collections.emptyList();
+        String placeholders = String.join(", ", Collections.nCopies(keys.size(), "?"));
+        String sql = "SELECT " + JdbcSupport.selectList(columns) + " FROM " + tableName + " WHERE " + keyColumn + " IN (" + placeholders + ")";
+        return executeQuery(sql, keys.toArray());
+    }
+    
+    /**
+     * Receives the rows of {@link #streamQuery} one at a time.
+     */
+    @FunctionalInterface
+    interface RowHandler {
+        /**
+         * @param rs the result set, positioned on the current row; valid only during the call
+         */
+        void row(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Execute a query and hand each row to the handler while the cursor is open, so the result
+     * is never held in memory as a whole. Implementations fetch rows in batches of the
+     * configured fetch size. The default runs on a connection from {@link #getConnection()}
+     * and closes it afterwards.
+     * 
+     * @param sql the SQL query to execute
+     * @param params parameters for the prepared statement
+     * @param handler called once per row, in result order
+     * @throws SQLException if query execution or the handler fails
+     */
+    default void streamQuery(String sql, Object[] params, RowHandler handler) throws SQLException {
+        try (Connection conn = getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            JdbcSupport.streamRows(stmt, params, handler);
+        }
+    }
+
     /**
      * Execute an update statement (INSERT, UPDATE, DELETE).
      * 
@@ -49,6 +102,50 @@ public interface DatabaseAdapter {
      */
     int executeUpdate(String sql, Object... params) throws SQLException;
     
+    /**
+     * Execute several update statements in one transaction. Implementations send consecutive
+     * statements with the same SQL through one prepared statement using addBatch/executeBatch.
+     * The default runs each statement on its own, without a shared transaction.
+     * 
+     * @param updates the statements, in execution order
+     * @return number of affected rows per statement
+     * @throws SQLException if any statement fails; the transaction is then rolled back
+     */
+    default int[] executeBatch(List<SqlUpdate> updates) throws SQLException {
+        int[] counts = new int[updates.size()];
+        for (int i = 0; i < updates.size(); i++) {
+            counts[i] = executeUpdate(updates.get(i).sql(), updates.get(i).params());
+        }
+        return counts;
+    }
+    
+    /**
+     * Insert a stream of rows. Rows are consumed lazily, so callers can stream them from a
+     * request body. The default sends multi-row INSERT statements, each committed on its own;
+     * implementations insert all rows in one transaction or use a native bulk-load path.
+     * 
+     * @param tableName table to insert into
+     * @param columns column names, in the order of each row's values
+     * @param rows row values
+     * @return number of inserted rows
+     * @throws SQLException if an insert fails
+     */
+    default long bulkInsert(String tableName, List<String> columns, Iterator<Object[]> rows) throws SQLException {
+        int rowsPerStatement = JdbcSupport.rowsPerInsert(columns.size());
+        long inserted = 0;
+        List<Object> params = new ArrayList<>();
+        int pending = 0;
+        while (rows.hasNext()) {
+            params.addAll(Arrays.asList(rows.next()));
+            if (++pending == rowsPerStatement || !rows.hasNext()) {
+                inserted += executeUpdate(JdbcSupport.multiRowInsert(tableName, columns, pending), params.toArray());
+                params.clear();
+                pending = 0;
+            }
+        }
+        return inserted;
+    }
+    
     /**
      * Create a table based on GraphQL type definition.
      * 
@@ -58,6 +155,77 @@ public interface DatabaseAdapter {
      */
     void createTable(String tableName, String columns) throws SQLException;
     
+    /**
+     * Create an index unless one of the same name exists.
+     * 
+     * @param tableName indexed table
+     * @param columns indexed columns, leading column first
+     * @param unique whether the index enforces uniqueness
+     * @throws SQLException if index creation fails, e.g. duplicates for a unique index
+     */
+    default void createIndex(String tableName, List<String> columns, boolean unique) throws SQLException {
+        executeUpdate(JdbcSupport.createIndexSql(tableName, columns, unique));
+    }
+    
+    /**
+     * Columns that lead an existing index of a table, including the primary key. An index on
+     * (a, b) serves predicates on a, so only leading columns are reported.
+     * 
+     * @param tableName table to inspect
+     * @return leading column names as reported by the database; empty if unknown
+     * @throws SQLException if the metadata cannot be read
+     */
+    default Set<String> indexedColumns(String tableName) throws SQLException {
+        return Collections.emptySet();
+    }
+    
+    /**
+     * The primary key column of a table.
+     * 
+     * @param tableName table to inspect
+     * @return the column name as reported by the database, or null if the table has no
+     *         single-column primary key or it is unknown
+     * @throws SQLException if the metadata cannot be read
+     */
+    default String primaryKeyColumn(String tableName) throws SQLException {
+        return null;
+    }
+    
+    /**
+     * Estimated number of rows in a table, read from statistics the database keeps rather than
+     * by counting, so it is cheap enough to call while planning a query.
+     * 
+     * @param tableName table to inspect
+     * @return the estimate, or -1 if unknown
+     * @throws SQLException if the statistics cannot be read
+     */
+    default long estimatedRowCount(String tableName) throws SQLException {
+        return -1;
+    }
+    
+    /**
+     * Send a notification to every node subscribed to the channel, including this one. The
+     * default does nothing, for databases that cannot notify other connections.
+     * 
+     * @param channel channel name, a lower-case SQL identifier
+     * @param payload the notification; databases may limit its size
+     * @throws SQLException if the notification cannot be sent
+     */
+    default void publish(String channel, String payload) throws SQLException {
+    }
+    
+    /**
+     * Deliver notifications published on a channel to a listener, on a thread of the adapter,
+     * until the adapter is closed.
+     * 
+     * @param channel channel name, a lower-case SQL identifier
+     * @param listener receives the payloads
+     * @return whether the database supports notifications; the default returns false
+     */
+    default boolean subscribe(String channel, ChangeListener listener) {
+        return false;
+    }
+    
     /**
      * Map GraphQL type to database-specific SQL type.
      * 
@@ -66,6 +234,17 @@ public interface DatabaseAdapter {
      */
     String mapGraphQLTypeToSql(String graphQLType);
     
+    /**
+     * SQL type of columns holding another table's key: object references, other ID fields and
+     * join table columns. It is the type mapped for ID without its key constraints, so the
+     * values compare with the key column; the default is the type mapped for String.
+     * 
+     * @return database-specific SQL type string
+     */
+    default String keyReferenceSqlType() {
+        return mapGraphQLTypeToSql("String");
+    }
+    
     /**
      * Get the database type identifier.
      * 
@@ -0,0 +1,202 @@
+package com.dac.graphql.core.adapter;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JDBC code shared by the adapters: binding and streaming rows, batched and multi-row writes
+ * in one transaction, and reading index and primary key metadata.
+ */
+public final class JdbcSupport {
+
+    private JdbcSupport() {
+    }
+
+    /**
+     * Bind parameters, execute the statement and hand each row to the handler.
+     *
+     * @param stmt the prepared query
+     * @param params parameters for the prepared statement
+     * @param handler called once per row
+     * @throws SQLException if query execution or the handler fails
+     */
+    public static void streamRows(PreparedStatement stmt, Object[] params, DatabaseAdapter.RowHandler handler) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            stmt.setObject(i + 1, params[i]);
+        }
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                handler.row(rs);
+            }
+        }
+    }
+
+    /**
+     * Build the select list for a projection.
+     *
+     * @param columns column names; an empty list selects all columns
+     * @return comma-separated column names, or "*"
+     */
+    public static String selectList(List<String> columns) {
+        return columns == null || columns.isEmpty() ? "*" : String.join(", ", columns);
+    }
+
+    /**
+     * Execute update statements on a connection in one transaction, batching consecutive
+     * statements with the same SQL. The connection's auto-commit setting is restored afterwards.
+     *
+     * @param conn the connection to use
+     * @param updates the statements, in execution order
+     * @return number of affected rows per statement
+     * @throws SQLException if any statement fails, after rolling back
+     */
+    public static int[] batchUpdate(Connection conn, List<SqlUpdate> updates) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        if (autoCommit) conn.setAutoCommit(false);
+        try {
+            int[] counts = new int[updates.size()];
+            int start = 0;
+            while (start < updates.size()) {
+                String sql = updates.get(start).sql();
+                int end = start;
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    while (end < updates.size() && updates.get(end).sql().equals(sql)) {
+                        Object[] params = updates.get(end).params();
+                        for (int i = 0; i < params.length; i++) {
+                            stmt.setObject(i + 1, params[i]);
+                        }
+                        stmt.addBatch();
+                        end++;
+                    }
+                    int[] batchCounts = stmt.executeBatch();
+                    System.arraycopy(batchCounts, 0, counts, start, batchCounts.length);
+                }
+                start = end;
+            }
+            conn.commit();
+            return counts;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            if (autoCommit) conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Insert a stream of rows on a connection in one transaction, using multi-row INSERT
+     * statements. Full chunks reuse one prepared statement.
+     *
+     * @param conn the connection to use
+     * @param tableName table to insert into
+     * @param columns column names, in the order of each row's values
+     * @param rows row values
+     * @return number of inserted rows
+     * @throws SQLException if an insert fails, after rolling back
+     */
+    public static long insertRows(Connection conn, String tableName, List<String> columns, Iterator<Object[]> rows) throws SQLException {
+        int rowsPerStatement = rowsPerInsert(columns.size());
+        boolean autoCommit = conn.getAutoCommit();
+        if (autoCommit) conn.setAutoCommit(false);
+        try (PreparedStatement full = conn.prepareStatement(multiRowInsert(tableName, columns, rowsPerStatement))) {
+            long inserted = 0;
+            List<Object[]> chunk = new ArrayList<>(rowsPerStatement);
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() == rowsPerStatement || !rows.hasNext()) {
+                    if (chunk.size() == rowsPerStatement) {
+                        inserted += executeChunk(full, chunk);
+                    } else {
+                        try (PreparedStatement partial = conn.prepareStatement(multiRowInsert(tableName, columns, chunk.size()))) {
+                            inserted += executeChunk(partial, chunk);
+                        }
+                    }
+                    chunk.clear();
+                }
+            }
+            conn.commit();
+            return inserted;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            if (autoCommit) conn.setAutoCommit(true);
+        }
+    }
+
+    private static int executeChunk(PreparedStatement stmt, List<Object[]> chunk) throws SQLException {
+        int index = 1;
+        for (Object[] row : chunk) {
+            for (Object value : row) {
+                stmt.setObject(index++, value);
+            }
+        }
+        return stmt.executeUpdate();
+    }
+
+    // Stay well below the bound-parameter limits of SQLite (32766) and PostgreSQL (65535)
+    static int rowsPerInsert(int columnCount) {
+        return Math.max(1, Math.min(500, 30000 / Math.max(1, columnCount)));
+    }
+
+    static String multiRowInsert(String tableName, List<String> columns, int rowCount) {
+        String row = "(" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        return "INSERT INTO " + tableName + " (" + String.join(", ", columns) + ") VALUES "
+                + String.join(", ", Collections.nCopies(rowCount, row));
+    }
+
+    /**
+     * CREATE INDEX IF NOT EXISTS statement for an index named after its table and columns.
+     */
+    public static String createIndexSql(String tableName, List<String> columns, boolean unique) {
+        return "CREATE " + (unique ? "UNIQUE " : "") + "INDEX IF NOT EXISTS idx_" + tableName + "_" + String.join("_", columns)
+                + " ON " + tableName + " (" + String.join(", ", columns) + ")";
+    }
+
+    /**
+     * Read the leading index columns of a table from JDBC metadata. Tables created with
+     * unquoted names may be stored in lower or upper case, so those spellings are tried too.
+     */
+    public static Set<String> indexedColumns(Connection conn, String tableName) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        Set<String> columns = new LinkedHashSet<>();
+        for (String name : new LinkedHashSet<>(List.of(tableName, tableName.toLowerCase(), tableName.toUpperCase()))) {
+            try (ResultSet rs = metaData.getIndexInfo(null, null, name, false, true)) {
+                while (rs.next()) {
+                    if (rs.getShort("ORDINAL_POSITION") == 1 && rs.getString("COLUMN_NAME") != null) {
+                        columns.add(rs.getString("COLUMN_NAME"));
+                    }
+                }
+            }
+            if (!columns.isEmpty()) break;
+        }
+        return columns;
+    }
+
+    /**
+     * Read the single-column primary key of a table from JDBC metadata, trying the lower and
+     * upper case spellings of the name like {@link #indexedColumns(Connection, String)}.
+     */
+    public static String primaryKeyColumn(Connection conn, String tableName) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        for (String name : new LinkedHashSet<>(List.of(tableName, tableName.toLowerCase(), tableName.toUpperCase()))) {
+            List<String> columns = new ArrayList<>();
+            try (ResultSet rs = metaData.getPrimaryKeys(null, null, name)) {
+                while (rs.next()) {
+                    columns.add(rs.getString("COLUMN_NAME"));
+                }
+            }
+            if (!columns.isEmpty()) return columns.size() == 1 ? columns.get(0) : null;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.dac.graphql.core.adapter;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * HikariCP pool for adapters constructed without a Spring-managed DataSource.
+ * The pool is created on first use, so settings injected into the adapter's fields
+ * after construction are honoured. Closing a borrowed connection returns it to the pool.
+ */
+public class PooledConnectionProvider implements ConnectionProvider, AutoCloseable {
+    private final Supplier<HikariConfig> configSupplier;
+    private volatile HikariDataSource dataSource;
+
+    public PooledConnectionProvider(Supplier<HikariConfig> configSupplier) {
+        this.configSupplier = configSupplier;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getDataSource().getConnection();
+    }
+
+    public HikariDataSource getDataSource() {
+        HikariDataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (this) {
+                ds = dataSource;
+                if (ds == null) {
+                    ds = new HikariDataSource(configSupplier.get());
+                    dataSource = ds;
+                }
+            }
+        }
+        return ds;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
+    }
+
+    /**
+     * Pool settings shared by the adapters, named after Spring Boot's spring.datasource.hikari.* properties.
+     *
+     * @param poolName name shown in logs and pool metrics
+     * @param jdbcUrl JDBC URL
+     * @param minimumIdle idle connections kept open
+     * @param maximumPoolSize upper bound on open connections
+     * @param validationTimeoutMs timeout of the isValid() check run before handing out an idle connection
+     * @param leakDetectionThresholdMs log a warning with the borrower's stack when a connection is held longer; 0 disables
+     * @return the pool configuration; credentials are set by the caller when needed
+     */
+    public static HikariConfig config(String poolName, String jdbcUrl, int minimumIdle, int maximumPoolSize,
+                                      long validationTimeoutMs, long leakDetectionThresholdMs) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(jdbcUrl);
+        config.setMinimumIdle(minimumIdle);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setValidationTimeout(validationTimeoutMs);
+        config.setLeakDetectionThreshold(leakDetectionThresholdMs);
+        return config;
+    }
+}
@@ -0,0 +1,350 @@
+package com.dac.graphql.core.adapter;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Query results stored by column: one array per column and one name index shared by every row,
+ * instead of a hash map per row. Integer, bigint, double and boolean columns are held unboxed
+ * with a null bitmap; a column whose driver values do not match its declared class falls back to
+ * boxed storage. Rows are read-only {@link Map} views created on access, so a result costs little
+ * more than its values; a row kept by a caller keeps its whole result reachable.
+ */
+public final class ResultRows extends AbstractList<Map<String, Object>> implements RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private enum Kind { INTEGER, BIGINT, DOUBLE, BOOLEAN, OBJECT }
+
+    /**
+     * Column names of a result and their positions, shared by all of its rows.
+     */
+    public static final class Columns {
+        private final String[] names;
+        private final Map<String, Integer> index = new HashMap<>();
+        // Drivers differ in name case (H2 upper-cases, Postgres lower-cases unquoted names)
+        private final Map<String, Integer> lowerCaseIndex = new HashMap<>();
+
+        private Columns(String[] names) {
+            this.names = names;
+            for (int i = 0; i < names.length; i++) {
+                index.put(names[i], i);
+                lowerCaseIndex.putIfAbsent(names[i].toLowerCase(Locale.ROOT), i);
+            }
+        }
+
+        public int size() {
+            return names.length;
+        }
+
+        public String name(int column) {
+            return names[column];
+        }
+
+        /** Position of the column, or -1. */
+        public int indexOf(Object name) {
+            Integer column = index.get(name);
+            return column == null ? -1 : column;
+        }
+
+        /** Position of the column, matching the name exactly first and then ignoring case, or -1. */
+        public int indexOfIgnoreCase(String name) {
+            Integer column = index.get(name);
+            if (column == null) column = lowerCaseIndex.get(name.toLowerCase(Locale.ROOT));
+            return column == null ? -1 : column;
+        }
+    }
+
+    private static final class Column {
+        private Kind kind;
+        private long[] bits;
+        private long[] nulls;
+        private Object[] objects;
+
+        private Column(Kind kind, int capacity) {
+            this.kind = kind;
+            if (kind == Kind.OBJECT) {
+                objects = new Object[capacity];
+            } else {
+                bits = new long[capacity];
+                nulls = new long[(capacity + 63) >>> 6];
+            }
+        }
+
+        private void grow(int capacity) {
+            if (kind == Kind.OBJECT) {
+                objects = Arrays.copyOf(objects, capacity);
+            } else {
+                bits = Arrays.copyOf(bits, capacity);
+                nulls = Arrays.copyOf(nulls, (capacity + 63) >>> 6);
+            }
+        }
+
+        private void set(int row, Object value) {
+            if (kind != Kind.OBJECT) {
+                if (value == null) {
+                    nulls[row >>> 6] |= 1L << row;
+                    return;
+                }
+                switch (kind) {
+                    case INTEGER -> {
+                        // SQLite returns Long for integers outside the int range
+                        if (value instanceof Integer || value instanceof Long) {
+                            bits[row] = ((Number) value).longValue();
+                            return;
+                        }
+                    }
+                    case BIGINT -> {
+                        if (value instanceof Long number) {
+                            bits[row] = number;
+                            return;
+                        }
+                    }
+                    case DOUBLE -> {
+                        if (value instanceof Double number) {
+                            bits[row] = Double.doubleToRawLongBits(number);
+                            return;
+                        }
+                    }
+                    case BOOLEAN -> {
+                        if (value instanceof Boolean flag) {
+                            bits[row] = flag ? 1 : 0;
+                            return;
+                        }
+                    }
+                    default -> {
+                    }
+                }
+                box(row);
+            }
+            objects[row] = value;
+        }
+
+        private Object get(int row) {
+            if (kind == Kind.OBJECT) return objects[row];
+            if ((nulls[row >>> 6] & (1L << row)) != 0) return null;
+            long value = bits[row];
+            if (kind == Kind.INTEGER && value == (int) value) return (int) value;
+            return switch (kind) {
+                case INTEGER, BIGINT -> value;
+                case DOUBLE -> Double.longBitsToDouble(value);
+                case BOOLEAN -> value != 0;
+                default -> throw new IllegalStateException();
+            };
+        }
+
+        // A value of another class: keep the rows read so far and store the rest as objects
+        private void box(int rows) {
+            Object[] boxed = new Object[bits.length];
+            for (int row = 0; row < rows; row++) {
+                boxed[row] = get(row);
+            }
+            kind = Kind.OBJECT;
+            objects = boxed;
+            bits = null;
+            nulls = null;
+        }
+    }
+
+    /**
+     * One row of a result, as a read-only map from column name to value.
+     */
+    public static final class Row extends AbstractMap<String, Object> {
+        private final ResultRows rows;
+        private final int row;
+
+        private Row(ResultRows rows, int row) {
+            this.rows = rows;
+            this.row = row;
+        }
+
+        public Columns columns() {
+            return rows.columns;
+        }
+
+        /** Value of the column at the given position. */
+        public Object get(int column) {
+            return rows.data[column].get(row);
+        }
+
+        /** Value of the column, matching its name exactly first and then ignoring case. */
+        public Object getIgnoreCase(String name) {
+            int column = rows.columns.indexOfIgnoreCase(name);
+            return column < 0 ? null : get(column);
+        }
+
+        @Override
+        public Object get(Object key) {
+            int column = rows.columns.indexOf(key);
+            return column < 0 ? null : get(column);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return rows.columns.indexOf(key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return rows.columns.size();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        private int column;
+
+                        @Override
+                        public boolean hasNext() {
+                            return column < rows.columns.size();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            int current = column++;
+                            return new SimpleImmutableEntry<>(rows.columns.name(current), get(current));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return rows.columns.size();
+                }
+            };
+        }
+    }
+
+    private final Columns columns;
+    private final Column[] data;
+    private int size;
+    private int capacity;
+
+    private ResultRows(Columns columns, Kind[] kinds, int capacity) {
+        this.columns = columns;
+        this.capacity = capacity;
+        this.data = new Column[kinds.length];
+        for (int i = 0; i < kinds.length; i++) {
+            data[i] = new Column(kinds[i], capacity);
+        }
+    }
+
+    /**
+     * Read all remaining rows of a result set. When a column name repeats, the last column with
+     * that name is kept, as a map per row would.
+     *
+     * @param rs the result set, positioned before the first row
+     * @return the rows
+     * @throws SQLException if the result set cannot be read
+     */
+    public static ResultRows read(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int count = meta.getColumnCount();
+        Map<String, Integer> positions = new HashMap<>();
+        int[] sources = new int[count];
+        String[] names = new String[count];
+        int unique = 0;
+        for (int i = 1; i <= count; i++) {
+            String name = meta.getColumnName(i);
+            Integer position = positions.get(name);
+            if (position == null) {
+                position = unique++;
+                positions.put(name, position);
+                names[position] = name;
+            }
+            sources[position] = i;
+        }
+        Kind[] kinds = new Kind[unique];
+        for (int column = 0; column < unique; column++) {
+            kinds[column] = kind(meta, sources[column]);
+        }
+        ResultRows rows = new ResultRows(new Columns(Arrays.copyOf(names, unique)), kinds, INITIAL_CAPACITY);
+        while (rs.next()) {
+            rows.ensureCapacity();
+            for (int column = 0; column < unique; column++) {
+                rows.data[column].set(rows.size, rs.getObject(sources[column]));
+            }
+            rows.size++;
+        }
+        return rows;
+    }
+
+    /**
+     * Copy one row into a result of its own, so keeping it does not keep the rest of its result
+     * reachable. The copy shares the column names of the original.
+     *
+     * @param row the row to copy
+     * @return the copy
+     */
+    public static Row copyOf(Row row) {
+        Kind[] kinds = new Kind[row.columns().size()];
+        Arrays.fill(kinds, Kind.OBJECT);
+        ResultRows copy = new ResultRows(row.columns(), kinds, 1);
+        for (int column = 0; column < kinds.length; column++) {
+            copy.data[column].set(0, row.get(column));
+        }
+        copy.size = 1;
+        return copy.get(0);
+    }
+
+    private static Kind kind(ResultSetMetaData meta, int column) {
+        String className;
+        try {
+            className = meta.getColumnClassName(column);
+        } catch (SQLException e) {
+            return Kind.OBJECT;
+        }
+        if (className == null) return Kind.OBJECT;
+        return switch (className) {
+            case "java.lang.Integer" -> Kind.INTEGER;
+            case "java.lang.Long" -> Kind.BIGINT;
+            case "java.lang.Double" -> Kind.DOUBLE;
+            case "java.lang.Boolean" -> Kind.BOOLEAN;
+            default -> Kind.OBJECT;
+        };
+    }
+
+    private void ensureCapacity() {
+        if (size < capacity) return;
+        capacity += capacity >> 1;
+        for (Column column : data) {
+            column.grow(capacity);
+        }
+    }
+
+    public Columns columns() {
+        return columns;
+    }
+
+    /** Whether the column's values are held unboxed rather than as objects. */
+    public boolean isUnboxed(int column) {
+        return data[column].kind != Kind.OBJECT;
+    }
+
+    @Override
+    public Row get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return new Row(this, index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
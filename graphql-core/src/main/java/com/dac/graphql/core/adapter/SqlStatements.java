@@ -0,0 +1,31 @@
+package com.dac.graphql.core.adapter;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * What the adapter decorators read from SQL text: the operation a statement performs and the
+ * table it names. Both are best-effort, for metrics and cache invalidation, not a SQL parser.
+ */
+final class SqlStatements {
+
+    private static final Pattern TABLE = Pattern.compile("(?i)\\b(?:FROM|INTO|UPDATE|TABLE|ON)\\s+\"?([A-Za-z_][A-Za-z0-9_]*)");
+
+    private SqlStatements() {
+    }
+
+    /** The first word of the statement, lower-cased. */
+    static String operation(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) end++;
+        return end == 0 ? "other" : trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    /** The first table named after FROM, INTO, UPDATE, TABLE or ON, or "unknown". */
+    static String table(String sql) {
+        Matcher matcher = TABLE.matcher(sql);
+        return matcher.find() ? matcher.group(1) : "unknown";
+    }
+}
@@ -0,0 +1,10 @@
+package com.dac.graphql.core.adapter;
+
+/**
+ * One parameterised INSERT, UPDATE or DELETE statement, as queued for a batch.
+ *
+ * @param sql the SQL update statement
+ * @param params parameters for the prepared statement
+ */
+public record SqlUpdate(String sql, Object... params) {
+}
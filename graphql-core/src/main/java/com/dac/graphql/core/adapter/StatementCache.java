@@ -0,0 +1,167 @@
+package com.dac.graphql.core.adapter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Per-connection LRU cache of prepared statements keyed by SQL text, so repeated statements
+ * are compiled once per physical connection. Statements are prepared on the connection under
+ * the pool proxy, which would otherwise close them when the connection is returned.
+ * A leased statement is removed from the cache until released, so it is never shared.
+ * Hits, misses and evictions are published as {@code jdbc.statement.cache.*} meters.
+ */
+public class StatementCache {
+
+    /**
+     * A prepared statement borrowed from the cache; closing it returns it to the cache.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Connection connection;
+        private final String sql;
+        private final PreparedStatement statement;
+
+        private Lease(Connection connection, String sql, PreparedStatement statement) {
+            this.connection = connection;
+            this.sql = sql;
+            this.statement = statement;
+        }
+
+        public PreparedStatement statement() {
+            return statement;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            release(connection, sql, statement);
+        }
+    }
+
+    private final IntSupplier maxSize;
+    // Physical connection -> its statements in access order; guarded by this
+    private final Map<Connection, LinkedHashMap<String, PreparedStatement>> statements = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize statements kept per connection; read when a connection is first seen,
+     *                so it may come from a field injected after construction. 0 disables caching
+     */
+    public StatementCache(IntSupplier maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Borrow a prepared statement for the SQL, preparing it on a miss.
+     *
+     * @param conn the connection, possibly a pool proxy
+     * @param sql the statement text
+     * @return the lease; close it after the statement's results have been read
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public Lease prepare(Connection conn, String sql) throws SQLException {
+        Connection physical = physical(conn);
+        PreparedStatement statement = null;
+        if (maxSize.getAsInt() > 0) {
+            synchronized (this) {
+                LinkedHashMap<String, PreparedStatement> cached = statements.get(physical);
+                if (cached != null) statement = cached.remove(sql);
+            }
+        }
+        if (statement != null && !statement.isClosed()) {
+            hits.increment();
+            return new Lease(physical, sql, statement);
+        }
+        misses.increment();
+        return new Lease(physical, sql, physical.prepareStatement(sql));
+    }
+
+    private void release(Connection physical, String sql, PreparedStatement statement) throws SQLException {
+        int size = maxSize.getAsInt();
+        if (size <= 0 || physical.isClosed()) {
+            statement.close();
+            return;
+        }
+        statement.clearParameters();
+        PreparedStatement replaced;
+        PreparedStatement evicted = null;
+        synchronized (this) {
+            LinkedHashMap<String, PreparedStatement> cached = statements.get(physical);
+            if (cached == null) {
+                removeClosedConnections();
+                cached = new LinkedHashMap<>(16, 0.75f, true);
+                statements.put(physical, cached);
+            }
+            replaced = cached.put(sql, statement);
+            if (cached.size() > size) {
+                Iterator<PreparedStatement> eldest = cached.values().iterator();
+                evicted = eldest.next();
+                eldest.remove();
+            }
+        }
+        if (replaced != null) replaced.close();
+        if (evicted != null) {
+            evictions.increment();
+            evicted.close();
+        }
+    }
+
+    // Connections retired by the pool keep their statements reachable until dropped here
+    private void removeClosedConnections() {
+        statements.keySet().removeIf(connection -> {
+            try {
+                return connection.isClosed();
+            } catch (SQLException e) {
+                return true;
+            }
+        });
+    }
+
+    private static Connection physical(Connection conn) {
+        try {
+            Connection unwrapped = conn.unwrap(Connection.class);
+            return unwrapped != null ? unwrapped : conn;
+        } catch (SQLException e) {
+            return conn;
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Publish hit, miss and eviction counters and the hit ratio.
+     *
+     * @param registry the meter registry
+     * @param adapter value of the {@code adapter} tag, e.g. "sqlite"
+     */
+    public void bindTo(MeterRegistry registry, String adapter) {
+        FunctionCounter.builder("jdbc.statement.cache.hits", hits, LongAdder::doubleValue)
+                .tag("adapter", adapter).register(registry);
+        FunctionCounter.builder("jdbc.statement.cache.misses", misses, LongAdder::doubleValue)
+                .tag("adapter", adapter).register(registry);
+        FunctionCounter.builder("jdbc.statement.cache.evictions", evictions, LongAdder::doubleValue)
+                .tag("adapter", adapter).register(registry);
+        Gauge.builder("jdbc.statement.cache.hit.ratio", this, cache -> {
+                    long total = cache.hitCount() + cache.missCount();
+                    return total == 0 ? 0 : (double) cache.hitCount() / total;
+                })
+                .tag("adapter", adapter).register(registry);
+    }
+}
@@ -0,0 +1,187 @@
+package com.dac.graphql.core.adapter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database adapter decorator that times every statement as {@code db.statement} tagged with the
+ * adapter, table, operation (select, insert, update, delete, batch, bulk_insert, ...) and
+ * status. The table and operation are read from the SQL text once per distinct statement; the
+ * generic fetchers issue a small set of statements per spec, so lookups are cached. Streamed
+ * queries are timed until the last row is handed over, which includes writing rows to the client.
+ * Connections taken with {@link #getConnection()} are not timed.
+ */
+public class TimedDatabaseAdapter implements DatabaseAdapter {
+
+    static final String METRIC = "db.statement";
+
+    // Statements cached at most; beyond this, ad-hoc SQL is parsed on each call
+    private static final int MAX_CACHED_STATEMENTS = 10_000;
+
+    private record Timers(Timer success, Timer error) {
+    }
+
+    private final DatabaseAdapter delegate;
+    private final MeterRegistry registry;
+    // SQL text or "table operation" -> timers
+    private final Map<String, Timers> timers = new ConcurrentHashMap<>();
+
+    public TimedDatabaseAdapter(DatabaseAdapter delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+    }
+
+    public DatabaseAdapter getDelegate() {
+        return delegate;
+    }
+
+    @FunctionalInterface
+    private interface Statement<T> {
+        T run() throws SQLException;
+    }
+
+    private <T> T time(Timers timers, Statement<T> statement) throws SQLException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = statement.run();
+            failed = false;
+            return result;
+        } finally {
+            (failed ? timers.error() : timers.success()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timers forSql(String sql) {
+        Timers cached = timers.get(sql);
+        if (cached != null) return cached;
+        Timers created = timers(SqlStatements.table(sql), SqlStatements.operation(sql));
+        if (timers.size() < MAX_CACHED_STATEMENTS) timers.putIfAbsent(sql, created);
+        return created;
+    }
+
+    private Timers forTable(String table, String operation) {
+        return timers.computeIfAbsent(table + " " + operation, key -> timers(table, operation));
+    }
+
+    private Timers timers(String table, String operation) {
+        return new Timers(timer(table, operation, "success"), timer(table, operation, "error"));
+    }
+
+    private Timer timer(String table, String operation, String status) {
+        return Timer.builder(METRIC)
+                .description("Time to execute SQL statements")
+                .tags("adapter", delegate.getDatabaseType(), "table", table, "operation", operation, "status", status)
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return delegate.getConnection();
+    }
+
+    @Override
+    public List<Map<String, Object>> executeQuery(String sql, Object... params) throws SQLException {
+        return time(forSql(sql), () -> delegate.executeQuery(sql, params));
+    }
+
+    @Override
+    public Map<String, Object> executeQuerySingle(String sql, Object... params) throws SQLException {
+        return time(forSql(sql), () -> delegate.executeQuerySingle(sql, params));
+    }
+
+    @Override
+    public List<Map<String, Object>> executeQueryByKeys(String tableName, List<String> columns, String keyColumn,
+                                                        List<?> keys) throws SQLException {
+        return time(forTable(tableName, "select"), () -> delegate.executeQueryByKeys(tableName, columns, keyColumn, keys));
+    }
+
+    @Override
+    public void streamQuery(String sql, Object[] params, RowHandler handler) throws SQLException {
+        time(forSql(sql), () -> {
+            delegate.streamQuery(sql, params, handler);
+            return null;
+        });
+    }
+
+    @Override
+    public int executeUpdate(String sql, Object... params) throws SQLException {
+        return time(forSql(sql), () -> delegate.executeUpdate(sql, params));
+    }
+
+    @Override
+    public int[] executeBatch(List<SqlUpdate> updates) throws SQLException {
+        String table = updates.isEmpty() ? "unknown" : SqlStatements.table(updates.get(0).sql());
+        return time(forTable(table, "batch"), () -> delegate.executeBatch(updates));
+    }
+
+    @Override
+    public long bulkInsert(String tableName, List<String> columns, Iterator<Object[]> rows) throws SQLException {
+        return time(forTable(tableName, "bulk_insert"), () -> delegate.bulkInsert(tableName, columns, rows));
+    }
+
+    @Override
+    public void createTable(String tableName, String columns) throws SQLException {
+        time(forTable(tableName, "create"), () -> {
+            delegate.createTable(tableName, columns);
+            return null;
+        });
+    }
+
+    @Override
+    public void createIndex(String tableName, List<String> columns, boolean unique) throws SQLException {
+        time(forTable(tableName, "create"), () -> {
+            delegate.createIndex(tableName, columns, unique);
+            return null;
+        });
+    }
+
+    @Override
+    public Set<String> indexedColumns(String tableName) throws SQLException {
+        return delegate.indexedColumns(tableName);
+    }
+
+    @Override
+    public String primaryKeyColumn(String tableName) throws SQLException {
+        return delegate.primaryKeyColumn(tableName);
+    }
+
+    @Override
+    public void publish(String channel, String payload) throws SQLException {
+        delegate.publish(channel, payload);
+    }
+
+    @Override
+    public boolean subscribe(String channel, ChangeListener listener) {
+        return delegate.subscribe(channel, listener);
+    }
+
+    @Override
+    public long estimatedRowCount(String tableName) throws SQLException {
+        return delegate.estimatedRowCount(tableName);
+    }
+
+    @Override
+    public String mapGraphQLTypeToSql(String graphQLType) {
+        return delegate.mapGraphQLTypeToSql(graphQLType);
+    }
+
+    @Override
+    public String keyReferenceSqlType() {
+        return delegate.keyReferenceSqlType();
+    }
+
+    @Override
+    public String getDatabaseType() {
+        return delegate.getDatabaseType();
+    }
+}
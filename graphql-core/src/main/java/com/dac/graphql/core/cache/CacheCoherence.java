@@ -0,0 +1,168 @@
+package com.dac.graphql.core.cache;
+
+import com.dac.graphql.core.adapter.CachingDatabaseAdapter;
+import com.dac.graphql.core.adapter.ChangeListener;
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.service.SchemaRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the caches of nodes sharing one database coherent. Writes and uploads on this node
+ * invalidate its own caches and, with graphql.cluster.enabled, are published on a database
+ * channel as small JSON events: a table with the written keys (or none for the whole table)
+ * after a mutation or load, and a spec with its version after an upload. Events from other
+ * nodes invalidate the response cache, the row cache and, for uploads, register the spec file
+ * again from the shared upload directory so it is compiled on its next request. When the
+ * adapter reports that events may have been missed, everything is dropped and reloaded.
+ */
+@Component
+public class CacheCoherence implements ChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheCoherence.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // PostgreSQL rejects payloads of 8000 bytes or more; larger key lists are sent as a table event
+    static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private final DatabaseAdapter databaseAdapter;
+    private final ResultCache resultCache;
+    private final SchemaRegistry schemaRegistry;
+    private final boolean enabled;
+    private final String channel;
+    // Identifies this node's events, which the database also delivers back to it
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Autowired
+    public CacheCoherence(DatabaseAdapter databaseAdapter, ResultCache resultCache, SchemaRegistry schemaRegistry,
+                          @Value("${graphql.cluster.enabled:false}") boolean enabled,
+                          @Value("${graphql.cluster.channel:graphql_changes}") String channel) {
+        this.databaseAdapter = databaseAdapter;
+        this.resultCache = resultCache;
+        this.schemaRegistry = schemaRegistry;
+        this.enabled = enabled;
+        this.channel = channel;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled && !databaseAdapter.subscribe(channel, this)) {
+            log.warn("graphql.cluster.enabled needs a database with notifications ({} has none); caches are local only",
+                    databaseAdapter.getDatabaseType());
+        }
+    }
+
+    /**
+     * Record committed writes to a table.
+     *
+     * @param table the written table
+     * @param keys the written primary keys, or null if unknown
+     */
+    public void written(String table, Collection<?> keys) {
+        resultCache.invalidate(List.of(table));
+        if (!enabled) return;
+        Map<String, Object> event = event("table");
+        event.put("table", table);
+        if (keys != null) {
+            List<String> values = new ArrayList<>(keys.size());
+            for (Object key : keys) {
+                values.add(String.valueOf(key));
+            }
+            event.put("keys", values);
+        }
+        String payload = json(event);
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            event.remove("keys");
+            payload = json(event);
+        }
+        publish(payload);
+    }
+
+    /**
+     * Record a spec upload.
+     *
+     * @param specName the uploaded spec
+     * @param version its version on this node
+     */
+    public void schemaChanged(String specName, long version) {
+        if (!enabled) return;
+        Map<String, Object> event = event("schema");
+        event.put("spec", specName);
+        event.put("version", version);
+        publish(json(event));
+    }
+
+    @Override
+    public void changed(String payload) {
+        Map<?, ?> event;
+        try {
+            event = MAPPER.readValue(payload, Map.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed change event on {}: {}", channel, payload);
+            return;
+        }
+        if (nodeId.equals(event.get("node"))) return;
+        if ("table".equals(event.get("type")) && event.get("table") instanceof String table) {
+            resultCache.invalidate(List.of(table));
+            if (databaseAdapter instanceof CachingDatabaseAdapter entities) {
+                if (event.get("keys") instanceof List<?> keys) {
+                    entities.invalidate(table, keys);
+                } else {
+                    entities.invalidate(table);
+                }
+            }
+        } else if ("schema".equals(event.get("type")) && event.get("spec") instanceof String spec) {
+            if (!schemaRegistry.reloadSchemaFile(spec)) {
+                log.warn("Spec {} was uploaded on another node but is not in the upload directory; share it between nodes",
+                        spec);
+            }
+        }
+    }
+
+    @Override
+    public void resynchronize() {
+        resultCache.invalidateAll();
+        if (databaseAdapter instanceof CachingDatabaseAdapter entities) {
+            entities.invalidateAll();
+        }
+        schemaRegistry.reloadAll();
+    }
+
+    private Map<String, Object> event(String type) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("node", nodeId);
+        event.put("type", type);
+        return event;
+    }
+
+    private static String json(Map<String, Object> event) {
+        try {
+            return MAPPER.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Other nodes fall back to their TTLs when an event is lost, so a failure does not fail the write
+    private void publish(String payload) {
+        try {
+            databaseAdapter.publish(channel, payload);
+        } catch (SQLException e) {
+            log.warn("Could not publish change event on {}: {}", channel, e.getMessage());
+        }
+    }
+}
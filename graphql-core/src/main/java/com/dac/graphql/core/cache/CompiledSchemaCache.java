@@ -0,0 +1,86 @@
+package com.dac.graphql.core.cache;
+
+import graphql.GraphQL;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache of compiled GraphQL instances keyed by spec name and schema version.
+ * Readers never lock: a lookup is a single map read. Each (spec, version) pair is
+ * compiled exactly once; concurrent requests for a version that is still compiling
+ * wait on the same future. A new version replaces the old entry atomically, so
+ * queries already holding the previous GraphQL instance finish on it undisturbed.
+ */
+public class CompiledSchemaCache {
+
+    @FunctionalInterface
+    public interface Compiler {
+        GraphQL compile(File schemaFile) throws Exception;
+    }
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Get the GraphQL instance for the given spec version, compiling it if needed.
+     *
+     * @param specName name of the spec
+     * @param schemaFile schema file currently registered for the spec
+     * @param version schema version currently registered for the spec
+     * @param compiler builds a GraphQL instance from the schema file
+     * @return compiled GraphQL instance
+     * @throws Exception if compilation fails
+     */
+    public GraphQL get(String specName, File schemaFile, long version, Compiler compiler) throws Exception {
+        while (true) {
+            Entry current = entries.get(specName);
+            if (current != null && current.isUpToDate(schemaFile, version)) {
+                return current.await();
+            }
+            Entry candidate = new Entry(schemaFile, version);
+            boolean installed = current == null
+                    ? entries.putIfAbsent(specName, candidate) == null
+                    : entries.replace(specName, current, candidate);
+            if (installed) {
+                try {
+                    candidate.future.complete(compiler.compile(schemaFile));
+                } catch (Exception e) {
+                    // Drop the failed entry so the next request retries the compilation
+                    entries.remove(specName, candidate);
+                    candidate.future.completeExceptionally(e);
+                }
+                return candidate.await();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final File schemaFile;
+        private final long version;
+        private final CompletableFuture<GraphQL> future = new CompletableFuture<>();
+
+        private Entry(File schemaFile, long version) {
+            this.schemaFile = schemaFile;
+            this.version = version;
+        }
+
+        // A newer cached version always wins over a request that read an older one
+        private boolean isUpToDate(File file, long requested) {
+            return version > requested || (version == requested && schemaFile.equals(file));
+        }
+
+        private GraphQL await() throws Exception {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.dac.graphql.core.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-spec store of persisted queries for the Apollo automatic persisted query protocol.
+ * Queries registered explicitly are kept for the lifetime of the process and form the
+ * allow-list; queries registered automatically by clients live in a bounded cache.
+ */
+@Component
+public class PersistedQueryStore {
+
+    private record Key(String specName, String sha256Hash) {
+    }
+
+    private final Map<Key, String> registered = new ConcurrentHashMap<>();
+    private final Cache<Key, String> automatic;
+    private final boolean allowListEnabled;
+
+    @Autowired
+    public PersistedQueryStore(@Value("${graphql.persisted-queries.max-size:10000}") long maximumSize,
+                               @Value("${graphql.persisted-queries.allow-list:false}") boolean allowListEnabled) {
+        this.automatic = Caffeine.newBuilder().maximumSize(maximumSize).build();
+        this.allowListEnabled = allowListEnabled;
+    }
+
+    /**
+     * Whether only explicitly registered queries may be executed.
+     */
+    public boolean isAllowListEnabled() {
+        return allowListEnabled;
+    }
+
+    /**
+     * Look up a persisted query.
+     *
+     * @param specName name of the spec
+     * @param sha256Hash lowercase hex SHA-256 of the query text
+     * @return the query text, or null if the hash is unknown
+     */
+    public String get(String specName, String sha256Hash) {
+        Key key = new Key(specName, sha256Hash.toLowerCase());
+        String query = registered.get(key);
+        if (query == null && !allowListEnabled) {
+            query = automatic.getIfPresent(key);
+        }
+        return query;
+    }
+
+    /**
+     * Explicitly register a query, adding it to the allow-list.
+     *
+     * @return false if the hash does not match the query text
+     */
+    public boolean register(String specName, String sha256Hash, String query) {
+        if (!matches(sha256Hash, query)) return false;
+        registered.put(new Key(specName, sha256Hash.toLowerCase()), query);
+        return true;
+    }
+
+    /**
+     * Register a query sent by a client together with its hash. Ignored in allow-list mode.
+     *
+     * @return false if the hash does not match the query text
+     */
+    public boolean registerAutomatic(String specName, String sha256Hash, String query) {
+        if (!matches(sha256Hash, query)) return false;
+        if (!allowListEnabled) {
+            automatic.put(new Key(specName, sha256Hash.toLowerCase()), query);
+        }
+        return true;
+    }
+
+    public static String sha256(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static boolean matches(String sha256Hash, String query) {
+        return sha256Hash != null && query != null && sha256(query).equalsIgnoreCase(sha256Hash);
+    }
+}
@@ -0,0 +1,87 @@
+package com.dac.graphql.core.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of parsed and validated GraphQL documents shared by all specs.
+ * Entries are keyed by spec name, schema version and query text and evicted with
+ * Caffeine's W-TinyLFU policy. Hit, miss and eviction counts are published as
+ * {@code cache.*} meters tagged {@code cache=graphql.documents}.
+ */
+@Component
+public class PreparsedDocumentCache {
+
+    public static final String CACHE_NAME = "graphql.documents";
+
+    private record Key(String specName, long version, String query) {
+    }
+
+    private final Cache<Key, PreparsedDocumentEntry> cache;
+
+    @Autowired
+    public PreparsedDocumentCache(@Value("${graphql.document-cache.max-size:1000}") long maximumSize,
+                                  @Nullable MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        }
+    }
+
+    /**
+     * Create a document provider bound to one compiled version of a spec.
+     *
+     * @param specName name of the spec
+     * @param version schema version the GraphQL instance was compiled from
+     * @return provider to register on the GraphQL instance
+     */
+    public PreparsedDocumentProvider forSchema(String specName, long version) {
+        return new PreparsedDocumentProvider() {
+            @Override
+            public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                              Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+                Key key = new Key(specName, version, executionInput.getQuery());
+                return CompletableFuture.completedFuture(cache.get(key, k -> parseAndValidate.apply(executionInput)));
+            }
+
+            // Still abstract in graphql-java 20; execution only calls getDocumentAsync
+            @Override
+            @Deprecated
+            public PreparsedDocumentEntry getDocument(ExecutionInput executionInput,
+                                                      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+                return getDocumentAsync(executionInput, parseAndValidate).join();
+            }
+        };
+    }
+
+    /**
+     * Drop cached documents of every version of a spec older than the given one.
+     * Called when a new schema version is compiled, since those entries can never be hit again.
+     *
+     * @param specName name of the spec
+     * @param currentVersion the version now in use
+     */
+    public void invalidateBefore(String specName, long currentVersion) {
+        cache.asMap().keySet().removeIf(key -> key.specName().equals(specName) && key.version() < currentVersion);
+    }
+
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
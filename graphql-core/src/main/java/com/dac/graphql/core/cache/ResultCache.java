@@ -0,0 +1,302 @@
+package com.dac.graphql.core.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in cache of serialized query responses, keyed by spec, schema version, normalized query
+ * text, operation name and variables. Each entry remembers the tables its operation read and a
+ * generation per table taken before the operation ran; writes to a table bump its generation
+ * once committed, so entries read before the write no longer match and are dropped when next
+ * looked up. A query racing a write therefore never stores a result that outlives the write.
+ * Entries expire after the time allowed by the operation's cache hints and are evicted by total
+ * response size.
+ */
+@Component
+public class ResultCache {
+
+    public static final String CACHE_NAME = "graphql.results";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // Approximate bytes per entry besides its response and query text
+    private static final int ENTRY_OVERHEAD = 256;
+
+    /**
+     * Identifies a response.
+     *
+     * @param specName name of the spec
+     * @param version schema version the query ran against
+     * @param operationName the requested operation, or null
+     * @param query query text, see {@link #normalize}
+     * @param variables the variables, or an empty map
+     */
+    public record Key(String specName, long version, String operationName, String query, Map<String, Object> variables) {
+    }
+
+    /**
+     * What an operation may cache: the tables it reads with their generations before it ran,
+     * and how long its response may be kept.
+     */
+    public static final class Plan {
+        private final String[] tables;
+        private final long[] generations;
+        private final long epoch;
+        private final long ttlNanos;
+
+        private Plan(String[] tables, long[] generations, long epoch, long ttlNanos) {
+            this.tables = tables;
+            this.generations = generations;
+            this.epoch = epoch;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+
+    private record Entry(byte[] body, Plan plan) {
+    }
+
+    private final boolean enabled;
+    private final long defaultTtlSeconds;
+    private final Cache<Key, Entry> cache;
+    private final ConcurrentStatsCounter stats = new ConcurrentStatsCounter();
+    // Lower-cased table name -> number of committed writes seen
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    // Calls to invalidateAll, which count as a write to every table
+    private final AtomicLong epoch = new AtomicLong();
+
+    /**
+     * @param enabled whether responses are cached at all
+     * @param maxSizeMegabytes total size of the cached responses
+     * @param defaultTtlSeconds how long responses are kept unless cache hints say otherwise
+     * @param meterRegistry registry for cache metrics, or null
+     */
+    @Autowired
+    public ResultCache(@Value("${graphql.result-cache.enabled:false}") boolean enabled,
+                       @Value("${graphql.result-cache.max-size-mb:64}") long maxSizeMegabytes,
+                       @Value("${graphql.result-cache.ttl-seconds:60}") long defaultTtlSeconds,
+                       @Nullable MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        // Lookups go through asMap(), which records no statistics, so stale entries count as misses
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSizeMegabytes * 1024 * 1024)
+                .weigher((Key key, Entry entry) -> entry.body().length + 2 * key.query().length() + ENTRY_OVERHEAD)
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return entry.plan().ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.plan().ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats(() -> stats)
+                .build();
+        if (meterRegistry != null && enabled) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+            Gauge.builder("cache.weight.bytes", cache, c -> c.policy().eviction().orElseThrow().weightedSize().orElse(0))
+                    .description("Approximate bytes held by cached GraphQL responses")
+                    .tag("cache", CACHE_NAME)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getDefaultTtlSeconds() {
+        return defaultTtlSeconds;
+    }
+
+    public Key key(String specName, long version, String operationName, String query, Map<String, Object> variables) {
+        return new Key(specName, version, operationName, normalize(query), variables == null ? Map.of() : variables);
+    }
+
+    /**
+     * The cached response, if it is still valid.
+     *
+     * @return the serialized response, or null
+     */
+    public byte[] get(Key key) {
+        Entry entry = cache.asMap().get(key);
+        if (entry != null && !isCurrent(entry.plan())) {
+            cache.asMap().remove(key, entry);
+            entry = null;
+        }
+        if (entry == null) {
+            stats.recordMisses(1);
+            return null;
+        }
+        stats.recordHits(1);
+        return entry.body();
+    }
+
+    /**
+     * Take the generations of the tables an operation will read. Call before the operation runs.
+     *
+     * @param tables the tables read
+     * @param ttlSeconds how long the response may be kept; 0 or less makes a plan that stores nothing
+     */
+    public Plan plan(Collection<String> tables, long ttlSeconds) {
+        String[] names = tables.stream().map(ResultCache::normalizeTable).distinct().toArray(String[]::new);
+        long takenEpoch = epoch.get();
+        long[] taken = new long[names.length];
+        for (int i = 0; i < names.length; i++) {
+            taken[i] = generation(names[i]);
+        }
+        return new Plan(names, taken, takenEpoch, TimeUnit.SECONDS.toNanos(Math.max(0, ttlSeconds)));
+    }
+
+    /**
+     * Cache a successful response, unless a table it read was written since the plan was made.
+     *
+     * @param key the request
+     * @param plan the plan made before execution
+     * @param specification the response, as returned by {@code ExecutionResult.toSpecification()}
+     */
+    public void put(Key key, Plan plan, Map<String, Object> specification) {
+        if (!enabled || plan.ttlNanos <= 0 || !isCurrent(plan)) return;
+        try {
+            cache.put(key, new Entry(MAPPER.writeValueAsBytes(specification), plan));
+        } catch (JsonProcessingException e) {
+            // Not cached; the caller still returns the response
+        }
+    }
+
+    /**
+     * Record committed writes to tables. Responses that read them are no longer served.
+     *
+     * @param tables the written tables
+     */
+    public void invalidate(Collection<String> tables) {
+        for (String table : tables) {
+            generations.computeIfAbsent(normalizeTable(table), name -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Drop every response, e.g. when writes may have been missed.
+     */
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private boolean isCurrent(Plan plan) {
+        if (epoch.get() != plan.epoch) return false;
+        for (int i = 0; i < plan.tables.length; i++) {
+            if (generation(plan.tables[i]) != plan.generations[i]) return false;
+        }
+        return true;
+    }
+
+    private long generation(String table) {
+        AtomicLong generation = generations.get(table);
+        return generation == null ? 0 : generation.get();
+    }
+
+    // Unquoted table names are case-insensitive in both databases
+    private static String normalizeTable(String table) {
+        return table.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normalize query text so that documents differing only in ignored tokens share a key:
+     * whitespace, commas and comments are dropped, keeping one space between names or numbers.
+     * String literals are kept as written.
+     */
+    static String normalize(String query) {
+        StringBuilder normalized = new StringBuilder(query.length());
+        boolean separated = false;
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (c == '#') {
+                while (i < query.length() && query.charAt(i) != '\n' && query.charAt(i) != '\r') i++;
+                separated = true;
+            } else if (Character.isWhitespace(c) || c == ',' || c == '\uFEFF') {
+                i++;
+                separated = true;
+            } else if (c == '"') {
+                int end = stringEnd(query, i);
+                if (separated && endsWithNamePart(normalized)) normalized.append(' ');
+                normalized.append(query, i, end);
+                i = end;
+                separated = false;
+            } else {
+                if (separated && isNamePart(c) && endsWithNamePart(normalized)) normalized.append(' ');
+                normalized.append(c);
+                i++;
+                separated = false;
+            }
+        }
+        return normalized.toString();
+    }
+
+    // Index after the string literal starting at start, block strings included
+    private static int stringEnd(String query, int start) {
+        if (query.startsWith("\"\"\"", start)) {
+            int i = start + 3;
+            while (i < query.length()) {
+                if (query.startsWith("\\\"\"\"", i)) {
+                    i += 4;
+                } else if (query.startsWith("\"\"\"", i)) {
+                    return i + 3;
+                } else {
+                    i++;
+                }
+            }
+            return query.length();
+        }
+        int i = start + 1;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '"') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return query.length();
+    }
+
+    private static boolean isNamePart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.';
+    }
+
+    private static boolean endsWithNamePart(StringBuilder text) {
+        return !text.isEmpty() && isNamePart(text.charAt(text.length() - 1));
+    }
+}
@@ -0,0 +1,88 @@
+package com.dac.graphql.core.cache;
+
+import com.dac.graphql.core.service.SchemaModel;
+import graphql.ExecutionResult;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.language.OperationDefinition;
+import graphql.schema.GraphQLAppliedDirective;
+import graphql.schema.GraphQLAppliedDirectiveArgument;
+import graphql.schema.GraphQLDirectiveContainer;
+import graphql.schema.GraphQLTypeUtil;
+import graphql.schema.GraphQLUnmodifiedType;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Plans the caching of query operations for {@link ResultCache}: collects the tables the
+ * operation reads, including join tables of many-to-many relations, and the time its response
+ * may be kept. That time is the configured default, lowered by every
+ * {@code @cacheControl(maxAge:)} hint on a selected field or, for a field without one, on the
+ * type it returns. {@code scope: PRIVATE} anywhere disables caching of the response. The plan
+ * is put in the operation's GraphQL context under {@code ResultCache.Plan.class}. Mutations are
+ * never planned.
+ */
+public class ResultCacheInstrumentation extends SimplePerformantInstrumentation {
+
+    public static final String CACHE_CONTROL = "cacheControl";
+
+    private final SchemaModel model;
+    private final ResultCache resultCache;
+
+    public ResultCacheInstrumentation(SchemaModel model, ResultCache resultCache) {
+        this.model = model;
+        this.resultCache = resultCache;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        ExecutionContext context = parameters.getExecutionContext();
+        if (context.getOperationDefinition().getOperation() == OperationDefinition.Operation.QUERY) {
+            Set<String> tables = new LinkedHashSet<>();
+            long[] ttlSeconds = {resultCache.getDefaultTtlSeconds()};
+            QueryTraverser.newQueryTraverser()
+                    .schema(context.getGraphQLSchema())
+                    .document(context.getDocument())
+                    .operationName(context.getOperationDefinition().getName())
+                    .coercedVariables(context.getCoercedVariables())
+                    .build()
+                    .visitPreOrder(new QueryVisitorStub() {
+                        @Override
+                        public void visitField(QueryVisitorFieldEnvironment env) {
+                            if (env.isTypeNameIntrospectionField()) return;
+                            GraphQLUnmodifiedType type = GraphQLTypeUtil.unwrapAll(env.getFieldDefinition().getType());
+                            if (model.getTable(type.getName()) != null) tables.add(type.getName());
+                            SchemaModel.Table parent = model.getTable(env.getFieldsContainer().getName());
+                            SchemaModel.Relation relation = parent == null ? null : parent.getRelation(env.getFieldDefinition().getName());
+                            if (relation != null && relation.joinTable() != null) tables.add(relation.joinTable());
+                            Long maxAge = maxAge(env.getFieldDefinition().getAppliedDirective(CACHE_CONTROL));
+                            if (maxAge == null && type instanceof GraphQLDirectiveContainer container) {
+                                maxAge = maxAge(container.getAppliedDirective(CACHE_CONTROL));
+                            }
+                            if (maxAge != null) ttlSeconds[0] = Math.min(ttlSeconds[0], maxAge);
+                        }
+                    });
+            context.getGraphQLContext().put(ResultCache.Plan.class, resultCache.plan(tables, ttlSeconds[0]));
+        }
+        return super.beginExecuteOperation(parameters, state);
+    }
+
+    // maxAge of a hint, 0 for private responses, or null without a hint
+    private static Long maxAge(GraphQLAppliedDirective hint) {
+        if (hint == null) return null;
+        GraphQLAppliedDirectiveArgument scope = hint.getArgument("scope");
+        Object scopeValue = scope == null ? null : scope.getValue();
+        if ("PRIVATE".equals(scopeValue)) return 0L;
+        GraphQLAppliedDirectiveArgument maxAge = hint.getArgument("maxAge");
+        Object maxAgeValue = maxAge == null ? null : maxAge.getValue();
+        return maxAgeValue instanceof Number seconds ? seconds.longValue() : null;
+    }
+}
@@ -1,31 +1,73 @@
 package com.dac.graphql.core.controller;
 
+import com.dac.graphql.core.service.AdmissionController;
+import com.dac.graphql.core.service.BulkMutations;
+import com.dac.graphql.core.service.FetcherExecutor;
+import com.dac.graphql.core.service.FieldSqlPlan;
+import com.dac.graphql.core.service.GraphQLMetricsInstrumentation;
+import com.dac.graphql.core.service.GroupCommitScheduler;
+import com.dac.graphql.core.service.IndexAdvisor;
+import com.dac.graphql.core.service.PaginationSettings;
+import com.dac.graphql.core.service.QueryCost;
+import com.dac.graphql.core.service.QueryFilters;
+import com.dac.graphql.core.service.QueryLimits;
+import com.dac.graphql.core.service.QueryLimitsInstrumentation;
+import com.dac.graphql.core.service.QueryLog;
+import com.dac.graphql.core.service.RowDataLoaderFactory;
+import com.dac.graphql.core.service.RowFieldFetcher;
+import com.dac.graphql.core.service.SchemaModel;
 import com.dac.graphql.core.service.SchemaRegistry;
 import com.dac.graphql.core.service.SchemaService;
+import com.dac.graphql.core.service.TableStatistics;
 import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.adapter.SqlUpdate;
+import com.dac.graphql.core.cache.CacheCoherence;
+import com.dac.graphql.core.cache.CompiledSchemaCache;
+import com.dac.graphql.core.cache.PersistedQueryStore;
+import com.dac.graphql.core.cache.PreparsedDocumentCache;
+import com.dac.graphql.core.cache.ResultCache;
+import com.dac.graphql.core.cache.ResultCacheInstrumentation;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.GraphQL;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.AsyncExecutionStrategy;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.execution.instrumentation.Instrumentation;
 import graphql.language.FieldDefinition;
+import graphql.language.ListType;
+import graphql.language.NonNullType;
 import graphql.language.ObjectTypeDefinition;
+import graphql.language.Type;
 import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.SelectedField;
+import graphql.schema.idl.FieldWiringEnvironment;
 import graphql.schema.idl.RuntimeWiring;
 import graphql.schema.idl.SchemaGenerator;
-import graphql.schema.idl.SchemaParser;
-import graphql.schema.idl.TypeDefinitionRegistry;
 import graphql.schema.idl.TypeRuntimeWiring;
+import graphql.schema.idl.WiringFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.dataloader.DataLoader;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.File;
-import java.io.FileReader;
-import java.util.HashMap;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import graphql.language.Type;
-import graphql.language.TypeName;
-import graphql.language.ListType;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/graphql")
@@ -39,153 +81,490 @@ public class GraphQLController {
     @Autowired
     private DatabaseAdapter databaseAdapter;
 
-    // Cache GraphQL instances per specName
-    private final Map<String, GraphQL> graphQLMap = new HashMap<>();
-    private final Map<String, File> lastSchemaFileMap = new HashMap<>();
+    @Autowired
+    private PreparsedDocumentCache documentCache;
+
+    @Autowired
+    private PersistedQueryStore persistedQueryStore;
+
+    @Autowired
+    private RowDataLoaderFactory rowDataLoaderFactory;
+
+    @Autowired
+    private PaginationSettings paginationSettings;
+
+    @Autowired
+    private GroupCommitScheduler groupCommitScheduler;
+
+    @Autowired
+    private IndexAdvisor indexAdvisor;
+
+    @Autowired
+    private QueryLog queryLog;
+
+    @Autowired
+    private FetcherExecutor fetcherExecutor;
+
+    @Autowired
+    private QueryLimits queryLimits;
+
+    @Autowired
+    private AdmissionController admissionController;
+
+    @Autowired
+    private TableStatistics tableStatistics;
+
+    @Autowired
+    private ResultCache resultCache;
+
+    @Autowired
+    private CacheCoherence cacheCoherence;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // Cache GraphQL instances per specName and schema version
+    private final CompiledSchemaCache schemaCache = new CompiledSchemaCache();
 
     @PostMapping("/{specName}")
     public ResponseEntity<?> execute(@PathVariable String specName, @RequestBody Map<String, Object> request) {
+        return execute(specName, request, null);
+    }
+
+    /**
+     * Execute like {@link #execute(String, Map)}, but write the response while rows are read:
+     * top-level lists of table rows that select only columns are streamed from a cursor.
+     */
+    @PostMapping("/{specName}/stream")
+    public ResponseEntity<?> executeStreaming(@PathVariable String specName, @RequestBody Map<String, Object> request) {
+        return execute(specName, request, new StreamingResultWriter(databaseAdapter, queryLog));
+    }
+
+    private ResponseEntity<?> execute(String specName, Map<String, Object> request, StreamingResultWriter writer) {
         if (!schemaRegistry.hasSchema(specName)) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("GraphQL schema not found for spec: " + specName);
         }
         File schemaFile = schemaRegistry.getSchemaFile(specName);
+        long start = System.nanoTime();
+        String query = (String) request.get("query");
+        Map<String, Object> variables = (Map<String, Object>) request.getOrDefault("variables", null);
         try {
-            GraphQL graphQL = graphQLMap.get(specName);
-            File lastSchemaFile = lastSchemaFileMap.get(specName);
-            if (graphQL == null || !schemaFile.equals(lastSchemaFile)) {
-                // (Re)build GraphQL instance if schema changed
-                SchemaParser parser = new SchemaParser();
-                TypeDefinitionRegistry typeRegistry = parser.parse(new FileReader(schemaFile));
-                RuntimeWiring wiring = buildDynamicWiring(schemaFile);
-                SchemaGenerator generator = new SchemaGenerator();
-                graphQL = GraphQL.newGraphQL(generator.makeExecutableSchema(typeRegistry, wiring)).build();
-                graphQLMap.put(specName, graphQL);
-                lastSchemaFileMap.put(specName, schemaFile);
+            long version = schemaRegistry.getSchemaVersion(specName);
+            GraphQL graphQL = schemaCache.get(specName, schemaFile, version, file -> buildGraphQL(specName, file, version));
+            String queryHash = getPersistedQueryHash(request);
+            if (queryHash != null) {
+                if (query == null) {
+                    query = persistedQueryStore.get(specName, queryHash);
+                    if (query == null) {
+                        // Apollo clients expect 200 and retry with the full query text
+                        return ResponseEntity.ok(errorResult("PersistedQueryNotFound", "PERSISTED_QUERY_NOT_FOUND"));
+                    }
+                } else if (!persistedQueryStore.registerAutomatic(specName, queryHash, query)) {
+                    return ResponseEntity.badRequest()
+                            .body(errorResult("provided sha does not match query", "INVALID_PERSISTED_QUERY"));
+                } else if (persistedQueryStore.isAllowListEnabled() && persistedQueryStore.get(specName, queryHash) == null) {
+                    return ResponseEntity.badRequest()
+                            .body(errorResult("Only persisted queries are allowed", "PERSISTED_QUERY_REQUIRED"));
+                }
+            } else if (persistedQueryStore.isAllowListEnabled()) {
+                return ResponseEntity.badRequest()
+                        .body(errorResult("Only persisted queries are allowed", "PERSISTED_QUERY_REQUIRED"));
+            }
+            ResultCache.Key cacheKey = writer == null && query != null && resultCache.isEnabled()
+                    ? resultCache.key(specName, version, (String) request.get("operationName"), query, variables) : null;
+            if (cacheKey != null) {
+                byte[] cached = resultCache.get(cacheKey);
+                if (cached != null) {
+                    queryLog.operation(specName, (String) request.get("operationName"), query, variables, start, null);
+                    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cached);
+                }
             }
-            String query = (String) request.get("query");
-            Map<String, Object> variables = (Map<String, Object>) request.getOrDefault("variables", null);
             ExecutionInput input = ExecutionInput.newExecutionInput()
                     .query(query)
                     .variables(variables != null ? variables : Map.of())
+                    .dataLoaderRegistry(rowDataLoaderFactory.newRegistry())
+                    .graphQLContext(writer != null ? Map.of(StreamingResultWriter.class, writer) : Map.of())
                     .build();
-            ExecutionResult result = graphQL.execute(input);
-            return ResponseEntity.ok(result.toSpecification());
+            boolean streaming = false;
+            try {
+                ExecutionResult result = graphQL.execute(input);
+                queryLog.operation(specName, (String) request.get("operationName"), query, variables, start,
+                        result.getErrors().isEmpty() ? null : result.getErrors().get(0).getMessage());
+                if (QueryLimitsInstrumentation.isOverloaded(result)) {
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, "1")
+                            .body(result.toSpecification());
+                }
+                if (writer != null) {
+                    streaming = true;
+                    // Streamed rows are read after execution, so the permit is held until they are written
+                    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                            .body((StreamingResponseBody) out -> {
+                                try {
+                                    writer.write(result, out);
+                                } finally {
+                                    releasePermit(input);
+                                }
+                            });
+                }
+                Map<String, Object> specification = result.toSpecification();
+                ResultCache.Plan plan = input.getGraphQLContext().get(ResultCache.Plan.class);
+                if (cacheKey != null && plan != null && result.getErrors().isEmpty()) {
+                    resultCache.put(cacheKey, plan, specification);
+                }
+                return ResponseEntity.ok(specification);
+            } finally {
+                if (!streaming) releasePermit(input);
+            }
         } catch (Exception e) {
+            queryLog.operation(specName, (String) request.get("operationName"), query, variables, start, String.valueOf(e.getMessage()));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
         }
     }
 
+    private static void releasePermit(ExecutionInput input) {
+        AdmissionController.Permit permit = input.getGraphQLContext().get(AdmissionController.Permit.class);
+        if (permit != null) permit.release();
+    }
+
+    @PostMapping("/{specName}/persisted-queries")
+    public ResponseEntity<?> registerPersistedQuery(@PathVariable String specName, @RequestBody Map<String, Object> request) {
+        if (!schemaRegistry.hasSchema(specName)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("GraphQL schema not found for spec: " + specName);
+        }
+        String query = (String) request.get("query");
+        String queryHash = (String) request.get("sha256Hash");
+        if (queryHash == null && query != null) {
+            queryHash = PersistedQueryStore.sha256(query);
+        }
+        if (!persistedQueryStore.register(specName, queryHash, query)) {
+            return ResponseEntity.badRequest().body("provided sha does not match query");
+        }
+        return ResponseEntity.ok(Map.of("sha256Hash", queryHash));
+    }
+
+    // Reads extensions.persistedQuery.sha256Hash from an Apollo persisted query request
+    private String getPersistedQueryHash(Map<String, Object> request) {
+        if (request.get("extensions") instanceof Map<?, ?> extensions
+                && extensions.get("persistedQuery") instanceof Map<?, ?> persistedQuery
+                && persistedQuery.get("sha256Hash") instanceof String hash) {
+            return hash;
+        }
+        return null;
+    }
+
+    private Map<String, Object> errorResult(String message, String code) {
+        return ExecutionResult.newExecutionResult()
+                .addError(GraphqlErrorBuilder.newError().message(message).extensions(Map.of("code", code)).build())
+                .build()
+                .toSpecification();
+    }
+
+    private GraphQL buildGraphQL(String specName, File schemaFile, long version) throws Exception {
+        // Reuse the model parsed at upload time; specs loaded from disk at startup are parsed here once
+        SchemaModel model = schemaRegistry.getSchemaModel(specName);
+        if (model == null) {
+            model = schemaService.loadSchemaModel(schemaFile);
+        }
+        RuntimeWiring wiring = buildDynamicWiring(model, paginationSettings.getMaxPageSize(specName));
+        SchemaGenerator generator = new SchemaGenerator();
+        GraphQL.Builder builder = GraphQL.newGraphQL(generator.makeExecutableSchema(model.getTypeRegistry(), wiring))
+                // Root query fields whose fetchers return futures are resolved concurrently
+                .queryExecutionStrategy(new AsyncExecutionStrategy())
+                .preparsedDocumentProvider(documentCache.forSchema(specName, version));
+        List<Instrumentation> instrumentations = new ArrayList<>();
+        instrumentations.add(new QueryLimitsInstrumentation(queryLimits.forSpec(specName),
+                new QueryCost(model, tableStatistics, paginationSettings.getMaxPageSize(specName)), admissionController));
+        if (resultCache.isEnabled()) {
+            instrumentations.add(new ResultCacheInstrumentation(model, resultCache));
+        }
+        if (meterRegistry != null) {
+            instrumentations.add(new GraphQLMetricsInstrumentation(meterRegistry, specName));
+        }
+        builder.instrumentation(new ChainedInstrumentation(instrumentations));
+        GraphQL graphQL = builder.build();
+        documentCache.invalidateBefore(specName, version);
+        return graphQL;
+    }
+
     // --- Dynamic Wiring and Generic Data Fetchers ---
-    private RuntimeWiring buildDynamicWiring(File schemaFile) throws Exception {
-        RuntimeWiring.Builder wiringBuilder = RuntimeWiring.newRuntimeWiring();
+    private RuntimeWiring buildDynamicWiring(SchemaModel model, int maxPageSize) {
+        RuntimeWiring.Builder wiringBuilder = RuntimeWiring.newRuntimeWiring().wiringFactory(new WiringFactory() {
+            // Fields without a fetcher read result rows by column position
+            @Override
+            public DataFetcher getDefaultDataFetcher(FieldWiringEnvironment environment) {
+                return new RowFieldFetcher(environment.getFieldDefinition().getName());
+            }
+        });
         // Wire Query fields
-        ObjectTypeDefinition queryType = schemaService.getQueryType(schemaFile);
+        ObjectTypeDefinition queryType = model.getQueryType();
         if (queryType != null) {
             TypeRuntimeWiring.Builder queryWiring = TypeRuntimeWiring.newTypeWiring("Query");
             for (FieldDefinition field : queryType.getFieldDefinitions()) {
-                queryWiring.dataFetcher(field.getName(), genericQueryFetcher(field));
+                if (isKeyLookup(model, field)) {
+                    queryWiring.dataFetcher(field.getName(), batchedQueryFetcher(model, field));
+                } else if (isTableList(model, field)) {
+                    queryWiring.dataFetcher(field.getName(), pagedQueryFetcher(model, field, maxPageSize));
+                } else {
+                    queryWiring.dataFetcher(field.getName(), genericQueryFetcher(FieldSqlPlan.forQuery(model, field)));
+                }
             }
             wiringBuilder.type(queryWiring);
         }
         // Wire Mutation fields
-        ObjectTypeDefinition mutationType = schemaService.getMutationType(schemaFile);
+        ObjectTypeDefinition mutationType = model.getMutationType();
         if (mutationType != null) {
             TypeRuntimeWiring.Builder mutationWiring = TypeRuntimeWiring.newTypeWiring("Mutation");
             for (FieldDefinition field : mutationType.getFieldDefinitions()) {
-                mutationWiring.dataFetcher(field.getName(), genericMutationFetcher(field));
+                SchemaModel.Table bulkTable = BulkMutations.targetTable(model, field);
+                if (bulkTable != null) {
+                    mutationWiring.dataFetcher(field.getName(), bulkInsertFetcher(bulkTable));
+                } else {
+                    FieldSqlPlan plan = FieldSqlPlan.forMutation(model, field);
+                    mutationWiring.dataFetcher(field.getName(), plan != null ? genericMutationFetcher(model, plan) : env -> null);
+                }
             }
             wiringBuilder.type(mutationWiring);
         }
+        // Wire object-typed fields of tables to batched relation fetchers
+        for (SchemaModel.Table table : model.getTables().values()) {
+            if (table.relations().isEmpty()) continue;
+            TypeRuntimeWiring.Builder typeWiring = TypeRuntimeWiring.newTypeWiring(table.name());
+            for (SchemaModel.Relation relation : table.relations()) {
+                DataFetcher<Object> fetcher = relationFetcher(model, table, relation);
+                if (fetcher != null) {
+                    typeWiring.dataFetcher(relation.fieldName(), fetcher);
+                }
+            }
+            wiringBuilder.type(typeWiring);
+        }
         return wiringBuilder.build();
     }
 
-    private DataFetcher<Object> genericQueryFetcher(FieldDefinition field) {
+    private DataFetcher<Object> relationFetcher(SchemaModel model, SchemaModel.Table table, SchemaModel.Relation relation) {
+        SchemaModel.Table targetTable = model.getTable(relation.targetTable());
+        String targetKeyColumn = targetTable.keyColumn();
+        if (relation.kind() == SchemaModel.RelationKind.MANY_TO_ONE) {
+            if (targetKeyColumn == null) return null;
+            return env -> {
+                Object key = RowDataLoaderFactory.getColumnValue(env.getSource(), relation.foreignKeyColumn());
+                if (key == null) return null;
+                return rowDataLoaderFactory.getLoader(env.getDataLoaderRegistry(), relation.targetTable(), targetKeyColumn,
+                        projection(targetTable, env)).load(key);
+            };
+        }
+        String parentKeyColumn = table.keyColumn();
+        if (parentKeyColumn == null || (relation.kind() == SchemaModel.RelationKind.MANY_TO_MANY && targetKeyColumn == null)) {
+            return null;
+        }
         return env -> {
-            // Extract the base type name (e.g., User) from the field's type using AST
-            String tableName = getBaseTypeName(field.getType());
-            // Debug: print the SQL and table name
-            System.out.println("[GraphQL] Querying table: " + tableName + ", field: " + field.getName() + ", args: " + env.getArguments());
-            try {
-                if (env.getArguments().isEmpty()) {
-                    // Fetch all
-                    String sql = "SELECT * FROM " + tableName;
-                    System.out.println("[GraphQL] SQL: " + sql);
-                    return databaseAdapter.executeQuery(sql);
-                } else {
-                    // Fetch by ID (assume first argument is ID)
-                    String idArg = env.getArguments().keySet().iterator().next();
-                    Object idVal = env.getArgument(idArg);
-                    String sql = "SELECT * FROM " + tableName + " WHERE " + idArg + " = ?";
-                    System.out.println("[GraphQL] SQL: " + sql + ", idVal: " + idVal);
-                    return databaseAdapter.executeQuerySingle(sql, idVal);
-                }
-            } catch (Exception e) {
-                System.err.println("[GraphQL] SQL Error: " + e.getMessage());
-                throw new RuntimeException("SQL error querying table '" + tableName + "': " + e.getMessage());
-            }
+            Object key = RowDataLoaderFactory.getColumnValue(env.getSource(), parentKeyColumn);
+            if (key == null) return List.of();
+            return rowDataLoaderFactory.getChildLoader(env.getDataLoaderRegistry(), table.name(), relation, targetKeyColumn,
+                    projection(targetTable, env)).load(key);
         };
     }
 
-    // Helper to extract the base type name from a GraphQL Type
-    private String getBaseTypeName(Type<?> type) {
-        if (type instanceof TypeName) {
-            return ((TypeName) type).getName();
-        } else if (type instanceof ListType) {
-            return getBaseTypeName(((ListType) type).getType());
-        } else if (type instanceof graphql.language.NonNullType) {
-            return getBaseTypeName(((graphql.language.NonNullType) type).getType());
+    // A single-argument field returning one row of a known table, e.g. book(id: ID!): Book
+    private boolean isKeyLookup(SchemaModel model, FieldDefinition field) {
+        Type<?> type = field.getType();
+        if (type instanceof NonNullType) {
+            type = ((NonNullType) type).getType();
+        }
+        return field.getInputValueDefinitions().size() == 1
+                && !(type instanceof ListType)
+                && model.getTable(SchemaModel.getBaseTypeName(type)) != null;
+    }
+
+    // A field returning a list of rows of a known table, e.g. books(first: 10, after: "b9"): [Book]
+    private boolean isTableList(SchemaModel model, FieldDefinition field) {
+        Type<?> type = field.getType();
+        if (type instanceof NonNullType) {
+            type = ((NonNullType) type).getType();
         }
-        return type.toString(); // fallback
+        return type instanceof ListType && model.getTable(SchemaModel.getBaseTypeName(type)) != null;
     }
 
-    private DataFetcher<Object> genericMutationFetcher(FieldDefinition field) {
+    private DataFetcher<Object> pagedQueryFetcher(SchemaModel model, FieldDefinition field, int maxPageSize) {
+        FieldSqlPlan plan = FieldSqlPlan.forPagedQuery(model, field);
+        SchemaModel.Table table = plan.table();
+        String keyColumn = table.keyColumn();
         return env -> {
-            String fieldName = field.getName();
-            // For simplicity, assume mutation is addX, updateX, or deleteX
-            // and arguments match table columns
-            String op = fieldName.toLowerCase();
-            String typeName = op.replaceAll("^(add|update|delete)", "");
-            if (typeName.isEmpty() && field.getType() != null) {
-                typeName = field.getType().toString().replace("!", "");
+            Map<String, Object> args = new LinkedHashMap<>(env.getArguments());
+            Integer first = (Integer) args.remove(PaginationSettings.FIRST);
+            Integer limit = (Integer) args.remove(PaginationSettings.LIMIT);
+            Object after = args.remove(PaginationSettings.AFTER);
+            Integer offset = (Integer) args.remove(PaginationSettings.OFFSET);
+            Map<String, Object> where = (Map<String, Object>) args.remove(QueryFilters.WHERE);
+            List<Map<String, Object>> orderBy = (List<Map<String, Object>>) args.remove(QueryFilters.ORDER_BY);
+            int pageSize = first != null ? first : limit != null ? limit : maxPageSize;
+            if (pageSize < 0 || pageSize > maxPageSize) {
+                throw new IllegalArgumentException("Page size must be between 0 and " + maxPageSize);
+            }
+            if (offset != null && offset < 0) {
+                throw new IllegalArgumentException("offset must not be negative");
+            }
+            if (after != null && keyColumn == null) {
+                throw new IllegalArgumentException("Type '" + table.name() + "' has no ID field to page after");
+            }
+            if (after != null && orderBy != null && !orderBy.isEmpty()) {
+                throw new IllegalArgumentException("after pages by key and cannot be combined with orderBy; use offset");
             }
-            String tableName = Character.toUpperCase(typeName.charAt(0)) + typeName.substring(1);
+            FieldSqlPlan.Select select = plan.bindPage(args, projection(table, env), where,
+                    QueryFilters.orderByClause(table, orderBy), after, pageSize, offset);
+            String sql = select.sql();
+            Object[] params = select.params();
+            indexAdvisor.recordQuery(sql);
+            // Streamed responses read the rows after execution, from a cursor
+            StreamingResultWriter writer = env.getGraphQlContext().get(StreamingResultWriter.class);
+            if (writer != null && writer.defer(env, table, sql, params)) {
+                return List.of();
+            }
+            return fetcherExecutor.fetch(() -> {
+                long start = System.nanoTime();
+                try {
+                    List<Map<String, Object>> rows = databaseAdapter.executeQuery(sql, params);
+                    queryLog.sql(table.name(), sql, params, start, null);
+                    return rows;
+                } catch (Exception e) {
+                    queryLog.sql(table.name(), sql, params, start, e);
+                    throw new RuntimeException("SQL error querying table '" + table.name() + "': " + e.getMessage());
+                }
+            });
+        };
+    }
+
+    // Columns of the table that the field's selection set asks for, plus the key column
+    private List<String> projection(SchemaModel.Table table, DataFetchingEnvironment env) {
+        if (table == null) return List.of();
+        Set<String> fieldNames = new HashSet<>();
+        for (SelectedField selected : env.getSelectionSet().getImmediateFields()) {
+            fieldNames.add(selected.getName());
+        }
+        return table.projection(fieldNames);
+    }
+
+    private DataFetcher<Object> batchedQueryFetcher(SchemaModel model, FieldDefinition field) {
+        SchemaModel.Table table = model.getTable(SchemaModel.getBaseTypeName(field.getType()));
+        String keyColumn = field.getInputValueDefinitions().get(0).getName();
+        return env -> {
+            Object keyVal = env.getArgument(keyColumn);
+            if (keyVal == null) return null;
+            DataLoader<Object, Map<String, Object>> loader = rowDataLoaderFactory.getLoader(
+                    env.getDataLoaderRegistry(), table.name(), keyColumn, projection(table, env));
+            return loader.load(keyVal);
+        };
+    }
+
+    private DataFetcher<Object> genericQueryFetcher(FieldSqlPlan plan) {
+        return env -> {
+            FieldSqlPlan.Select select = plan.bindSelect(env.getArguments(), projection(plan.table(), env));
+            return fetcherExecutor.fetch(() -> {
+                long start = System.nanoTime();
+                try {
+                    Object result;
+                    if (!select.singleRow()) {
+                        result = databaseAdapter.executeQuery(select.sql());
+                    } else {
+                        // Fetch one row matching every argument
+                        indexAdvisor.recordQuery(select.sql());
+                        result = databaseAdapter.executeQuerySingle(select.sql(), select.params());
+                    }
+                    queryLog.sql(plan.tableName(), select.sql(), select.params(), start, null);
+                    return result;
+                } catch (Exception e) {
+                    queryLog.sql(plan.tableName(), select.sql(), select.params(), start, e);
+                    throw new RuntimeException("SQL error querying table '" + plan.tableName() + "': " + e.getMessage());
+                }
+            });
+        };
+    }
+
+    private DataFetcher<Object> genericMutationFetcher(SchemaModel model, FieldSqlPlan plan) {
+        return env -> {
             Map<String, Object> args = env.getArguments();
-            try {
-                if (op.startsWith("add")) {
-                    // Insert
-                    String columns = String.join(", ", args.keySet());
-                    String placeholders = String.join(", ", args.keySet().stream().map(k -> "?").toArray(String[]::new));
-                    String sql = "INSERT INTO " + tableName + " (" + columns + ") VALUES (" + placeholders + ")";
-                    databaseAdapter.executeUpdate(sql, args.values().toArray());
-                    return args;
-                } else if (op.startsWith("update")) {
-                    // Update by ID (assume first arg is ID)
-                    String idArg = args.keySet().iterator().next();
-                    Object idVal = args.get(idArg);
-                    String setClause = String.join(", ", args.keySet().stream().filter(k -> !k.equals(idArg)).map(k -> k + " = ?").toArray(String[]::new));
-                    String sql = "UPDATE " + tableName + " SET " + setClause + " WHERE " + idArg + " = ?";
-                    Object[] params = new Object[args.size()];
-                    int idx = 0;
-                    for (String key : args.keySet()) {
-                        if (!key.equals(idArg)) params[idx++] = args.get(key);
+            List<SqlUpdate> updates = new ArrayList<>();
+            updates.add(plan.bindUpdate(args));
+            // Written table -> written keys, or null when they are not known
+            Map<String, Collection<?>> written = new LinkedHashMap<>();
+            String keyColumn = plan.table() != null ? plan.table().keyColumn() : null;
+            Object key = args.get(plan.kind() == FieldSqlPlan.Kind.INSERT ? keyColumn : plan.keyArgument());
+            boolean byKey = key != null && (plan.kind() == FieldSqlPlan.Kind.INSERT || plan.keyArgument().equals(keyColumn));
+            written.put(plan.tableName(), byKey ? List.of(key) : null);
+            if (plan.kind() == FieldSqlPlan.Kind.INSERT) {
+                // List relations are not columns and are linked after the row exists
+                for (SchemaModel.Relation relation : plan.links()) {
+                    if (!args.containsKey(relation.fieldName())) continue;
+                    List<?> childKeys = (List<?>) args.get(relation.fieldName());
+                    updates.addAll(linkChildren(model, relation, args.get(keyColumn), childKeys));
+                    if (relation.joinTable() != null) {
+                        written.put(relation.joinTable(), null);
+                    } else if (childKeys != null) {
+                        written.put(relation.targetTable(), childKeys);
                     }
-                    params[idx] = idVal;
-                    databaseAdapter.executeUpdate(sql, params);
-                    return args;
-                } else if (op.startsWith("delete")) {
-                    // Delete by ID (assume first arg is ID)
-                    String idArg = args.keySet().iterator().next();
-                    Object idVal = args.get(idArg);
-                    String sql = "DELETE FROM " + tableName + " WHERE " + idArg + " = ?";
-                    databaseAdapter.executeUpdate(sql, idVal);
-                    return Map.of(idArg, idVal);
                 }
-            } catch (Exception e) {
-                System.err.println("[GraphQL] SQL Error: " + e.getMessage());
-                throw new RuntimeException("SQL error in mutation '" + fieldName + "': " + e.getMessage());
             }
-            return null;
+            Object result = plan.kind() == FieldSqlPlan.Kind.DELETE
+                    ? Map.of(plan.keyArgument(), args.get(plan.keyArgument())) : args;
+            // Committed with concurrent mutations of the same table when group commit is enabled
+            long start = System.nanoTime();
+            return groupCommitScheduler.submit(plan.tableName(), updates).handle((counts, error) -> {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                queryLog.sql(plan.tableName(), updates.get(0).sql(), updates.get(0).params(), start, cause);
+                if (error != null) {
+                    throw new RuntimeException("SQL error in mutation '" + env.getField().getName() + "': " + cause.getMessage());
+                }
+                // After the commit, so queries planned before it cannot cache what they read
+                written.forEach(cacheCoherence::written);
+                return result;
+            });
+        };
+    }
+
+    // addBooks(input: [BookInput!]!): all rows in one bulk insert, bypassing group commit
+    private DataFetcher<Object> bulkInsertFetcher(SchemaModel.Table table) {
+        return env -> {
+            List<Map<String, Object>> inputs = env.getArgument(BulkMutations.INPUT);
+            List<String> columns = BulkMutations.columns(table, inputs);
+            String statement = "INSERT INTO " + table.name() + " (" + String.join(", ", columns) + ")";
+            long start = System.nanoTime();
+            try {
+                int count = Math.toIntExact(databaseAdapter.bulkInsert(table.name(), columns,
+                        BulkMutations.rows(table, columns, inputs.iterator())));
+                queryLog.sql(table.name(), statement, null, start, null);
+                return count;
+            } catch (SQLException e) {
+                queryLog.sql(table.name(), statement, null, start, e);
+                throw new RuntimeException("SQL error in mutation '" + env.getField().getName() + "': " + e.getMessage());
+            } finally {
+                // Chunks may have been committed before a failure
+                cacheCoherence.written(table.name(), null);
+            }
         };
     }
-} 
\ No newline at end of file
+
+    private List<SqlUpdate> linkChildren(SchemaModel model, SchemaModel.Relation relation, Object parentKey, List<?> childKeys) {
+        if (parentKey == null || childKeys == null || childKeys.isEmpty()) return List.of();
+        List<SqlUpdate> updates = new ArrayList<>();
+        if (relation.kind() == SchemaModel.RelationKind.MANY_TO_MANY) {
+            String sql = "INSERT INTO " + relation.joinTable() + " (" + SchemaModel.Relation.JOIN_PARENT_COLUMN + ", "
+                    + SchemaModel.Relation.JOIN_CHILD_COLUMN + ") VALUES (?, ?)";
+            for (Object childKey : childKeys) {
+                updates.add(new SqlUpdate(sql, String.valueOf(parentKey), String.valueOf(childKey)));
+            }
+        } else {
+            String targetKeyColumn = model.getTable(relation.targetTable()).keyColumn();
+            if (targetKeyColumn == null) return List.of();
+            String placeholders = String.join(", ", Collections.nCopies(childKeys.size(), "?"));
+            String sql = "UPDATE " + relation.targetTable() + " SET " + relation.foreignKeyColumn() + " = ? WHERE "
+                    + targetKeyColumn + " IN (" + placeholders + ")";
+            List<Object> params = new ArrayList<>();
+            params.add(parentKey);
+            params.addAll(childKeys);
+            updates.add(new SqlUpdate(sql, params.toArray()));
+        }
+        return updates;
+    }
+}
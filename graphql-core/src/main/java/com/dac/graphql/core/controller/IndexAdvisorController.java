@@ -0,0 +1,38 @@
+package com.dac.graphql.core.controller;
+
+import com.dac.graphql.core.service.IndexAdvisor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.sql.SQLException;
+
+@Tag(name = "Index Advisor", description = "Index recommendations from observed query predicates.")
+@RestController
+@RequestMapping("/api")
+public class IndexAdvisorController {
+
+    @Autowired
+    private IndexAdvisor indexAdvisor;
+
+    @Operation(
+        summary = "Recommend missing indexes",
+        description = "Lists columns filtered on by executed queries that lead no index, most frequently filtered first, "
+                + "with the statement that creates each index.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Recommendations, possibly empty."),
+            @ApiResponse(responseCode = "500", description = "Index metadata could not be read.")
+        }
+    )
+    @GetMapping("/index-advisor")
+    public ResponseEntity<?> recommendIndexes() {
+        try {
+            return ResponseEntity.ok(indexAdvisor.recommend());
+        } catch (SQLException e) {
+            return ResponseEntity.status(500).body("Index advice failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.dac.graphql.core.controller;
+
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.cache.CacheCoherence;
+import com.dac.graphql.core.service.BulkMutations;
+import com.dac.graphql.core.service.SchemaModel;
+import com.dac.graphql.core.service.SchemaRegistry;
+import com.dac.graphql.core.service.SchemaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+@Tag(name = "Ingest", description = "Endpoints for bulk loading rows into the tables of a GraphQL spec.")
+@RestController
+@RequestMapping("/api")
+public class IngestController {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired
+    private SchemaService schemaService;
+
+    @Autowired
+    private SchemaRegistry schemaRegistry;
+
+    @Autowired
+    private DatabaseAdapter databaseAdapter;
+
+    @Autowired
+    private CacheCoherence cacheCoherence;
+
+    @Operation(
+        summary = "Stream rows into a table",
+        description = "Reads newline-delimited JSON objects (application/x-ndjson) or CSV with a header row (text/csv) "
+                + "from the request body and inserts them into the table of the given type. The body is read as it "
+                + "is inserted, so arbitrarily large files can be loaded.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Rows inserted; returns the table and row count."),
+            @ApiResponse(responseCode = "400", description = "Malformed body or unknown field."),
+            @ApiResponse(responseCode = "404", description = "Spec or type not found."),
+            @ApiResponse(responseCode = "500", description = "Insert failed.")
+        }
+    )
+    @PostMapping("/ingest/{specName}/{typeName}")
+    public ResponseEntity<?> ingest(
+            @Parameter(description = "The registered spec name.", required = true) @PathVariable String specName,
+            @Parameter(description = "The object type whose table receives the rows.", required = true) @PathVariable String typeName,
+            HttpServletRequest request) throws IOException {
+        if (!schemaRegistry.hasSchema(specName)) {
+            return ResponseEntity.status(404).body("Spec not found: " + specName);
+        }
+        SchemaModel model = schemaRegistry.getSchemaModel(specName);
+        if (model == null) {
+            model = schemaService.loadSchemaModel(schemaRegistry.getSchemaFile(specName));
+        }
+        SchemaModel.Table table = model.getTable(typeName);
+        if (table == null) {
+            return ResponseEntity.status(404).body("Type not found: " + typeName);
+        }
+        Reader body = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        String contentType = request.getContentType();
+        try {
+            List<String> columns;
+            Iterator<? extends Map<String, ?>> inputs;
+            if (contentType != null && contentType.contains("csv")) {
+                CsvRows csv = new CsvRows(body);
+                columns = csv.header();
+                for (String column : columns) {
+                    SchemaModel.Column known = table.getColumn(column);
+                    if (known == null || known.list()) {
+                        return ResponseEntity.badRequest().body("Unknown field '" + column + "' for " + table.name());
+                    }
+                }
+                inputs = csv;
+            } else {
+                Iterator<Map<String, Object>> objects = MAPPER.readerFor(Map.class).readValues(body);
+                // Whether keys are given is decided by the first object
+                List<Map<String, Object>> first = objects.hasNext() ? List.of(objects.next()) : List.of();
+                columns = BulkMutations.columns(table, first);
+                inputs = prepend(first, objects);
+            }
+            long rows;
+            try {
+                rows = databaseAdapter.bulkInsert(table.name(), columns, BulkMutations.rows(table, columns, inputs));
+            } finally {
+                // Chunks may have been committed before a failure
+                cacheCoherence.written(table.name(), null);
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("table", table.name());
+            result.put("rows", rows);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            // Bad input surfaces from the row iterators while the adapter consumes them
+            if (e instanceof IllegalArgumentException || e.getCause() instanceof IOException) {
+                return ResponseEntity.badRequest().body("Ingest failed: " + e.getMessage());
+            }
+            throw e;
+        } catch (SQLException e) {
+            return ResponseEntity.status(500).body("Ingest failed: " + e.getMessage());
+        }
+    }
+
+    private static <T> Iterator<T> prepend(List<T> head, Iterator<T> tail) {
+        return new Iterator<>() {
+            private final Iterator<T> first = head.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return first.hasNext() || tail.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return first.hasNext() ? first.next() : tail.next();
+            }
+        };
+    }
+
+    /**
+     * Streaming RFC 4180 reader: quoted fields may contain commas, quotes ("") and line breaks.
+     * An empty unquoted field is NULL.
+     */
+    static final class CsvRows implements Iterator<Map<String, Object>> {
+
+        private final Reader reader;
+        private final List<String> header;
+        private List<Object> next;
+
+        CsvRows(Reader reader) throws IOException {
+            this.reader = reader;
+            List<Object> names = readRecord();
+            if (names == null) throw new IllegalArgumentException("CSV body has no header row");
+            this.header = new ArrayList<>();
+            for (Object name : names) {
+                header.add(name == null ? "" : ((String) name).trim());
+            }
+            this.next = readRecord();
+        }
+
+        List<String> header() {
+            return header;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            if (next == null) throw new NoSuchElementException();
+            if (next.size() != header.size()) {
+                throw new IllegalArgumentException("CSV record has " + next.size() + " fields, header has " + header.size());
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                row.put(header.get(i), next.get(i));
+            }
+            try {
+                next = readRecord();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return row;
+        }
+
+        // One record, or null at end of input; blank lines are skipped
+        private List<Object> readRecord() throws IOException {
+            List<Object> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean inQuotes = false;
+            int c = reader.read();
+            while (c == '\r' || c == '\n') c = reader.read();
+            if (c < 0) return null;
+            while (true) {
+                if (inQuotes) {
+                    if (c < 0) throw new IllegalArgumentException("Unterminated quoted CSV field");
+                    if (c == '"') {
+                        int peek = reader.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            inQuotes = false;
+                            c = peek;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0 && !quoted) {
+                    quoted = true;
+                    inQuotes = true;
+                } else if (c == ',' || c == '\n' || c == '\r' || c < 0) {
+                    fields.add(quoted || field.length() > 0 ? field.toString() : null);
+                    if (c != ',') return fields;
+                    field.setLength(0);
+                    quoted = false;
+                } else {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.dac.graphql.core.controller;
+
+import com.dac.graphql.core.service.QueryLog;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Tag(name = "Query Log", description = "Recent slow and failed SQL statements and GraphQL operations.")
+@RestController
+@RequestMapping("/api")
+public class QueryLogController {
+
+    @Autowired
+    private QueryLog queryLog;
+
+    @Operation(
+        summary = "List recent slow operations",
+        description = "Returns the most recent slow or failed SQL statements and GraphQL operations, newest first, "
+                + "with parameters rendered as configured by graphql.query-log.params.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Slow operations, possibly empty.")
+        }
+    )
+    @GetMapping("/slow-operations")
+    public ResponseEntity<List<QueryLog.Entry>> slowOperations(@RequestParam(required = false) Integer limit) {
+        List<QueryLog.Entry> entries = queryLog.slowOperations();
+        if (limit != null && limit >= 0 && limit < entries.size()) {
+            entries = entries.subList(0, limit);
+        }
+        return ResponseEntity.ok(entries);
+    }
+}
@@ -3,6 +3,8 @@ package com.dac.graphql.core.controller;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import com.dac.graphql.core.cache.CacheCoherence;
+import com.dac.graphql.core.service.SchemaModel;
 import com.dac.graphql.core.service.SchemaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import com.dac.graphql.core.service.SchemaRegistry;
@@ -32,6 +34,9 @@ public class SpecUploadController {
     @Autowired
     private SchemaRegistry schemaRegistry;
 
+    @Autowired
+    private CacheCoherence cacheCoherence;
+
     @Operation(
         summary = "Upload a GraphQL schema specification file",
         description = "Uploads a GraphQL schema file and generates the corresponding database schema.",
@@ -53,8 +58,9 @@ public class SpecUploadController {
         file.transferTo(dest);
         // Process schema and generate DB
         try {
-            schemaService.processSchemaFile(dest);
-            schemaRegistry.setSchemaFile(specName, dest);
+            SchemaModel model = schemaService.processSchemaFile(dest);
+            schemaRegistry.setSchemaFile(specName, dest, model);
+            cacheCoherence.schemaChanged(specName, schemaRegistry.getSchemaVersion(specName));
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Schema upload failed: " + e.getMessage());
         }
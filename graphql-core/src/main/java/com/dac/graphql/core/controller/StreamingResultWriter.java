@@ -0,0 +1,177 @@
+package com.dac.graphql.core.controller;
+
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.service.QueryLog;
+import com.dac.graphql.core.service.SchemaModel;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.ExecutionResult;
+import graphql.GraphQLContext;
+import graphql.GraphQLError;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLEnumType;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import graphql.schema.SelectedField;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes a GraphQL result to the response while rows are read. During execution, top-level table
+ * lists whose selections are all columns are not fetched: the list fetcher registers a cursor
+ * through {@link #defer} and returns an empty list. Writing the result then runs each cursor and
+ * writes its rows straight to the output stream, so the time to first byte and the heap used do
+ * not grow with the number of rows. A slow client blocks the stream, which pauses the cursor.
+ * Errors raised while streaming rows are appended to the result's errors, which follow data.
+ */
+final class StreamingResultWriter {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String TYPENAME = "__typename";
+
+    // A selected field of the streamed rows; column is null for __typename
+    private record Output(String resultKey, String column, GraphQLType type) {
+    }
+
+    private record Cursor(String table, String sql, Object[] params, List<Output> outputs) {
+    }
+
+    private final DatabaseAdapter databaseAdapter;
+    private final QueryLog queryLog;
+    // Result key of a top-level field -> its cursor
+    private final Map<String, Cursor> cursors = new ConcurrentHashMap<>();
+
+    StreamingResultWriter(DatabaseAdapter databaseAdapter, QueryLog queryLog) {
+        this.databaseAdapter = databaseAdapter;
+        this.queryLog = queryLog;
+    }
+
+    /**
+     * Register the rows of a top-level table list for streaming.
+     *
+     * @return true if the rows will be streamed and the fetcher should return an empty list;
+     *         false if the field is nested or selects relations, and must be fetched as usual
+     */
+    boolean defer(DataFetchingEnvironment env, SchemaModel.Table table, String sql, Object[] params) {
+        if (env.getExecutionStepInfo().getPath().getLevel() != 1) return false;
+        List<Output> outputs = new ArrayList<>();
+        for (SelectedField selected : env.getSelectionSet().getImmediateFields()) {
+            if (selected.getName().equals(TYPENAME)) {
+                outputs.add(new Output(selected.getResultKey(), null, null));
+            } else if (table.getRelation(selected.getName()) == null && table.getColumn(selected.getName()) != null) {
+                outputs.add(new Output(selected.getResultKey(), selected.getName(), GraphQLTypeUtil.unwrapAll(selected.getType())));
+            } else {
+                return false;
+            }
+        }
+        cursors.put(env.getMergedField().getResultKey(), new Cursor(table.name(), sql, params, outputs));
+        return true;
+    }
+
+    /**
+     * Write the result as a GraphQL response, streaming the rows of deferred fields.
+     *
+     * @param result the executed result
+     * @param out the response body
+     * @throws IOException if the client cannot be written to
+     */
+    void write(ExecutionResult result, OutputStream out) throws IOException {
+        List<Object> errors = new ArrayList<>();
+        for (GraphQLError error : result.getErrors()) {
+            errors.add(error.toSpecification());
+        }
+        try (JsonGenerator gen = MAPPER.getFactory().createGenerator(out)) {
+            gen.writeStartObject();
+            if (result.isDataPresent()) {
+                gen.writeFieldName("data");
+                if (result.getData() instanceof Map<?, ?> fields) {
+                    gen.writeStartObject();
+                    for (Map.Entry<?, ?> field : fields.entrySet()) {
+                        String key = String.valueOf(field.getKey());
+                        gen.writeFieldName(key);
+                        Cursor cursor = cursors.get(key);
+                        if (cursor != null && field.getValue() instanceof List) {
+                            writeRows(gen, key, cursor, errors);
+                        } else {
+                            gen.writeObject(field.getValue());
+                        }
+                    }
+                    gen.writeEndObject();
+                } else {
+                    gen.writeObject(result.getData());
+                }
+            }
+            if (!errors.isEmpty()) {
+                gen.writeFieldName("errors");
+                gen.writeObject(errors);
+            }
+            if (result.getExtensions() != null) {
+                gen.writeFieldName("extensions");
+                gen.writeObject(result.getExtensions());
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    private void writeRows(JsonGenerator gen, String key, Cursor cursor, List<Object> errors) throws IOException {
+        gen.writeStartArray();
+        // Everything before the rows reaches the client before the query runs
+        gen.flush();
+        List<Output> outputs = cursor.outputs();
+        int[] columns = new int[outputs.size()];
+        Object[] values = new Object[outputs.size()];
+        long start = System.nanoTime();
+        try {
+            databaseAdapter.streamQuery(cursor.sql(), cursor.params(), rs -> {
+                // A row is read and coerced in full before any of it is written
+                for (int i = 0; i < outputs.size(); i++) {
+                    Output output = outputs.get(i);
+                    if (output.column() == null) {
+                        values[i] = cursor.table();
+                        continue;
+                    }
+                    if (columns[i] == 0) columns[i] = rs.findColumn(output.column());
+                    values[i] = serialize(output.type(), rs.getObject(columns[i]));
+                }
+                try {
+                    gen.writeStartObject();
+                    for (int i = 0; i < outputs.size(); i++) {
+                        gen.writeFieldName(outputs.get(i).resultKey());
+                        gen.writeObject(values[i]);
+                    }
+                    gen.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            queryLog.sql(cursor.table(), cursor.sql(), cursor.params(), start, null);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (SQLException | RuntimeException e) {
+            queryLog.sql(cursor.table(), cursor.sql(), cursor.params(), start, e);
+            errors.add(Map.of("message", "Exception while fetching data (/" + key + ") : SQL error querying table '"
+                    + cursor.table() + "': " + e.getMessage(), "path", List.of(key)));
+        }
+        gen.writeEndArray();
+    }
+
+    private static Object serialize(GraphQLType type, Object value) {
+        if (value == null) return null;
+        if (type instanceof GraphQLScalarType scalar) {
+            return scalar.getCoercing().serialize(value, GraphQLContext.getDefault(), Locale.getDefault());
+        }
+        if (type instanceof GraphQLEnumType enumType) {
+            return enumType.serialize(value, GraphQLContext.getDefault(), Locale.getDefault());
+        }
+        return value;
+    }
+}
@@ -0,0 +1,95 @@
+package com.dac.graphql.core.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the total estimated cost of the operations running at once. The capacity is a bucket
+ * of tokens: an operation takes as many tokens as its cost before it runs and returns them
+ * when its response is written. An operation that cannot get its tokens within the configured
+ * wait is rejected, so a burst of expensive queries queues briefly and is then shed instead of
+ * piling onto the connection pool. Waiting operations are served in arrival order, so cheap
+ * queries do not starve expensive ones. A capacity of 0 or less admits everything.
+ */
+@Component
+public class AdmissionController {
+
+    /** Tokens held by an admitted operation; release it exactly once. */
+    public final class Permit {
+        private final int tokens;
+        private boolean released;
+
+        private Permit(int tokens) {
+            this.tokens = tokens;
+        }
+
+        public synchronized void release() {
+            if (released) return;
+            released = true;
+            if (semaphore != null) semaphore.release(tokens);
+        }
+    }
+
+    private final int capacity;
+    private final long maxWaitNanos;
+    private final Semaphore semaphore;
+    private final Counter rejected;
+
+    /**
+     * @param capacity total cost of the operations allowed to run at once; 0 or less disables
+     * @param maxWaitMillis how long an operation may wait for tokens before it is rejected
+     * @param meterRegistry registry for the available tokens gauge and rejected counter, or null
+     */
+    @Autowired
+    public AdmissionController(@Value("${graphql.admission.max-concurrent-cost:0}") long capacity,
+                               @Value("${graphql.admission.max-wait-ms:100}") long maxWaitMillis,
+                               @Nullable MeterRegistry meterRegistry) {
+        this.capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(0, capacity));
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.semaphore = this.capacity > 0 ? new Semaphore(this.capacity, true) : null;
+        if (meterRegistry != null) {
+            this.rejected = Counter.builder("graphql.admission.rejected")
+                    .description("Operations rejected because the cost capacity was in use")
+                    .register(meterRegistry);
+            if (semaphore != null) {
+                Gauge.builder("graphql.admission.available", semaphore, Semaphore::availablePermits)
+                        .description("Cost capacity not held by running operations")
+                        .register(meterRegistry);
+            }
+        } else {
+            this.rejected = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return semaphore != null;
+    }
+
+    /**
+     * Take tokens for an operation, waiting up to the configured time.
+     *
+     * @param cost the operation's estimated cost; costs above the capacity take the whole capacity
+     * @return the permit, or null if the operation is rejected
+     */
+    public Permit tryAcquire(long cost) {
+        if (semaphore == null) return new Permit(0);
+        int tokens = (int) Math.max(1, Math.min(cost, capacity));
+        try {
+            if (semaphore.tryAcquire(tokens, maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                return new Permit(tokens);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (rejected != null) rejected.increment();
+        return null;
+    }
+}
@@ -0,0 +1,149 @@
+package com.dac.graphql.core.service;
+
+import graphql.language.FieldDefinition;
+import graphql.language.InputValueDefinition;
+import graphql.language.ObjectTypeDefinition;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generated bulk insert mutations. For an object type Book the schema gains
+ * <pre>
+ * input BookInput { id: ID, title: String, author: ID, ... }
+ * type Mutation { addBooks(input: [BookInput!]!): Int! }
+ * </pre>
+ * returning the number of inserted rows. Object references are given by key; list fields are
+ * not part of the input. The key field is optional, so the database can assign keys. The same
+ * row conversion is used by the streaming ingest endpoint.
+ */
+public final class BulkMutations {
+
+    public static final String INPUT = "input";
+
+    private BulkMutations() {
+    }
+
+    public static String inputTypeName(String typeName) {
+        return typeName + "Input";
+    }
+
+    public static String fieldName(String typeName) {
+        return "add" + typeName + "s";
+    }
+
+    /**
+     * SDL of the input type for one object type.
+     *
+     * @param type the object type
+     * @param objectTypeNames names of all object types; fields referencing them take a key
+     * @return the input type definition, or null when the type has no single-valued field
+     */
+    static String inputDefinition(ObjectTypeDefinition type, Set<String> objectTypeNames) {
+        List<String> fields = new ArrayList<>();
+        boolean keySeen = false;
+        for (FieldDefinition field : type.getFieldDefinitions()) {
+            SchemaModel.Column column = SchemaModel.toColumn(field, null);
+            if (column.list()) continue;
+            // The first ID field is the table's key, which the database may assign
+            boolean key = !keySeen && "ID".equals(column.graphQLType());
+            keySeen |= key;
+            String inputType = objectTypeNames.contains(column.graphQLType()) ? "ID" : column.graphQLType();
+            fields.add(field.getName() + ": " + inputType + (column.nonNull() && !key ? "!" : ""));
+        }
+        if (fields.isEmpty()) return null;
+        return "input " + inputTypeName(type.getName()) + " { " + String.join(", ", fields) + " }";
+    }
+
+    static String mutationField(String typeName) {
+        return fieldName(typeName) + "(" + INPUT + ": [" + inputTypeName(typeName) + "!]!): Int!";
+    }
+
+    /**
+     * The table a generated bulk mutation inserts into.
+     *
+     * @param model the schema model
+     * @param field a Mutation field
+     * @return the table, or null when the field is not a generated bulk mutation
+     */
+    public static SchemaModel.Table targetTable(SchemaModel model, FieldDefinition field) {
+        String name = field.getName();
+        if (!name.startsWith("add") || !name.endsWith("s") || field.getInputValueDefinitions().size() != 1) return null;
+        SchemaModel.Table table = model.getTable(name.substring(3, name.length() - 1));
+        if (table == null) return null;
+        InputValueDefinition argument = field.getInputValueDefinitions().get(0);
+        boolean generated = argument.getName().equals(INPUT)
+                && SchemaModel.getBaseTypeName(argument.getType()).equals(inputTypeName(table.name()));
+        return generated ? table : null;
+    }
+
+    /**
+     * Columns a bulk insert of the given inputs writes: every single-valued column, in
+     * declaration order, except the key column when no input gives a key. The database then
+     * assigns keys, e.g. from a SERIAL sequence, instead of receiving NULL.
+     *
+     * @param table the target table
+     * @param inputs the inputs, or the first of a stream of inputs
+     */
+    public static List<String> columns(SchemaModel.Table table, List<? extends Map<String, ?>> inputs) {
+        String key = table.keyColumn();
+        boolean keyGiven = key != null && inputs.stream().anyMatch(input -> input.get(key) != null);
+        List<String> columns = new ArrayList<>();
+        for (SchemaModel.Column column : table.columns()) {
+            if (!column.list() && (keyGiven || !column.name().equals(key))) columns.add(column.name());
+        }
+        return columns;
+    }
+
+    /**
+     * Lazily convert input objects into row values for the given columns. Absent fields are NULL.
+     *
+     * @param table the target table
+     * @param columns the columns being inserted
+     * @param inputs input objects keyed by field name
+     * @return row values in column order
+     * @throws IllegalArgumentException from the iterator for an unknown field, a nested value,
+     *         a key given when the key column is not inserted, or a key missing when it is
+     */
+    public static Iterator<Object[]> rows(SchemaModel.Table table, List<String> columns,
+                                          Iterator<? extends Map<String, ?>> inputs) {
+        int keyIndex = table.keyColumn() == null ? -1 : columns.indexOf(table.keyColumn());
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return inputs.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                Map<String, ?> input = inputs.next();
+                Object[] row = new Object[columns.size()];
+                for (Map.Entry<String, ?> field : input.entrySet()) {
+                    int index = columns.indexOf(field.getKey());
+                    if (index < 0 && field.getKey().equals(table.keyColumn())) {
+                        if (field.getValue() == null) continue;
+                        throw new IllegalArgumentException(mixedKeys(table));
+                    }
+                    if (index < 0) {
+                        throw new IllegalArgumentException("Unknown field '" + field.getKey() + "' for " + table.name());
+                    }
+                    if (field.getValue() instanceof Map || field.getValue() instanceof List) {
+                        throw new IllegalArgumentException("Field '" + field.getKey() + "' must be a scalar value");
+                    }
+                    row[index] = field.getValue();
+                }
+                if (keyIndex >= 0 && row[keyIndex] == null) {
+                    throw new IllegalArgumentException(mixedKeys(table));
+                }
+                return row;
+            }
+        };
+    }
+
+    private static String mixedKeys(SchemaModel.Table table) {
+        return "Field '" + table.keyColumn() + "' must be given for every " + table.name() + " or for none";
+    }
+}
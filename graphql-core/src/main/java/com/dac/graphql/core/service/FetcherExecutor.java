@@ -0,0 +1,87 @@
+package com.dac.graphql.core.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs blocking data fetcher work. When virtual threads are enabled and the runtime supports
+ * them (Java 21+), each call runs on its own virtual thread and the fetcher returns a future,
+ * so graphql-java's AsyncExecutionStrategy resolves sibling root fields concurrently and a
+ * request thread is not held while JDBC blocks. Otherwise work runs on the calling thread, as
+ * before. Virtual threads are looked up reflectively, so the code still builds for Java 17.
+ */
+@Component
+public class FetcherExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(FetcherExecutor.class);
+
+    private final ExecutorService executor;
+
+    /**
+     * @param virtualThreads run fetchers on virtual threads; ignored with a warning before Java 21
+     */
+    @Autowired
+    public FetcherExecutor(@Value("${graphql.execution.virtual-threads:false}") boolean virtualThreads) {
+        this.executor = virtualThreads ? newVirtualThreadExecutor() : null;
+        if (virtualThreads && executor == null) {
+            log.warn("graphql.execution.virtual-threads needs Java 21 or later (running {}); fetchers run on request threads",
+                    Runtime.version());
+        }
+    }
+
+    /**
+     * Runs fetchers on the given executor; null runs them on the calling thread.
+     */
+    public FetcherExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * A virtual-thread-per-task executor, or null if the runtime has no virtual threads.
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    public boolean isAsync() {
+        return executor != null;
+    }
+
+    /**
+     * Run fetcher work.
+     *
+     * @param work the blocking work
+     * @return a future of the work's result when asynchronous, otherwise the result itself
+     * @throws Exception the work's failure, when run on the calling thread
+     */
+    public Object fetch(Callable<?> work) throws Exception {
+        if (executor == null) return work.call();
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                result.complete(work.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) executor.shutdown();
+    }
+}
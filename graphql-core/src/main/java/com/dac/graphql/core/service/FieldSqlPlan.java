@@ -0,0 +1,304 @@
+package com.dac.graphql.core.service;
+
+import com.dac.graphql.core.adapter.JdbcSupport;
+import com.dac.graphql.core.adapter.SqlUpdate;
+import graphql.language.FieldDefinition;
+import graphql.language.InputValueDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL for one Query or Mutation field served by the generic fetchers, resolved once when the
+ * GraphQL instance is built: operation kind, target table, argument order and link relations.
+ * Statement text depends only on which arguments were given (and, for queries, the selected
+ * columns and page), so it is built once per shape and reused; fetchers only bind argument values.
+ */
+public final class FieldSqlPlan {
+
+    public enum Kind { SELECT, INSERT, UPDATE, DELETE }
+
+    /**
+     * A bound query.
+     *
+     * @param sql the statement
+     * @param params values in placeholder order
+     * @param singleRow whether arguments were given, so the caller reads one row
+     */
+    public record Select(String sql, Object[] params, boolean singleRow) {
+    }
+
+    // Shapes kept per field; selections beyond this are built per call
+    private static final int MAX_STATEMENTS = 256;
+
+    // after, orderBy and offset describe a page; they are unset for other statements
+    private record Shape(long argumentMask, List<String> columns, boolean after, String orderBy, boolean offset) {
+
+        private Shape(long argumentMask, List<String> columns) {
+            this(argumentMask, columns, false, "", false);
+        }
+    }
+
+    private static final Set<String> PAGE_ARGUMENTS = Set.of(PaginationSettings.FIRST, PaginationSettings.LIMIT,
+            PaginationSettings.AFTER, PaginationSettings.OFFSET, QueryFilters.WHERE, QueryFilters.ORDER_BY);
+
+    private final Kind kind;
+    private final String tableName;
+    private final SchemaModel.Table table;
+    private final List<String> arguments;
+    private final List<SchemaModel.Relation> links;
+    private final Map<Shape, String> statements = new ConcurrentHashMap<>();
+
+    private FieldSqlPlan(Kind kind, String tableName, SchemaModel.Table table, List<String> arguments,
+                         List<SchemaModel.Relation> links) {
+        this.kind = kind;
+        this.tableName = tableName;
+        this.table = table;
+        this.arguments = List.copyOf(arguments);
+        this.links = List.copyOf(links);
+    }
+
+    /**
+     * Plan for a Query field: all rows without arguments, otherwise the row matching every argument.
+     */
+    public static FieldSqlPlan forQuery(SchemaModel model, FieldDefinition field) {
+        String tableName = SchemaModel.getBaseTypeName(field.getType());
+        return new FieldSqlPlan(Kind.SELECT, tableName, model.getTable(tableName), argumentNames(field), List.of());
+    }
+
+    /**
+     * Plan for a paged list field. Arguments other than paging, where and orderBy match columns.
+     */
+    public static FieldSqlPlan forPagedQuery(SchemaModel model, FieldDefinition field) {
+        String tableName = SchemaModel.getBaseTypeName(field.getType());
+        List<String> arguments = argumentNames(field);
+        arguments.removeAll(PAGE_ARGUMENTS);
+        return new FieldSqlPlan(Kind.SELECT, tableName, model.getTable(tableName), arguments, List.of());
+    }
+
+    /**
+     * Plan for a Mutation field named addX, updateX or deleteX. Insert arguments naming list
+     * relations are not columns; they are reported by {@link #links()} and linked after the insert.
+     * Update and delete match rows on the first declared argument.
+     *
+     * @return the plan, or null when the field name does not follow the convention or an
+     *         update or delete has no argument to match on
+     */
+    public static FieldSqlPlan forMutation(SchemaModel model, FieldDefinition field) {
+        String name = field.getName();
+        Kind kind;
+        String typeName;
+        if (name.regionMatches(true, 0, "add", 0, 3)) {
+            kind = Kind.INSERT;
+            typeName = name.substring(3);
+        } else if (name.regionMatches(true, 0, "update", 0, 6)) {
+            kind = Kind.UPDATE;
+            typeName = name.substring(6);
+        } else if (name.regionMatches(true, 0, "delete", 0, 6)) {
+            kind = Kind.DELETE;
+            typeName = name.substring(6);
+        } else {
+            return null;
+        }
+        if (typeName.isEmpty()) {
+            typeName = SchemaModel.getBaseTypeName(field.getType());
+        }
+        SchemaModel.Table table = model.getTableIgnoreCase(typeName);
+        String tableName = table != null ? table.name()
+                : Character.toUpperCase(typeName.charAt(0)) + typeName.substring(1).toLowerCase();
+        List<String> arguments = argumentNames(field);
+        List<SchemaModel.Relation> links = new ArrayList<>();
+        if (kind == Kind.INSERT && table != null) {
+            for (SchemaModel.Relation relation : table.relations()) {
+                if (relation.kind() != SchemaModel.RelationKind.MANY_TO_ONE && arguments.contains(relation.fieldName())) {
+                    links.add(relation);
+                }
+            }
+            arguments.removeIf(argument -> links.stream().anyMatch(relation -> relation.fieldName().equals(argument)));
+        }
+        if (kind != Kind.INSERT && arguments.isEmpty()) return null;
+        return new FieldSqlPlan(kind, tableName, table, arguments, links);
+    }
+
+    private static List<String> argumentNames(FieldDefinition field) {
+        List<String> names = new ArrayList<>();
+        for (InputValueDefinition argument : field.getInputValueDefinitions()) {
+            names.add(argument.getName());
+        }
+        return names;
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    /** The target table, or null when the field's type is not a table. */
+    public SchemaModel.Table table() {
+        return table;
+    }
+
+    /** For updates and deletes, the argument rows are matched on. */
+    public String keyArgument() {
+        return kind == Kind.INSERT ? null : arguments.get(0);
+    }
+
+    /** For inserts, list relations whose arguments are linked after the row exists. */
+    public List<SchemaModel.Relation> links() {
+        return links;
+    }
+
+    /**
+     * Bind a query. Without arguments the statement selects all rows; otherwise it matches every
+     * given argument and the caller reads a single row.
+     *
+     * @param args the field's arguments
+     * @param columns columns to select; an empty list selects all columns
+     * @return the statement and its values
+     */
+    public Select bindSelect(Map<String, Object> args, List<String> columns) {
+        long mask = mask(args);
+        return new Select(statement(mask, columns), values(args, mask), mask != 0);
+    }
+
+    /**
+     * Bind a page of a list query: rows matching the given column arguments and filter, after
+     * the cursor key if any, in the given order. The page size and offset are bound like any
+     * other value, so paging through a result reuses one statement. Statements with a filter
+     * are built per call, since the filter decides how many values are bound.
+     *
+     * @param args column arguments, without paging, where and orderBy
+     * @param columns columns to select; an empty list selects all columns
+     * @param where the filter, or null
+     * @param orderBy ORDER BY terms from {@link QueryFilters#orderByClause}, or empty
+     * @param after key of the last row of the previous page, or null
+     * @param limit page size
+     * @param offset rows to skip, or null
+     * @return the statement and its values
+     */
+    public Select bindPage(Map<String, Object> args, List<String> columns, Map<String, Object> where, String orderBy,
+                           Object after, int limit, Integer offset) {
+        long mask = mask(args);
+        List<Object> params = new ArrayList<>(Arrays.asList(values(args, mask)));
+        Shape shape = new Shape(mask, columns, after != null, orderBy, offset != null);
+        String sql;
+        if (where == null || where.isEmpty()) {
+            sql = statements.get(shape);
+            if (sql == null) {
+                sql = buildPage(shape, null, params);
+                if (statements.size() < MAX_STATEMENTS) statements.put(shape, sql);
+            }
+        } else {
+            sql = buildPage(shape, where, params);
+        }
+        if (after != null) params.add(after);
+        params.add(limit);
+        if (offset != null) params.add(offset);
+        return new Select(sql, params.toArray(), false);
+    }
+
+    /**
+     * Bind an insert, update or delete.
+     *
+     * @param args the field's arguments
+     * @return the statement and its values
+     */
+    public SqlUpdate bindUpdate(Map<String, Object> args) {
+        long mask = mask(args);
+        String sql = statement(mask, List.of());
+        if (kind == Kind.UPDATE) {
+            // SET values in argument order, then the key
+            Object[] values = values(args, mask & ~1L);
+            Object[] params = new Object[values.length + 1];
+            System.arraycopy(values, 0, params, 0, values.length);
+            params[values.length] = args.get(arguments.get(0));
+            return new SqlUpdate(sql, params);
+        }
+        if (kind == Kind.DELETE) {
+            return new SqlUpdate(sql, args.get(arguments.get(0)));
+        }
+        return new SqlUpdate(sql, values(args, mask));
+    }
+
+    private long mask(Map<String, Object> args) {
+        long mask = 0;
+        for (int i = 0; i < arguments.size() && i < Long.SIZE; i++) {
+            if (args.containsKey(arguments.get(i))) mask |= 1L << i;
+        }
+        return mask;
+    }
+
+    private Object[] values(Map<String, Object> args, long mask) {
+        Object[] values = new Object[Long.bitCount(mask)];
+        int index = 0;
+        for (int i = 0; i < arguments.size() && i < Long.SIZE; i++) {
+            if ((mask & (1L << i)) != 0) values[index++] = args.get(arguments.get(i));
+        }
+        return values;
+    }
+
+    private String statement(long mask, List<String> columns) {
+        Shape shape = new Shape(mask, columns);
+        String sql = statements.get(shape);
+        if (sql == null) {
+            sql = build(mask, columns);
+            if (statements.size() < MAX_STATEMENTS) statements.put(shape, sql);
+        }
+        return sql;
+    }
+
+    private List<String> given(long mask) {
+        List<String> given = new ArrayList<>();
+        for (int i = 0; i < arguments.size() && i < Long.SIZE; i++) {
+            if ((mask & (1L << i)) != 0) given.add(arguments.get(i));
+        }
+        return given;
+    }
+
+    // Filter values are appended to params, after the column arguments' values; the cursor and
+    // page bounds follow them
+    private String buildPage(Shape shape, Map<String, Object> where, List<Object> params) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(JdbcSupport.selectList(shape.columns()))
+                .append(" FROM ").append(tableName);
+        List<String> conditions = new ArrayList<>();
+        for (String argument : given(shape.argumentMask())) {
+            conditions.add(argument + " = ?");
+        }
+        QueryFilters.appendConditions(table, where, conditions, params);
+        // Keyset pagination: the cursor is the key of the last row of the previous page
+        if (shape.after()) conditions.add(table.keyColumn() + " > ?");
+        if (!conditions.isEmpty()) sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        if (!shape.orderBy().isEmpty()) sql.append(" ORDER BY ").append(shape.orderBy());
+        sql.append(" LIMIT ?");
+        if (shape.offset()) sql.append(" OFFSET ?");
+        return sql.toString();
+    }
+
+    private String build(long mask, List<String> columns) {
+        List<String> given = given(mask);
+        StringBuilder sql = new StringBuilder();
+        switch (kind) {
+            case SELECT -> {
+                sql.append("SELECT ").append(JdbcSupport.selectList(columns)).append(" FROM ").append(tableName);
+                if (!given.isEmpty()) sql.append(" WHERE ").append(String.join(" = ? AND ", given)).append(" = ?");
+            }
+            case INSERT -> sql.append("INSERT INTO ").append(tableName).append(" (").append(String.join(", ", given))
+                    .append(") VALUES (").append(String.join(", ", Collections.nCopies(given.size(), "?"))).append(")");
+            case UPDATE -> {
+                given.remove(arguments.get(0));
+                sql.append("UPDATE ").append(tableName).append(" SET ").append(String.join(" = ?, ", given))
+                        .append(given.isEmpty() ? "" : " = ?").append(" WHERE ").append(arguments.get(0)).append(" = ?");
+            }
+            case DELETE -> sql.append("DELETE FROM ").append(tableName).append(" WHERE ").append(arguments.get(0)).append(" = ?");
+        }
+        return sql.toString();
+    }
+}
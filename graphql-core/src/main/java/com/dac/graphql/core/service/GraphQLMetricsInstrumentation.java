@@ -0,0 +1,120 @@
+package com.dac.graphql.core.service;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLNamedType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the executions of one spec's GraphQL instance:
+ * <ul>
+ *   <li>{@code graphql.query.latency{specName}}: operation latency, with a percentile histogram</li>
+ *   <li>{@code graphql.query.count{specName,status}}: operations by success or error</li>
+ *   <li>{@code graphql.errors{specName,classification}}: errors in results</li>
+ *   <li>{@code graphql.field.fetch{specName,field,status}}: fetch time of each field with its own data
+ *       fetcher, e.g. {@code Query.books}; fields read from a parent row are trivial and not timed</li>
+ *   <li>{@code graphql.field.result.size{specName,field}}: items returned by list fields</li>
+ * </ul>
+ * Futures returned by fetchers are timed until they complete.
+ */
+public class GraphQLMetricsInstrumentation extends SimplePerformantInstrumentation {
+
+    private record FieldMeters(Timer success, Timer error, DistributionSummary size) {
+    }
+
+    private final MeterRegistry registry;
+    private final String specName;
+    private final Timer latency;
+    private final Counter successes;
+    private final Counter failures;
+    // Field coordinates -> meters, so a fetch does not look meters up by tags
+    private final Map<String, FieldMeters> fields = new ConcurrentHashMap<>();
+
+    public GraphQLMetricsInstrumentation(MeterRegistry registry, String specName) {
+        this.registry = registry;
+        this.specName = specName;
+        this.latency = Timer.builder("graphql.query.latency")
+                .description("Latency of GraphQL operations")
+                .tag("specName", specName)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.successes = queryCount("success");
+        this.failures = queryCount("error");
+    }
+
+    private Counter queryCount(String status) {
+        return Counter.builder("graphql.query.count")
+                .description("GraphQL operations")
+                .tags("specName", specName, "status", status)
+                .register(registry);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters,
+                                                                  InstrumentationState state) {
+        Timer.Sample sample = Timer.start(registry);
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) -> {
+            sample.stop(latency);
+            boolean failed = throwable != null || (result != null && !result.getErrors().isEmpty());
+            (failed ? failures : successes).increment();
+            if (result != null) {
+                for (GraphQLError error : result.getErrors()) {
+                    Counter.builder("graphql.errors")
+                            .description("Errors in GraphQL results")
+                            .tags("specName", specName, "classification", String.valueOf(error.getErrorType()))
+                            .register(registry)
+                            .increment();
+                }
+            }
+        });
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters,
+                                                          InstrumentationState state) {
+        if (parameters.isTrivialDataFetcher()) return SimpleInstrumentationContext.noOp();
+        FieldMeters meters = fields.computeIfAbsent(coordinates(parameters.getEnvironment()), this::fieldMeters);
+        long start = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((value, throwable) -> {
+            (throwable == null ? meters.success() : meters.error()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (value instanceof Collection<?> items) {
+                meters.size().record(items.size());
+            }
+        });
+    }
+
+    private static String coordinates(DataFetchingEnvironment env) {
+        String parent = env.getParentType() instanceof GraphQLNamedType named ? named.getName() : String.valueOf(env.getParentType());
+        return parent + "." + env.getField().getName();
+    }
+
+    private FieldMeters fieldMeters(String field) {
+        return new FieldMeters(fieldTimer(field, "success"), fieldTimer(field, "error"),
+                DistributionSummary.builder("graphql.field.result.size")
+                        .description("Items returned by GraphQL list fields")
+                        .tags("specName", specName, "field", field)
+                        .register(registry));
+    }
+
+    private Timer fieldTimer(String field, String status) {
+        return Timer.builder("graphql.field.fetch")
+                .description("Fetch time of GraphQL fields")
+                .tags("specName", specName, "field", field, "status", status)
+                .register(registry);
+    }
+}
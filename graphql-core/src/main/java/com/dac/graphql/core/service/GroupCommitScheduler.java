@@ -0,0 +1,150 @@
+package com.dac.graphql.core.service;
+
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.adapter.SqlUpdate;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for mutations. Statements submitted for the same table within a short window,
+ * or until a size threshold is reached, are committed together in one transaction through
+ * {@link DatabaseAdapter#executeBatch}; each caller's future completes once that transaction
+ * has committed. When disabled, statements run immediately through executeUpdate.
+ */
+@Component
+public class GroupCommitScheduler {
+
+    private record Pending(List<SqlUpdate> updates, CompletableFuture<int[]> result) {
+    }
+
+    private final DatabaseAdapter databaseAdapter;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    // tableName -> mutations waiting for the next commit; guarded by this
+    private final Map<String, List<Pending>> pendingByTable = new HashMap<>();
+    private final ScheduledExecutorService committer;
+
+    @Autowired
+    public GroupCommitScheduler(DatabaseAdapter databaseAdapter,
+                                @Value("${graphql.group-commit.enabled:false}") boolean enabled,
+                                @Value("${graphql.group-commit.window-ms:5}") long windowMillis,
+                                @Value("${graphql.group-commit.max-batch-size:500}") int maxBatchSize) {
+        this.databaseAdapter = databaseAdapter;
+        this.enabled = enabled;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        // One committer thread: batches are committed one after another, like a log writer
+        this.committer = enabled ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "group-commit");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Submit the statements of one mutation. They commit atomically, together with other
+     * mutations of the same table that arrive within the window.
+     *
+     * @param tableName table the mutation writes to, used to group mutations
+     * @param updates the mutation's statements, in execution order
+     * @return future completing with the affected row counts after commit
+     */
+    public CompletableFuture<int[]> submit(String tableName, List<SqlUpdate> updates) {
+        if (!enabled) {
+            try {
+                int[] counts = new int[updates.size()];
+                for (int i = 0; i < updates.size(); i++) {
+                    counts[i] = databaseAdapter.executeUpdate(updates.get(i).sql(), updates.get(i).params());
+                }
+                return CompletableFuture.completedFuture(counts);
+            } catch (SQLException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        Pending pending = new Pending(List.copyOf(updates), new CompletableFuture<>());
+        boolean first;
+        boolean full;
+        synchronized (this) {
+            List<Pending> batch = pendingByTable.computeIfAbsent(tableName, k -> new ArrayList<>());
+            batch.add(pending);
+            first = batch.size() == 1;
+            full = batch.size() >= maxBatchSize;
+        }
+        if (full) {
+            committer.execute(() -> flush(tableName));
+        } else if (first) {
+            committer.schedule(() -> flush(tableName), windowMillis, TimeUnit.MILLISECONDS);
+        }
+        return pending.result();
+    }
+
+    private void flush(String tableName) {
+        List<Pending> batch;
+        synchronized (this) {
+            batch = pendingByTable.remove(tableName);
+        }
+        if (batch == null) return;
+        List<SqlUpdate> updates = new ArrayList<>();
+        for (Pending pending : batch) {
+            updates.addAll(pending.updates());
+        }
+        try {
+            int[] counts = databaseAdapter.executeBatch(updates);
+            int offset = 0;
+            for (Pending pending : batch) {
+                int size = pending.updates().size();
+                pending.result().complete(Arrays.copyOfRange(counts, offset, offset + size));
+                offset += size;
+            }
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            // One failing mutation must not fail the others: retry each in its own transaction
+            for (Pending pending : batch) {
+                try {
+                    pending.result().complete(databaseAdapter.executeBatch(pending.updates()));
+                } catch (Exception retryError) {
+                    pending.result().completeExceptionally(retryError);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (committer == null) return;
+        List<String> tables;
+        synchronized (this) {
+            tables = new ArrayList<>(pendingByTable.keySet());
+        }
+        for (String tableName : tables) {
+            committer.execute(() -> flush(tableName));
+        }
+        committer.shutdown();
+        try {
+            committer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.dac.graphql.core.service;
+
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.adapter.JdbcSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Observes executed SQL and ranks columns that appear in predicates but lead no index.
+ * Recording only counts each distinct statement; predicates are extracted when a report is
+ * requested, so the query path pays one map update per statement.
+ */
+@Component
+public class IndexAdvisor {
+
+    /**
+     * A column filtered on by executed statements.
+     *
+     * @param table the table
+     * @param column the column
+     */
+    public record Predicate(String table, String column) {
+    }
+
+    /**
+     * A missing index, ranked by how often its column was filtered on.
+     *
+     * @param table the table
+     * @param column the unindexed column
+     * @param predicateCount number of executed statements filtering on the column
+     * @param ddl statement creating the index
+     */
+    public record Recommendation(String table, String column, long predicateCount, String ddl) {
+    }
+
+    // Generated SQL binds all values, so the number of distinct statements stays small
+    static final int MAX_STATEMENTS = 10_000;
+
+    private static final Pattern FROM = Pattern.compile("\\bFROM\\s+(\\w+)(?:\\s+(?!WHERE\\b|ORDER\\b|LIMIT\\b|JOIN\\b)(\\w+))?",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern JOIN = Pattern.compile("\\bJOIN\\s+(\\w+)\\s+(?!ON\\b)(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern WHERE = Pattern.compile("\\bWHERE\\s+(.*?)(?:\\s+(?:ORDER\\s+BY|GROUP\\s+BY|LIMIT)\\b|$)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern AND = Pattern.compile("\\s+AND\\s+", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CONDITION = Pattern.compile("^\\(?\\s*(?:(\\w+)\\.)?([A-Za-z_]\\w*)\\s*(?:[=<>!]|IN\\b|LIKE\\b|IS\\b)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final DatabaseAdapter databaseAdapter;
+    private final Map<String, LongAdder> statements = new ConcurrentHashMap<>();
+    private final Map<Predicate, LongAdder> lookups = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IndexAdvisor(DatabaseAdapter databaseAdapter) {
+        this.databaseAdapter = databaseAdapter;
+    }
+
+    /**
+     * Record an executed statement.
+     */
+    public void recordQuery(String sql) {
+        LongAdder count = statements.get(sql);
+        if (count == null) {
+            if (statements.size() >= MAX_STATEMENTS) return;
+            count = statements.computeIfAbsent(sql, k -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * Record a lookup by key built inside the adapter, e.g. {@code executeQueryByKeys}.
+     */
+    public void recordLookup(String table, String column) {
+        lookups.computeIfAbsent(new Predicate(table, column), k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Count predicates per column over everything recorded so far.
+     */
+    public Map<Predicate, Long> predicateCounts() {
+        Map<Predicate, Long> counts = new HashMap<>();
+        statements.forEach((sql, count) -> {
+            for (Predicate predicate : predicates(sql)) {
+                counts.merge(predicate, count.sum(), Long::sum);
+            }
+        });
+        lookups.forEach((predicate, count) -> counts.merge(predicate, count.sum(), Long::sum));
+        return counts;
+    }
+
+    /**
+     * Rank observed predicate columns that lead no index, most frequent first.
+     *
+     * @return recommended indexes
+     * @throws SQLException if index metadata cannot be read
+     */
+    public List<Recommendation> recommend() throws SQLException {
+        Map<String, Set<String>> indexedByTable = new HashMap<>();
+        List<Recommendation> recommendations = new ArrayList<>();
+        for (Map.Entry<Predicate, Long> entry : predicateCounts().entrySet()) {
+            Predicate predicate = entry.getKey();
+            Set<String> indexed = indexedByTable.get(predicate.table());
+            if (indexed == null) {
+                indexed = databaseAdapter.indexedColumns(predicate.table()).stream()
+                        .map(column -> column.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+                indexedByTable.put(predicate.table(), indexed);
+            }
+            if (indexed.contains(predicate.column().toLowerCase(Locale.ROOT))) continue;
+            recommendations.add(new Recommendation(predicate.table(), predicate.column(), entry.getValue(),
+                    JdbcSupport.createIndexSql(predicate.table(), List.of(predicate.column()), false)));
+        }
+        recommendations.sort(Comparator.comparingLong(Recommendation::predicateCount).reversed()
+                .thenComparing(Recommendation::table).thenComparing(Recommendation::column));
+        return recommendations;
+    }
+
+    /**
+     * Columns compared in the WHERE clause of a generated statement. Conditions are joined with
+     * AND; qualified columns are resolved through the FROM and JOIN aliases.
+     */
+    static List<Predicate> predicates(String sql) {
+        Matcher from = FROM.matcher(sql);
+        if (!from.find()) return List.of();
+        Map<String, String> aliases = new LinkedHashMap<>();
+        aliases.put(from.group(1), from.group(1));
+        if (from.group(2) != null) aliases.put(from.group(2), from.group(1));
+        Matcher join = JOIN.matcher(sql);
+        while (join.find()) {
+            aliases.put(join.group(1), join.group(1));
+            aliases.put(join.group(2), join.group(1));
+        }
+        Matcher where = WHERE.matcher(sql);
+        if (!where.find(from.end())) return List.of();
+        List<Predicate> predicates = new ArrayList<>();
+        for (String condition : AND.split(where.group(1).trim())) {
+            Matcher column = CONDITION.matcher(condition.trim());
+            if (!column.find()) continue;
+            String table = column.group(1) == null ? from.group(1) : aliases.get(column.group(1));
+            if (table != null) predicates.add(new Predicate(table, column.group(2)));
+        }
+        return predicates;
+    }
+}
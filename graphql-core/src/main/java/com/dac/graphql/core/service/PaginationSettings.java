@@ -0,0 +1,45 @@
+package com.dac.graphql.core.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Server-side limits for list queries. Every list field backed by a table accepts
+ * {@code first/after} (keyset on the key column) and {@code limit/offset}; a request
+ * never returns more rows than the spec's maximum page size.
+ */
+@Component
+public class PaginationSettings {
+
+    public static final String FIRST = "first";
+    public static final String AFTER = "after";
+    public static final String LIMIT = "limit";
+    public static final String OFFSET = "offset";
+
+    private final int defaultMaxPageSize;
+    private final Map<String, Integer> maxPageSizePerSpec;
+
+    @Autowired
+    public PaginationSettings(@Value("${graphql.pagination.max-page-size:1000}") int defaultMaxPageSize,
+                              @Value("#{${graphql.pagination.max-page-size-per-spec:{:}}}") Map<String, Integer> maxPageSizePerSpec) {
+        this.defaultMaxPageSize = defaultMaxPageSize;
+        this.maxPageSizePerSpec = Map.copyOf(maxPageSizePerSpec);
+    }
+
+    /**
+     * Maximum number of rows a single list field may return for a spec.
+     *
+     * @param specName the spec name
+     * @return the spec's override, or the default maximum
+     */
+    public int getMaxPageSize(String specName) {
+        return maxPageSizePerSpec.getOrDefault(specName, defaultMaxPageSize);
+    }
+
+    public static boolean isPaginationArgument(String name) {
+        return FIRST.equals(name) || AFTER.equals(name) || LIMIT.equals(name) || OFFSET.equals(name);
+    }
+}
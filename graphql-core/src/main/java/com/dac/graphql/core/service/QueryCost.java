@@ -0,0 +1,122 @@
+package com.dac.graphql.core.service;
+
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.CoercedVariables;
+import graphql.language.Document;
+import graphql.schema.GraphQLCompositeType;
+import graphql.schema.GraphQLOutputType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLTypeUtil;
+import graphql.schema.GraphQLUnmodifiedType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Static estimate of what an operation will cost, computed from the parsed document before it
+ * runs. A field returning objects costs one fetch plus one per expected item, plus its
+ * selections' cost once per item; scalar fields cost nothing, as they are columns of rows
+ * already counted. Expected items of a list field are its {@code first}/{@code limit}
+ * argument, or else the table's estimated row count for root lists and the average number of
+ * child rows per parent row for nested lists, never more than the spec's page size.
+ */
+public class QueryCost {
+
+    /**
+     * What an operation was measured at.
+     *
+     * @param depth deepest field nesting, root fields being at depth 1
+     * @param aliases aliased fields, counted once per place they appear in the document
+     * @param cost estimated cost
+     */
+    public record Result(int depth, int aliases, long cost) {
+    }
+
+    // Items per parent of a nested list when the tables have no statistics
+    static final int DEFAULT_FANOUT = 10;
+
+    private final SchemaModel model;
+    private final TableStatistics statistics;
+    private final int maxPageSize;
+
+    public QueryCost(SchemaModel model, TableStatistics statistics, int maxPageSize) {
+        this.model = model;
+        this.statistics = statistics;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Measure an operation of a document.
+     *
+     * @param schema the executable schema
+     * @param document the parsed and validated document
+     * @param operationName the operation to measure, or null for the only one
+     * @param variables the operation's coerced variables
+     */
+    public Result measure(GraphQLSchema schema, Document document, String operationName, CoercedVariables variables) {
+        // Cost of the selections under each field, filled in by its children; the null key sums the root fields
+        Map<QueryVisitorFieldEnvironment, Long> selectionCost = new HashMap<>();
+        int[] depth = {0};
+        int[] aliases = {0};
+        QueryTraverser.newQueryTraverser()
+                .schema(schema)
+                .document(document)
+                .operationName(operationName)
+                .coercedVariables(variables)
+                .build()
+                .visitPostOrder(new QueryVisitorStub() {
+                    @Override
+                    public void visitField(QueryVisitorFieldEnvironment env) {
+                        if (env.isTypeNameIntrospectionField()) return;
+                        int level = 1;
+                        for (QueryVisitorFieldEnvironment parent = env.getParentEnvironment(); parent != null; parent = parent.getParentEnvironment()) {
+                            level++;
+                        }
+                        depth[0] = Math.max(depth[0], level);
+                        if (env.getField().getAlias() != null) aliases[0]++;
+                        long cost = fieldCost(env, selectionCost.getOrDefault(env, 0L));
+                        selectionCost.merge(env.getParentEnvironment(), cost, QueryCost::add);
+                    }
+                });
+        return new Result(depth[0], aliases[0], selectionCost.getOrDefault(null, 0L));
+    }
+
+    private long fieldCost(QueryVisitorFieldEnvironment env, long selections) {
+        GraphQLOutputType type = env.getFieldDefinition().getType();
+        if (!(GraphQLTypeUtil.unwrapAll(type) instanceof GraphQLCompositeType)) return 0;
+        long items = GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(type)) ? expectedItems(env) : 1;
+        return add(add(1, items), multiply(items, selections));
+    }
+
+    private long expectedItems(QueryVisitorFieldEnvironment env) {
+        for (String argument : new String[]{PaginationSettings.FIRST, PaginationSettings.LIMIT}) {
+            if (env.getArguments().get(argument) instanceof Number requested) {
+                return Math.max(0, Math.min(requested.longValue(), maxPageSize));
+            }
+        }
+        GraphQLUnmodifiedType itemType = GraphQLTypeUtil.unwrapAll(env.getFieldDefinition().getType());
+        if (model.getTable(itemType.getName()) == null) return 1;
+        long rows = statistics.rowCount(itemType.getName());
+        if (env.getParentEnvironment() == null) {
+            return rows < 0 ? maxPageSize : Math.min(rows, maxPageSize);
+        }
+        long parentRows = statistics.rowCount(env.getFieldsContainer().getName());
+        if (rows < 0 || parentRows < 0) return Math.min(DEFAULT_FANOUT, maxPageSize);
+        return Math.min(Math.max(1, (rows + parentRows - 1) / Math.max(1, parentRows)), maxPageSize);
+    }
+
+    private static long add(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long multiply(long a, long b) {
+        try {
+            return Math.multiplyExact(a, b);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
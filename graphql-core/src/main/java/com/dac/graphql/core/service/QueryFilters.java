@@ -0,0 +1,169 @@
+package com.dac.graphql.core.service;
+
+import graphql.language.FieldDefinition;
+import graphql.language.ObjectTypeDefinition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generated filter and sort arguments for list queries, and their translation into
+ * parameterised SQL. For an object type Book the schema gains
+ * <pre>
+ * input BookFilter { id: IDFilter, title: StringFilter, ... }
+ * enum BookOrderField { id title ... }
+ * input BookOrderBy { field: BookOrderField!, direction: SortDirection }
+ * </pre>
+ * and Query fields returning [Book] accept {@code where: BookFilter, orderBy: [BookOrderBy!]}.
+ * Predicates compare the column directly, so indexes on filtered columns remain usable.
+ */
+public final class QueryFilters {
+
+    public static final String WHERE = "where";
+    public static final String ORDER_BY = "orderBy";
+
+    static final String SORT_DIRECTION = "SortDirection";
+
+    private static final Map<String, String> SCALAR_FILTERS = Map.of(
+            "ID", "input IDFilter { eq: ID, in: [ID!], lt: ID, gt: ID, contains: String, isNull: Boolean }",
+            "String", "input StringFilter { eq: String, in: [String!], lt: String, gt: String, contains: String, isNull: Boolean }",
+            "Int", "input IntFilter { eq: Int, in: [Int!], lt: Int, gt: Int, isNull: Boolean }",
+            "Float", "input FloatFilter { eq: Float, in: [Float!], lt: Float, gt: Float, isNull: Boolean }",
+            "Boolean", "input BooleanFilter { eq: Boolean, isNull: Boolean }");
+
+    private QueryFilters() {
+    }
+
+    public static String filterTypeName(String typeName) {
+        return typeName + "Filter";
+    }
+
+    public static String orderByTypeName(String typeName) {
+        return typeName + "OrderBy";
+    }
+
+    static String orderFieldTypeName(String typeName) {
+        return typeName + "OrderField";
+    }
+
+    /**
+     * SDL of the input and enum types needed to filter and sort one object type, keyed by type name.
+     * Shared types (scalar filters, SortDirection) are included so callers can detect name clashes.
+     *
+     * @param type the object type
+     * @param objectTypeNames names of all object types; fields referencing them are filtered by key
+     * @return definitions keyed by name, or an empty map when the type has no filterable field
+     */
+    static Map<String, String> definitions(ObjectTypeDefinition type, Set<String> objectTypeNames) {
+        Map<String, String> definitions = new LinkedHashMap<>();
+        List<String> filterFields = new ArrayList<>();
+        List<String> orderFields = new ArrayList<>();
+        for (FieldDefinition field : type.getFieldDefinitions()) {
+            SchemaModel.Column column = SchemaModel.toColumn(field, null);
+            if (column.list()) continue;
+            String scalar = objectTypeNames.contains(column.graphQLType()) ? "ID"
+                    : SCALAR_FILTERS.containsKey(column.graphQLType()) ? column.graphQLType() : "String";
+            definitions.putIfAbsent(scalar + "Filter", SCALAR_FILTERS.get(scalar));
+            filterFields.add(field.getName() + ": " + scalar + "Filter");
+            orderFields.add(field.getName());
+        }
+        if (filterFields.isEmpty()) return Collections.emptyMap();
+        String name = type.getName();
+        definitions.put(filterTypeName(name), "input " + filterTypeName(name) + " { " + String.join(", ", filterFields) + " }");
+        definitions.put(orderFieldTypeName(name), "enum " + orderFieldTypeName(name) + " { " + String.join(" ", orderFields) + " }");
+        definitions.put(SORT_DIRECTION, "enum " + SORT_DIRECTION + " { ASC DESC }");
+        definitions.put(orderByTypeName(name), "input " + orderByTypeName(name) + " { field: " + orderFieldTypeName(name)
+                + "!, direction: " + SORT_DIRECTION + " }");
+        return definitions;
+    }
+
+    /**
+     * Translate a where argument into SQL conditions joined with AND by the caller.
+     *
+     * @param table the queried table
+     * @param where the argument value, e.g. {title={contains=SQL}, id={in=[1, 2]}}; may be null
+     * @param conditions receives one condition per operator
+     * @param params receives the bound values in condition order
+     */
+    public static void appendConditions(SchemaModel.Table table, Map<String, Object> where,
+                                        List<String> conditions, List<Object> params) {
+        if (where == null) return;
+        for (Map.Entry<String, Object> field : where.entrySet()) {
+            SchemaModel.Column column = table.getColumn(field.getKey());
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown filter field '" + field.getKey() + "'");
+            }
+            if (!(field.getValue() instanceof Map<?, ?> operators)) continue;
+            for (Map.Entry<?, ?> operator : operators.entrySet()) {
+                Object value = operator.getValue();
+                if (value == null) continue;
+                String name = column.name();
+                switch ((String) operator.getKey()) {
+                    case "eq" -> {
+                        conditions.add(name + " = ?");
+                        params.add(value);
+                    }
+                    case "in" -> {
+                        List<?> values = (List<?>) value;
+                        if (values.isEmpty()) {
+                            conditions.add("1 = 0");
+                        } else {
+                            conditions.add(name + " IN (" + String.join(", ", Collections.nCopies(values.size(), "?")) + ")");
+                            params.addAll(values);
+                        }
+                    }
+                    case "lt" -> {
+                        conditions.add(name + " < ?");
+                        params.add(value);
+                    }
+                    case "gt" -> {
+                        conditions.add(name + " > ?");
+                        params.add(value);
+                    }
+                    case "contains" -> {
+                        conditions.add(name + " LIKE ? ESCAPE '\\'");
+                        params.add("%" + escapeLike(String.valueOf(value)) + "%");
+                    }
+                    case "isNull" -> conditions.add(name + (Boolean.TRUE.equals(value) ? " IS NULL" : " IS NOT NULL"));
+                    default -> throw new IllegalArgumentException("Unknown filter operator '" + operator.getKey() + "'");
+                }
+            }
+        }
+    }
+
+    /**
+     * Translate an orderBy argument into an ORDER BY list. The key column is appended as a
+     * tie-breaker so pages are stable.
+     *
+     * @param table the queried table
+     * @param orderBy the argument value, e.g. [{field=title, direction=DESC}]; may be null
+     * @return the ORDER BY terms, or an empty string when there is nothing to order by
+     */
+    public static String orderByClause(SchemaModel.Table table, List<Map<String, Object>> orderBy) {
+        List<String> terms = new ArrayList<>();
+        List<String> columns = new ArrayList<>();
+        if (orderBy != null) {
+            for (Map<String, Object> term : orderBy) {
+                SchemaModel.Column column = table.getColumn((String) term.get("field"));
+                if (column == null) {
+                    throw new IllegalArgumentException("Unknown orderBy field '" + term.get("field") + "'");
+                }
+                if (columns.contains(column.name())) continue;
+                columns.add(column.name());
+                terms.add(column.name() + ("DESC".equals(term.get("direction")) ? " DESC" : " ASC"));
+            }
+        }
+        if (table.keyColumn() != null && !columns.contains(table.keyColumn())) {
+            terms.add(table.keyColumn());
+        }
+        return String.join(", ", terms);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
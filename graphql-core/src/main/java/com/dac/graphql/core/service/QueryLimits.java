@@ -0,0 +1,55 @@
+package com.dac.graphql.core.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Limits checked before a query runs: nesting depth, number of aliased fields and estimated
+ * cost (see {@link QueryCost}). Each limit has a default and optional per-spec overrides; a
+ * limit of 0 or less is not enforced, which is the default, so operators opt in.
+ */
+@Component
+public class QueryLimits {
+
+    /**
+     * The limits of one spec.
+     *
+     * @param maxDepth deepest field nesting allowed, the root fields being at depth 1
+     * @param maxAliases aliased fields allowed in one operation
+     * @param maxCost estimated cost allowed for one operation
+     */
+    public record Limits(int maxDepth, int maxAliases, long maxCost) {
+    }
+
+    private final Limits defaults;
+    private final Map<String, Integer> maxDepthPerSpec;
+    private final Map<String, Integer> maxAliasesPerSpec;
+    private final Map<String, Long> maxCostPerSpec;
+
+    @Autowired
+    public QueryLimits(@Value("${graphql.limits.max-depth:0}") int maxDepth,
+                       @Value("${graphql.limits.max-aliases:0}") int maxAliases,
+                       @Value("${graphql.limits.max-cost:0}") long maxCost,
+                       @Value("#{${graphql.limits.max-depth-per-spec:{:}}}") Map<String, Integer> maxDepthPerSpec,
+                       @Value("#{${graphql.limits.max-aliases-per-spec:{:}}}") Map<String, Integer> maxAliasesPerSpec,
+                       @Value("#{${graphql.limits.max-cost-per-spec:{:}}}") Map<String, Long> maxCostPerSpec) {
+        this.defaults = new Limits(maxDepth, maxAliases, maxCost);
+        this.maxDepthPerSpec = Map.copyOf(maxDepthPerSpec);
+        this.maxAliasesPerSpec = Map.copyOf(maxAliasesPerSpec);
+        this.maxCostPerSpec = Map.copyOf(maxCostPerSpec);
+    }
+
+    /**
+     * The limits of a spec: its overrides, and the defaults for the others.
+     *
+     * @param specName the spec name
+     */
+    public Limits forSpec(String specName) {
+        return new Limits(maxDepthPerSpec.getOrDefault(specName, defaults.maxDepth()),
+                maxAliasesPerSpec.getOrDefault(specName, defaults.maxAliases()),
+                maxCostPerSpec.getOrDefault(specName, defaults.maxCost()));
+    }
+}
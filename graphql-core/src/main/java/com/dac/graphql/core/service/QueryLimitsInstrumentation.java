@@ -0,0 +1,80 @@
+package com.dac.graphql.core.service;
+
+import graphql.ErrorType;
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rejects operations over a spec's {@link QueryLimits} once they are parsed and validated, and
+ * admits the others through the {@link AdmissionController}, so no fetcher runs for a rejected
+ * operation. The permit of an admitted operation is put in its GraphQL context under
+ * {@code AdmissionController.Permit.class}; whoever writes the response releases it.
+ */
+public class QueryLimitsInstrumentation extends SimplePerformantInstrumentation {
+
+    public static final String MAX_DEPTH_EXCEEDED = "MAX_DEPTH_EXCEEDED";
+    public static final String MAX_ALIASES_EXCEEDED = "MAX_ALIASES_EXCEEDED";
+    public static final String MAX_COST_EXCEEDED = "MAX_COST_EXCEEDED";
+    public static final String OVERLOADED = "OVERLOADED";
+
+    private final QueryLimits.Limits limits;
+    private final QueryCost queryCost;
+    private final AdmissionController admissionController;
+
+    public QueryLimitsInstrumentation(QueryLimits.Limits limits, QueryCost queryCost, AdmissionController admissionController) {
+        this.limits = limits;
+        this.queryCost = queryCost;
+        this.admissionController = admissionController;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        ExecutionContext context = parameters.getExecutionContext();
+        QueryCost.Result measured = queryCost.measure(context.getGraphQLSchema(), context.getDocument(),
+                context.getOperationDefinition().getName(), context.getCoercedVariables());
+        if (limits.maxDepth() > 0 && measured.depth() > limits.maxDepth()) {
+            throw abort("Query depth " + measured.depth() + " exceeds the maximum of " + limits.maxDepth(), MAX_DEPTH_EXCEEDED);
+        }
+        if (limits.maxAliases() > 0 && measured.aliases() > limits.maxAliases()) {
+            throw abort("Query uses " + measured.aliases() + " aliases, more than the maximum of " + limits.maxAliases(),
+                    MAX_ALIASES_EXCEEDED);
+        }
+        if (limits.maxCost() > 0 && measured.cost() > limits.maxCost()) {
+            throw abort("Query cost " + measured.cost() + " exceeds the maximum of " + limits.maxCost(), MAX_COST_EXCEEDED);
+        }
+        AdmissionController.Permit permit = admissionController.tryAcquire(measured.cost());
+        if (permit == null) {
+            throw abort("Server is at capacity, retry later", OVERLOADED);
+        }
+        context.getGraphQLContext().put(AdmissionController.Permit.class, permit);
+        return super.beginExecuteOperation(parameters, state);
+    }
+
+    private static AbortExecutionException abort(String message, String code) {
+        GraphQLError error = GraphqlErrorBuilder.newError()
+                .message(message)
+                .errorType(ErrorType.ExecutionAborted)
+                .extensions(Map.of("code", code))
+                .build();
+        return new AbortExecutionException(List.of(error));
+    }
+
+    /** Whether the result is a rejection because the server was at capacity. */
+    public static boolean isOverloaded(ExecutionResult result) {
+        for (GraphQLError error : result.getErrors()) {
+            if (error.getExtensions() != null && OVERLOADED.equals(error.getExtensions().get("code"))) return true;
+        }
+        return false;
+    }
+}
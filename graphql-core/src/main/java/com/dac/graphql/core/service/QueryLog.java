@@ -0,0 +1,218 @@
+package com.dac.graphql.core.service;
+
+import com.dac.graphql.core.cache.PersistedQueryStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Structured log of executed SQL statements and GraphQL operations. Slow and failed operations
+ * are logged at WARN and kept in a ring buffer; other operations are logged at INFO for a
+ * sampled fraction only, which is zero by default. Log lines carry key-value pairs, parameter
+ * values are hashed or redacted unless configured otherwise, and at most a configured number of
+ * lines are written per second. Operations that are neither slow, failed nor sampled return
+ * without allocating. Route this logger through an async appender (see logback-spring.xml in
+ * graphql-app) so request threads never wait on the console.
+ */
+@Component
+public class QueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryLog.class);
+
+    /** How parameter values appear in log lines and slow operation entries. */
+    public enum ParamMode {
+        /** Values replaced by a fixed marker. */
+        REDACT,
+        /** First 8 hex digits of the SHA-256 of each value, so equal values can be correlated. */
+        HASH,
+        /** Values as given. */
+        PLAIN
+    }
+
+    /**
+     * A slow or failed operation.
+     *
+     * @param timestamp when the operation finished
+     * @param type "sql" or "graphql"
+     * @param spec the spec, for GraphQL operations
+     * @param name the table for SQL, otherwise the operation name
+     * @param statement SQL text, or for GraphQL the query's SHA-256 (its text with {@link ParamMode#PLAIN})
+     * @param parameters parameter or variable values, rendered per {@link ParamMode}
+     * @param durationMs elapsed milliseconds
+     * @param error the error message, or null
+     */
+    public record Entry(Instant timestamp, String type, String spec, String name, String statement,
+                        List<String> parameters, double durationMs, String error) {
+    }
+
+    static final String REDACTED = "***";
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int maxPerSecond;
+    private final ParamMode paramMode;
+    // Most recent slow operations; guarded by itself
+    private final Entry[] slow;
+    private long slowCount;
+    // Rate limit: current second and lines written in it
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicLong windowCount = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param sampleRate fraction of operations that are neither slow nor failed to log, 0 to 1
+     * @param slowThresholdMillis operations taking at least this long are slow; negative disables
+     * @param maxPerSecond log lines written per second at most; further lines are dropped and counted
+     * @param paramMode redact, hash or plain
+     * @param slowBufferSize slow operations kept for {@link #slowOperations()}
+     */
+    @Autowired
+    public QueryLog(@Value("${graphql.query-log.sample-rate:0}") double sampleRate,
+                    @Value("${graphql.query-log.slow-threshold-ms:500}") long slowThresholdMillis,
+                    @Value("${graphql.query-log.max-per-second:100}") int maxPerSecond,
+                    @Value("${graphql.query-log.params:hash}") String paramMode,
+                    @Value("${graphql.query-log.slow-buffer-size:100}") int slowBufferSize) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThresholdMillis < 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.maxPerSecond = maxPerSecond;
+        this.paramMode = ParamMode.valueOf(paramMode.trim().toUpperCase(Locale.ROOT));
+        this.slow = new Entry[Math.max(0, slowBufferSize)];
+    }
+
+    /**
+     * Defaults: nothing sampled, 500 ms slow threshold, 100 lines per second, hashed parameters.
+     */
+    public QueryLog() {
+        this(0, 500, 100, "hash", 100);
+    }
+
+    /**
+     * Record an executed SQL statement.
+     *
+     * @param table the table, used to name the operation
+     * @param sql the statement
+     * @param params bound values, or null
+     * @param startNanos {@link System#nanoTime()} before the statement ran
+     * @param error the failure, or null
+     */
+    public void sql(String table, String sql, Object[] params, long startNanos, Throwable error) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (!shouldRecord(elapsed, error)) return;
+        record(elapsed, error, "sql", null, table, sql, params == null ? List.of() : Arrays.asList(params));
+    }
+
+    /**
+     * Record an executed GraphQL operation. The query text is logged only as its SHA-256 unless
+     * parameters are logged plainly, since literals in it may carry the same data as variables.
+     *
+     * @param spec the spec
+     * @param operationName the operation name, or null
+     * @param query the query text
+     * @param variables the variables, or null
+     * @param startNanos {@link System#nanoTime()} before execution
+     * @param error the first error message, or null
+     */
+    public void operation(String spec, String operationName, String query, Map<String, Object> variables,
+                          long startNanos, String error) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (!shouldRecord(elapsed, error)) return;
+        String statement = query == null ? null : paramMode == ParamMode.PLAIN ? query : PersistedQueryStore.sha256(query);
+        record(elapsed, error, "graphql", spec, operationName, statement,
+                variables == null ? List.of() : new ArrayList<>(variables.values()));
+    }
+
+    private boolean shouldRecord(long elapsedNanos, Object error) {
+        return error != null || elapsedNanos >= slowThresholdNanos
+                || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private void record(long elapsedNanos, Object error, String type, String spec, String name, String statement,
+                        List<?> values) {
+        boolean notable = error != null || elapsedNanos >= slowThresholdNanos;
+        String message = error instanceof Throwable throwable ? throwable.getMessage() : (String) error;
+        double durationMs = elapsedNanos / 1_000_000.0;
+        List<String> parameters = render(values);
+        if (notable) {
+            remember(new Entry(Instant.now(), type, spec, name, statement, parameters, durationMs, message));
+        }
+        Level level = notable ? Level.WARN : Level.INFO;
+        if (!log.isEnabledForLevel(level) || !acquire()) return;
+        log.atLevel(level)
+                .addKeyValue("type", type)
+                .addKeyValue("spec", spec)
+                .addKeyValue("name", name)
+                .addKeyValue("durationMs", String.format(Locale.ROOT, "%.3f", durationMs))
+                .addKeyValue("statement", statement)
+                .addKeyValue("params", parameters)
+                .addKeyValue("error", message)
+                .log(error != null ? "failed" : elapsedNanos >= slowThresholdNanos ? "slow" : "sampled");
+    }
+
+    List<String> render(List<?> values) {
+        List<String> rendered = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (value == null) {
+                rendered.add(null);
+            } else if (paramMode == ParamMode.PLAIN) {
+                rendered.add(String.valueOf(value));
+            } else if (paramMode == ParamMode.HASH) {
+                rendered.add(PersistedQueryStore.sha256(String.valueOf(value)).substring(0, 8));
+            } else {
+                rendered.add(REDACTED);
+            }
+        }
+        return rendered;
+    }
+
+    // At most maxPerSecond lines per wall-clock second; the window resets when the second changes
+    private boolean acquire() {
+        long second = System.currentTimeMillis() / 1000;
+        long current = window.get();
+        if (current != second && window.compareAndSet(current, second)) {
+            windowCount.set(0);
+        }
+        if (windowCount.incrementAndGet() <= maxPerSecond) return true;
+        dropped.increment();
+        return false;
+    }
+
+    private void remember(Entry entry) {
+        if (slow.length == 0) return;
+        synchronized (slow) {
+            slow[(int) (slowCount++ % slow.length)] = entry;
+        }
+    }
+
+    /**
+     * The most recent slow or failed operations, newest first.
+     */
+    public List<Entry> slowOperations() {
+        List<Entry> entries = new ArrayList<>();
+        synchronized (slow) {
+            long first = Math.max(0, slowCount - slow.length);
+            for (long i = slowCount - 1; i >= first; i--) {
+                entries.add(slow[(int) (i % slow.length)]);
+            }
+        }
+        return entries;
+    }
+
+    /** Log lines dropped by the per-second limit. */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,188 @@
+package com.dac.graphql.core.service;
+
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.adapter.ResultRows;
+import org.dataloader.BatchLoader;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderOptions;
+import org.dataloader.DataLoaderRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Creates per-request DataLoaders that batch single-row lookups by key and child
+ * lookups by parent key. All loads for one table and key column (or one relation)
+ * issued within an execution level are resolved with a single query.
+ */
+@Component
+public class RowDataLoaderFactory {
+
+    private final DatabaseAdapter databaseAdapter;
+    private final int maxBatchSize;
+    private final boolean cachePerRequest;
+    private final IndexAdvisor indexAdvisor;
+
+    public RowDataLoaderFactory(DatabaseAdapter databaseAdapter, int maxBatchSize, boolean cachePerRequest) {
+        this(databaseAdapter, maxBatchSize, cachePerRequest, null);
+    }
+
+    @Autowired
+    public RowDataLoaderFactory(DatabaseAdapter databaseAdapter,
+                                @Value("${graphql.dataloader.max-batch-size:500}") int maxBatchSize,
+                                @Value("${graphql.dataloader.cache-per-request:true}") boolean cachePerRequest,
+                                @Nullable IndexAdvisor indexAdvisor) {
+        this.databaseAdapter = databaseAdapter;
+        this.maxBatchSize = maxBatchSize;
+        this.cachePerRequest = cachePerRequest;
+        this.indexAdvisor = indexAdvisor;
+    }
+
+    /**
+     * Loader name for a table, key column and projection. Requests selecting different columns
+     * use different loaders so a cached row always carries the columns its caller asked for.
+     */
+    public static String loaderName(String tableName, String keyColumn, List<String> columns) {
+        return tableName + "." + keyColumn + columns;
+    }
+
+    /**
+     * Create an empty registry for one request. Loaders are added on first use.
+     */
+    public DataLoaderRegistry newRegistry() {
+        return new DataLoaderRegistry();
+    }
+
+    /**
+     * Get the loader for a table, key column and projection from the request's registry, creating it if needed.
+     *
+     * @param columns columns to select; an empty list selects all columns. The key column is added if missing
+     */
+    public DataLoader<Object, Map<String, Object>> getLoader(DataLoaderRegistry registry, String tableName,
+                                                             String keyColumn, List<String> columns) {
+        List<String> projection = withColumn(columns, keyColumn);
+        return registry.computeIfAbsent(loaderName(tableName, keyColumn, projection),
+                name -> newRowLoader(tableName, keyColumn, projection));
+    }
+
+    /**
+     * Get the loader resolving a ONE_TO_MANY or MANY_TO_MANY relation, keyed by parent key.
+     *
+     * @param registry the request's registry
+     * @param parentTable table declaring the relation
+     * @param relation the relation to resolve
+     * @param targetKeyColumn key column of the target table, used to join MANY_TO_MANY relations
+     * @param columns target table columns to select; an empty list selects all columns
+     * @return loader returning the list of child rows for each parent key
+     */
+    public DataLoader<Object, List<Map<String, Object>>> getChildLoader(DataLoaderRegistry registry, String parentTable,
+                                                                       SchemaModel.Relation relation, String targetKeyColumn,
+                                                                       List<String> columns) {
+        // ONE_TO_MANY rows are grouped by their foreign key, so it must be selected
+        List<String> projection = relation.kind() == SchemaModel.RelationKind.ONE_TO_MANY
+                ? withColumn(columns, relation.foreignKeyColumn()) : columns;
+        return registry.computeIfAbsent("children:" + parentTable + "." + relation.fieldName() + projection,
+                name -> newLoader(relation.targetTable(), keys -> loadChildren(relation, targetKeyColumn, projection, keys)));
+    }
+
+    DataLoader<Object, Map<String, Object>> newRowLoader(String tableName, String keyColumn, List<String> columns) {
+        return newLoader(tableName, keys -> loadRows(tableName, keyColumn, columns, keys));
+    }
+
+    private static List<String> withColumn(List<String> columns, String column) {
+        if (columns.isEmpty() || columns.contains(column)) return columns;
+        List<String> result = new ArrayList<>(columns);
+        result.add(column);
+        return result;
+    }
+
+    private interface RowsLoader<V> {
+        List<V> load(List<Object> keys) throws Exception;
+    }
+
+    private <V> DataLoader<Object, V> newLoader(String tableName, RowsLoader<V> rowsLoader) {
+        DataLoaderOptions options = DataLoaderOptions.newOptions()
+                .setCachingEnabled(cachePerRequest)
+                .setMaxBatchSize(maxBatchSize);
+        BatchLoader<Object, V> batchLoader = keys -> {
+            try {
+                return CompletableFuture.completedFuture(rowsLoader.load(keys));
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(
+                        new RuntimeException("SQL error querying table '" + tableName + "': " + e.getMessage()));
+            }
+        };
+        return DataLoaderFactory.newDataLoader(batchLoader, options);
+    }
+
+    private List<List<Map<String, Object>>> loadChildren(SchemaModel.Relation relation, String targetKeyColumn,
+                                                         List<String> columns, List<Object> parentKeys) throws Exception {
+        List<Map<String, Object>> rows;
+        String groupColumn;
+        if (relation.kind() == SchemaModel.RelationKind.ONE_TO_MANY) {
+            rows = databaseAdapter.executeQueryByKeys(relation.targetTable(), columns, relation.foreignKeyColumn(), parentKeys);
+            if (indexAdvisor != null) indexAdvisor.recordLookup(relation.targetTable(), relation.foreignKeyColumn());
+            groupColumn = relation.foreignKeyColumn();
+        } else {
+            groupColumn = SchemaModel.Relation.JOIN_PARENT_COLUMN;
+            String placeholders = String.join(", ", Collections.nCopies(parentKeys.size(), "?"));
+            String childColumns = columns.isEmpty() ? "c.*"
+                    : columns.stream().map(column -> "c." + column).collect(Collectors.joining(", "));
+            String sql = "SELECT j." + groupColumn + " AS " + groupColumn + ", " + childColumns + " FROM " + relation.targetTable()
+                    + " c JOIN " + relation.joinTable() + " j ON c." + targetKeyColumn
+                    + " = j." + SchemaModel.Relation.JOIN_CHILD_COLUMN
+                    + " WHERE j." + groupColumn + " IN (" + placeholders + ")";
+            if (indexAdvisor != null) indexAdvisor.recordQuery(sql);
+            // Join table columns hold keys as text
+            rows = databaseAdapter.executeQuery(sql, parentKeys.stream().map(String::valueOf).toArray());
+        }
+        Map<String, List<Map<String, Object>>> rowsByParent = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            rowsByParent.computeIfAbsent(String.valueOf(getColumnValue(row, groupColumn)), k -> new ArrayList<>()).add(row);
+        }
+        List<List<Map<String, Object>>> results = new ArrayList<>(parentKeys.size());
+        for (Object key : parentKeys) {
+            results.add(rowsByParent.getOrDefault(String.valueOf(key), Collections.emptyList()));
+        }
+        return results;
+    }
+
+    private List<Map<String, Object>> loadRows(String tableName, String keyColumn, List<String> columns,
+                                               List<Object> keys) throws Exception {
+        List<Map<String, Object>> rows = databaseAdapter.executeQueryByKeys(tableName, columns, keyColumn, keys);
+        if (indexAdvisor != null) indexAdvisor.recordLookup(tableName, keyColumn);
+        // Keys are compared as strings: GraphQL IDs arrive as strings while columns may hold numbers
+        Map<String, Map<String, Object>> rowsByKey = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            rowsByKey.putIfAbsent(String.valueOf(getColumnValue(row, keyColumn)), row);
+        }
+        List<Map<String, Object>> results = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            results.add(rowsByKey.get(String.valueOf(key)));
+        }
+        return results;
+    }
+
+    /**
+     * Read a column from a result row. Drivers differ in column name case
+     * (H2 upper-cases, Postgres lower-cases unquoted names), so the lookup falls back to ignoring case.
+     */
+    public static Object getColumnValue(Map<String, Object> row, String column) {
+        if (row instanceof ResultRows.Row resultRow) return resultRow.getIgnoreCase(column);
+        if (row.containsKey(column)) return row.get(column);
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(column)) return entry.getValue();
+        }
+        return null;
+    }
+}
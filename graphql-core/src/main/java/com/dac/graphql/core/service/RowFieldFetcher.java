@@ -0,0 +1,49 @@
+package com.dac.graphql.core.service;
+
+import com.dac.graphql.core.adapter.ResultRows;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.LightDataFetcher;
+import graphql.schema.PropertyDataFetcher;
+
+import java.util.function.Supplier;
+
+/**
+ * Default fetcher for fields read from result rows. For a {@link ResultRows.Row} the column
+ * position is resolved once per result and reused for its other rows, ignoring case when the
+ * driver changed it; other sources are read like {@link PropertyDataFetcher} does.
+ */
+public final class RowFieldFetcher implements LightDataFetcher<Object> {
+
+    private record Resolved(ResultRows.Columns columns, int column) {
+    }
+
+    private final String name;
+    private final PropertyDataFetcher<Object> fallback;
+    // Last result seen; a race only costs a repeated lookup
+    private volatile Resolved resolved;
+
+    public RowFieldFetcher(String name) {
+        this.name = name;
+        this.fallback = PropertyDataFetcher.fetching(name);
+    }
+
+    @Override
+    public Object get(GraphQLFieldDefinition fieldDefinition, Object source,
+                      Supplier<DataFetchingEnvironment> environmentSupplier) throws Exception {
+        if (source instanceof ResultRows.Row row) {
+            Resolved current = resolved;
+            if (current == null || current.columns() != row.columns()) {
+                current = new Resolved(row.columns(), row.columns().indexOfIgnoreCase(name));
+                resolved = current;
+            }
+            return current.column() < 0 ? null : row.get(current.column());
+        }
+        return fallback.get(fieldDefinition, source, environmentSupplier);
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment environment) throws Exception {
+        return get(environment.getFieldDefinition(), environment.getSource(), () -> environment);
+    }
+}
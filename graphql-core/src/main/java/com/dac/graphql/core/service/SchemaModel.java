@@ -0,0 +1,246 @@
+package com.dac.graphql.core.service;
+
+import graphql.language.Document;
+import graphql.language.FieldDefinition;
+import graphql.language.ListType;
+import graphql.language.NonNullType;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.Type;
+import graphql.language.TypeName;
+import graphql.schema.idl.TypeDefinitionRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, parsed view of one version of an uploaded GraphQL schema.
+ * Built once from a single read and parse of the SDL and shared by DDL generation,
+ * the GraphQL controller and the runtime wiring.
+ */
+public final class SchemaModel {
+
+    /**
+     * A column derived from a field of an object type.
+     *
+     * @param name column name (the GraphQL field name)
+     * @param graphQLType base GraphQL type name, e.g. "ID" or "String"
+     * @param sqlType database-specific SQL type as produced by the adapter
+     * @param nonNull whether the GraphQL field is non-null
+     * @param list whether the GraphQL field is a list
+     */
+    public record Column(String name, String graphQLType, String sqlType, boolean nonNull, boolean list) {
+    }
+
+    public enum RelationKind {
+        /** {@code author: Author}: the parent row stores the target key in a column named after the field. */
+        MANY_TO_ONE,
+        /** {@code books: [Book]} where Book has {@code author: Author}: children reference the parent key. */
+        ONE_TO_MANY,
+        /** {@code tags: [Tag]} without a back-reference: pairs are stored in a join table. */
+        MANY_TO_MANY
+    }
+
+    /**
+     * An object-typed field of a table resolved through another table.
+     *
+     * @param fieldName the GraphQL field name
+     * @param kind how the relation is stored
+     * @param targetTable table holding the related rows
+     * @param foreignKeyColumn for MANY_TO_ONE the column in this table, for ONE_TO_MANY the column
+     *                         in the target table; null for MANY_TO_MANY
+     * @param joinTable join table for MANY_TO_MANY, null otherwise
+     */
+    public record Relation(String fieldName, RelationKind kind, String targetTable,
+                           String foreignKeyColumn, String joinTable) {
+
+        public static final String JOIN_PARENT_COLUMN = "parent_key";
+        public static final String JOIN_CHILD_COLUMN = "child_key";
+    }
+
+    /**
+     * A secondary index created with the table.
+     *
+     * @param columns indexed columns, leading column first
+     * @param unique whether the index enforces uniqueness
+     */
+    public record Index(List<String> columns, boolean unique) {
+
+        public Index {
+            columns = List.copyOf(columns);
+        }
+    }
+
+    /**
+     * A table derived from an object type.
+     *
+     * @param name table name (the GraphQL type name)
+     * @param columns columns in field declaration order; list-of-object fields have no column
+     * @param keyColumn name of the first ID-typed column, or null if there is none
+     * @param relations object-typed fields resolved through other tables
+     * @param indexes indexes on columns used for lookups or marked with @index/@unique
+     */
+    public record Table(String name, List<Column> columns, String keyColumn, List<Relation> relations,
+                        List<Index> indexes) {
+
+        public Table(String name, List<Column> columns, String keyColumn) {
+            this(name, columns, keyColumn, List.of());
+        }
+
+        public Table(String name, List<Column> columns, String keyColumn, List<Relation> relations) {
+            this(name, columns, keyColumn, relations, List.of());
+        }
+
+        public Table {
+            columns = List.copyOf(columns);
+            relations = List.copyOf(relations);
+            indexes = List.copyOf(indexes);
+        }
+
+        public Table withIndexes(List<Index> indexes) {
+            return new Table(name, columns, keyColumn, relations, indexes);
+        }
+
+        public Column getColumn(String columnName) {
+            for (Column column : columns) {
+                if (column.name().equals(columnName)) return column;
+            }
+            return null;
+        }
+
+        public Relation getRelation(String fieldName) {
+            for (Relation relation : relations) {
+                if (relation.fieldName().equals(fieldName)) return relation;
+            }
+            return null;
+        }
+
+        /**
+         * Columns to select for a set of requested fields, in declaration order. The key column is
+         * always included so relations and batch loaders can match rows; fields without a column
+         * (list relations, __typename) are ignored.
+         *
+         * @param fieldNames names of the fields selected on this type
+         * @return the column names, or an empty list when nothing maps to a column (select all)
+         */
+        public List<String> projection(Collection<String> fieldNames) {
+            List<String> selected = new ArrayList<>();
+            for (Column column : columns) {
+                if (column.name().equals(keyColumn) || fieldNames.contains(column.name())) {
+                    selected.add(column.name());
+                }
+            }
+            return selected;
+        }
+
+        /**
+         * Column definitions in the form expected by {@code DatabaseAdapter.createTable}.
+         *
+         * @return comma-separated "name type" pairs
+         */
+        public String columnDefinitions() {
+            return columns.stream()
+                    .map(column -> column.name() + " " + column.sqlType())
+                    .collect(Collectors.joining(", "));
+        }
+    }
+
+    private final Document document;
+    private final TypeDefinitionRegistry typeRegistry;
+    private final List<ObjectTypeDefinition> objectTypes;
+    private final ObjectTypeDefinition queryType;
+    private final ObjectTypeDefinition mutationType;
+    private final Map<String, Table> tables;
+    private final List<Table> joinTables;
+
+    SchemaModel(Document document, TypeDefinitionRegistry typeRegistry, List<ObjectTypeDefinition> objectTypes,
+                ObjectTypeDefinition queryType, ObjectTypeDefinition mutationType, Map<String, Table> tables,
+                List<Table> joinTables) {
+        this.document = document;
+        this.typeRegistry = typeRegistry;
+        this.objectTypes = List.copyOf(objectTypes);
+        this.queryType = queryType;
+        this.mutationType = mutationType;
+        this.tables = Collections.unmodifiableMap(new LinkedHashMap<>(tables));
+        this.joinTables = List.copyOf(joinTables);
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+
+    /**
+     * Type registry for schema generation. The registry itself is mutable in graphql-java,
+     * so callers must treat it as read-only; {@code SchemaGenerator} does not modify it.
+     */
+    public TypeDefinitionRegistry getTypeRegistry() {
+        return typeRegistry;
+    }
+
+    /** Object types other than Query and Mutation. */
+    public List<ObjectTypeDefinition> getObjectTypes() {
+        return objectTypes;
+    }
+
+    public ObjectTypeDefinition getQueryType() {
+        return queryType;
+    }
+
+    public ObjectTypeDefinition getMutationType() {
+        return mutationType;
+    }
+
+    /** Table metadata keyed by table name, in declaration order. */
+    public Map<String, Table> getTables() {
+        return tables;
+    }
+
+    public Table getTable(String tableName) {
+        return tables.get(tableName);
+    }
+
+    /**
+     * Look up a table by name ignoring case, for names derived from field names such as addBook.
+     */
+    public Table getTableIgnoreCase(String tableName) {
+        Table table = tables.get(tableName);
+        if (table != null) return table;
+        for (Table candidate : tables.values()) {
+            if (candidate.name().equalsIgnoreCase(tableName)) return candidate;
+        }
+        return null;
+    }
+
+    /** Join tables backing MANY_TO_MANY relations. */
+    public List<Table> getJoinTables() {
+        return joinTables;
+    }
+
+    /**
+     * Extract the base type name (e.g. Book) from a possibly wrapped GraphQL type.
+     *
+     * @param type GraphQL AST type
+     * @return the innermost type name
+     */
+    public static String getBaseTypeName(Type<?> type) {
+        if (type instanceof TypeName) {
+            return ((TypeName) type).getName();
+        } else if (type instanceof ListType) {
+            return getBaseTypeName(((ListType) type).getType());
+        } else if (type instanceof NonNullType) {
+            return getBaseTypeName(((NonNullType) type).getType());
+        }
+        return type.toString(); // fallback
+    }
+
+    static Column toColumn(FieldDefinition field, String sqlType) {
+        Type<?> type = field.getType();
+        boolean nonNull = type instanceof NonNullType;
+        Type<?> unwrapped = nonNull ? ((NonNullType) type).getType() : type;
+        return new Column(field.getName(), getBaseTypeName(type), sqlType, nonNull, unwrapped instanceof ListType);
+    }
+}
@@ -15,22 +15,72 @@ public class SchemaRegistry implements InitializingBean {
 
     // In-memory map: specName -> schema file
     private final Map<String, File> schemaMap = new ConcurrentHashMap<>();
+    // specName -> upload generation, bumped every time a spec file is (re)registered
+    private final Map<String, Long> versionMap = new ConcurrentHashMap<>();
+    // specName -> parsed model of the registered file, when the uploader already parsed it
+    private final Map<String, SchemaModel> modelMap = new ConcurrentHashMap<>();
 
     @Override
     public void afterPropertiesSet() {
+        for (File file : uploadedFiles()) {
+            String specName = file.getName().replaceFirst("\\.graphql$", "");
+            schemaMap.put(specName, file);
+        }
+    }
+
+    private File[] uploadedFiles() {
         File dir = new File(System.getProperty("user.dir"), uploadDir);
         if (!dir.exists()) dir.mkdirs();
         File[] files = dir.listFiles((d, name) -> name.endsWith(".graphql"));
-        if (files != null) {
-            for (File file : files) {
-                String specName = file.getName().replaceFirst("\\.graphql$", "");
-                schemaMap.put(specName, file);
-            }
+        return files != null ? files : new File[0];
+    }
+
+    /**
+     * Register a spec's file again after another node uploaded it to the shared upload
+     * directory, so it is parsed and compiled anew.
+     *
+     * @return whether the file exists
+     */
+    public boolean reloadSchemaFile(String specName) {
+        File file = new File(new File(System.getProperty("user.dir"), uploadDir), specName + ".graphql");
+        if (!file.exists()) return false;
+        setSchemaFile(specName, file);
+        return true;
+    }
+
+    /**
+     * Register every file in the upload directory again, e.g. when uploads may have been missed.
+     */
+    public void reloadAll() {
+        for (File file : uploadedFiles()) {
+            setSchemaFile(file.getName().replaceFirst("\\.graphql$", ""), file);
         }
     }
 
     public void setSchemaFile(String specName, File file) {
+        setSchemaFile(specName, file, null);
+    }
+
+    /**
+     * Register a schema file together with its parsed model. The model is published
+     * before the version is bumped, so a reader that sees the new version also sees its model.
+     */
+    public void setSchemaFile(String specName, File file, SchemaModel model) {
+        if (model != null) {
+            modelMap.put(specName, model);
+        } else {
+            modelMap.remove(specName);
+        }
         schemaMap.put(specName, file);
+        versionMap.merge(specName, 1L, Long::sum);
+    }
+
+    public SchemaModel getSchemaModel(String specName) {
+        return modelMap.get(specName);
+    }
+
+    public long getSchemaVersion(String specName) {
+        return versionMap.getOrDefault(specName, 0L);
     }
 
     public File getSchemaFile(String specName) {
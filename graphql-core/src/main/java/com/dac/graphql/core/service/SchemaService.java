@@ -1,72 +1,415 @@
 package com.dac.graphql.core.service;
 
+import graphql.language.Definition;
+import graphql.language.DirectiveDefinition;
 import graphql.language.Document;
+import graphql.language.FieldDefinition;
+import graphql.language.InputValueDefinition;
+import graphql.language.ListType;
+import graphql.language.NonNullType;
 import graphql.language.ObjectTypeDefinition;
+import graphql.language.SchemaDefinition;
+import graphql.language.Type;
+import graphql.language.TypeDefinition;
+import graphql.language.TypeName;
 import graphql.parser.Parser;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 import com.dac.graphql.core.adapter.DatabaseAdapter;
 import java.sql.SQLException;
 
 @Service
 public class SchemaService {
-    
+
+    static final String INDEX_DIRECTIVE = "index";
+    static final String UNIQUE_DIRECTIVE = "unique";
+    static final String CACHE_CONTROL_DIRECTIVE = "cacheControl";
+    static final String CACHE_CONTROL_DEFINITION = """
+            enum CacheControlScope { PUBLIC PRIVATE }
+            directive @cacheControl(maxAge: Int, scope: CacheControlScope, inheritMaxAge: Boolean) on FIELD_DEFINITION | OBJECT | INTERFACE | UNION
+            """;
+
     @Autowired
     private DatabaseAdapter databaseAdapter;
 
-    public void processSchemaFile(File schemaFile) throws IOException, SQLException {
+    /**
+     * Parse the schema file and create a table for every object type.
+     *
+     * @param schemaFile the uploaded schema file
+     * @return the parsed schema model, so callers can register it without parsing again
+     */
+    public SchemaModel processSchemaFile(File schemaFile) throws IOException, SQLException {
+        SchemaModel model = loadSchemaModel(schemaFile);
+        processSchemaModel(model);
+        return model;
+    }
+
+    public void processSchemaModel(SchemaModel model) throws SQLException {
+        List<SchemaModel.Table> tables = new ArrayList<>(model.getTables().values());
+        tables.addAll(model.getJoinTables());
+        for (SchemaModel.Table table : tables) {
+            databaseAdapter.createTable(table.name(), table.columnDefinitions());
+            for (SchemaModel.Index index : table.indexes()) {
+                databaseAdapter.createIndex(table.name(), index.columns(), index.unique());
+            }
+        }
+    }
+
+    /**
+     * Read and parse a schema file exactly once into an immutable model.
+     *
+     * @param schemaFile the schema file
+     * @return the schema model
+     * @throws IOException if the file cannot be read
+     */
+    public SchemaModel loadSchemaModel(File schemaFile) throws IOException {
         String schema = Files.readString(schemaFile.toPath());
-        Parser parser = new Parser();
-        Document document = parser.parseDocument(schema);
-        List<ObjectTypeDefinition> types = document.getDefinitionsOfType(ObjectTypeDefinition.class);
+        Document document = withIndexDirectives(withBulkMutations(withListArguments(new Parser().parseDocument(schema))));
+        TypeDefinitionRegistry typeRegistry = new SchemaParser().buildRegistry(document);
+        List<ObjectTypeDefinition> objectTypes = new ArrayList<>();
+        ObjectTypeDefinition queryType = null;
+        ObjectTypeDefinition mutationType = null;
+        for (ObjectTypeDefinition type : document.getDefinitionsOfType(ObjectTypeDefinition.class)) {
+            if (type.getName().equals("Query")) {
+                if (queryType == null) queryType = type;
+            } else if (type.getName().equals("Mutation")) {
+                if (mutationType == null) mutationType = type;
+            } else {
+                objectTypes.add(type);
+            }
+        }
+        Map<String, ObjectTypeDefinition> typesByName = new LinkedHashMap<>();
+        for (ObjectTypeDefinition type : objectTypes) {
+            typesByName.putIfAbsent(type.getName(), type);
+        }
+        Map<String, SchemaModel.Table> tables = new LinkedHashMap<>();
+        List<SchemaModel.Table> joinTables = new ArrayList<>();
+        for (ObjectTypeDefinition type : typesByName.values()) {
+            tables.put(type.getName(), toTable(type, typesByName, joinTables));
+        }
+        Map<String, List<SchemaModel.Index>> indexes = collectIndexes(queryType, typesByName.values(), tables);
+        tables.replaceAll((name, table) -> table.withIndexes(indexes.getOrDefault(name, List.of())));
+        joinTables.replaceAll(table -> table.withIndexes(indexes.getOrDefault(table.name(), List.of())));
+        return new SchemaModel(document, typeRegistry, objectTypes, queryType, mutationType, tables, joinTables);
+    }
+
+    /**
+     * Declare first/after/limit/offset on every Query field returning a list of an object type,
+     * plus where/orderBy with generated filter types (see {@link QueryFilters}), unless the schema
+     * already declares an argument or type of that name.
+     */
+    private Document withListArguments(Document document) {
+        Set<String> typeNames = new HashSet<>();
+        Set<String> declaredNames = new HashSet<>();
+        Map<String, ObjectTypeDefinition> objectTypes = new LinkedHashMap<>();
+        for (TypeDefinition<?> type : document.getDefinitionsOfType(TypeDefinition.class)) {
+            declaredNames.add(type.getName());
+            if (type instanceof ObjectTypeDefinition objectType && !type.getName().equals("Query")
+                    && !type.getName().equals("Mutation")) {
+                typeNames.add(type.getName());
+                objectTypes.putIfAbsent(type.getName(), objectType);
+            }
+        }
+        Map<String, String> generated = new LinkedHashMap<>();
+        List<Definition> definitions = new ArrayList<>();
+        for (Definition<?> definition : document.getDefinitions()) {
+            if (definition instanceof ObjectTypeDefinition type && type.getName().equals("Query")) {
+                List<FieldDefinition> fields = new ArrayList<>();
+                for (FieldDefinition field : type.getFieldDefinitions()) {
+                    SchemaModel.Column column = SchemaModel.toColumn(field, null);
+                    if (!column.list() || !typeNames.contains(column.graphQLType())) {
+                        fields.add(field);
+                        continue;
+                    }
+                    Map<String, String> filterTypes = QueryFilters.definitions(objectTypes.get(column.graphQLType()), typeNames);
+                    boolean filterable = !filterTypes.isEmpty()
+                            && filterTypes.keySet().stream().noneMatch(declaredNames::contains);
+                    if (filterable) {
+                        filterTypes.forEach(generated::putIfAbsent);
+                    }
+                    fields.add(withListArguments(field, filterable));
+                }
+                definitions.add(type.transform(builder -> builder.fieldDefinitions(fields)));
+            } else {
+                definitions.add(definition);
+            }
+        }
+        if (!generated.isEmpty()) {
+            definitions.addAll(new Parser().parseDocument(String.join("\n", generated.values())).getDefinitions());
+        }
+        return document.transform(builder -> builder.definitions(definitions));
+    }
+
+    /**
+     * Declare an {@code add<Type>s(input: [<Type>Input!]!): Int!} mutation for every object type
+     * (see {@link BulkMutations}), creating the Mutation type if needed, unless the schema already
+     * declares a type or field of that name.
+     */
+    private Document withBulkMutations(Document document) {
+        Set<String> declaredNames = new HashSet<>();
+        Set<String> typeNames = new HashSet<>();
+        Map<String, ObjectTypeDefinition> objectTypes = new LinkedHashMap<>();
+        ObjectTypeDefinition mutationType = null;
+        for (TypeDefinition<?> type : document.getDefinitionsOfType(TypeDefinition.class)) {
+            declaredNames.add(type.getName());
+            if (!(type instanceof ObjectTypeDefinition objectType) || type.getName().equals("Query")) continue;
+            if (type.getName().equals("Mutation")) {
+                if (mutationType == null) mutationType = objectType;
+            } else {
+                typeNames.add(type.getName());
+                objectTypes.putIfAbsent(type.getName(), objectType);
+            }
+        }
+        // A new Mutation type would not be reachable from an explicit schema definition
+        if (mutationType == null && !document.getDefinitionsOfType(SchemaDefinition.class).isEmpty()) return document;
+        Set<String> mutationNames = new HashSet<>();
+        if (mutationType != null) {
+            mutationType.getFieldDefinitions().forEach(field -> mutationNames.add(field.getName()));
+        }
+        List<String> inputs = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        for (ObjectTypeDefinition type : objectTypes.values()) {
+            if (declaredNames.contains(BulkMutations.inputTypeName(type.getName()))
+                    || mutationNames.contains(BulkMutations.fieldName(type.getName()))) continue;
+            String input = BulkMutations.inputDefinition(type, typeNames);
+            if (input == null) continue;
+            inputs.add(input);
+            fields.add(BulkMutations.mutationField(type.getName()));
+        }
+        if (fields.isEmpty()) return document;
+        Document generated = new Parser().parseDocument(String.join("\n", inputs)
+                + "\ntype Mutation { " + String.join("\n", fields) + " }");
+        List<Definition> definitions = new ArrayList<>();
+        for (Definition<?> definition : document.getDefinitions()) {
+            if (definition == mutationType) {
+                List<FieldDefinition> mutationFields = new ArrayList<>(mutationType.getFieldDefinitions());
+                ObjectTypeDefinition generatedMutation = generated.getDefinitionsOfType(ObjectTypeDefinition.class).get(0);
+                mutationFields.addAll(generatedMutation.getFieldDefinitions());
+                definitions.add(mutationType.transform(builder -> builder.fieldDefinitions(mutationFields)));
+            } else {
+                definitions.add(definition);
+            }
+        }
+        for (Definition<?> definition : generated.getDefinitions()) {
+            if (mutationType == null || !(definition instanceof ObjectTypeDefinition)) {
+                definitions.add(definition);
+            }
+        }
+        return document.transform(builder -> builder.definitions(definitions));
+    }
+
+    /**
+     * Declare the @index and @unique field directives and the @cacheControl hint when the schema
+     * uses them without declaring them, so the schema still validates.
+     */
+    private Document withIndexDirectives(Document document) {
+        Set<String> declared = new HashSet<>();
+        for (DirectiveDefinition directive : document.getDefinitionsOfType(DirectiveDefinition.class)) {
+            declared.add(directive.getName());
+        }
+        Set<String> used = new HashSet<>();
+        for (TypeDefinition<?> type : document.getDefinitionsOfType(TypeDefinition.class)) {
+            if (type.hasDirective(CACHE_CONTROL_DIRECTIVE)) used.add(CACHE_CONTROL_DIRECTIVE);
+        }
+        for (ObjectTypeDefinition type : document.getDefinitionsOfType(ObjectTypeDefinition.class)) {
+            for (FieldDefinition field : type.getFieldDefinitions()) {
+                if (field.hasDirective(INDEX_DIRECTIVE)) used.add(INDEX_DIRECTIVE);
+                if (field.hasDirective(UNIQUE_DIRECTIVE)) used.add(UNIQUE_DIRECTIVE);
+                if (field.hasDirective(CACHE_CONTROL_DIRECTIVE)) used.add(CACHE_CONTROL_DIRECTIVE);
+            }
+        }
+        used.removeAll(declared);
+        if (used.isEmpty()) return document;
+        List<Definition> definitions = new ArrayList<>(document.getDefinitions());
+        for (String directive : used) {
+            String definition = directive.equals(CACHE_CONTROL_DIRECTIVE) ? CACHE_CONTROL_DEFINITION
+                    : "directive @" + directive + " on FIELD_DEFINITION";
+            definitions.addAll(new Parser().parseDocument(definition).getDefinitions());
+        }
+        return document.transform(builder -> builder.definitions(definitions));
+    }
+
+    private FieldDefinition withListArguments(FieldDefinition field, boolean filterable) {
+        List<InputValueDefinition> arguments = new ArrayList<>(field.getInputValueDefinitions());
+        addArgument(arguments, PaginationSettings.FIRST, new TypeName("Int"));
+        addArgument(arguments, PaginationSettings.AFTER, new TypeName("ID"));
+        addArgument(arguments, PaginationSettings.LIMIT, new TypeName("Int"));
+        addArgument(arguments, PaginationSettings.OFFSET, new TypeName("Int"));
+        if (filterable) {
+            String typeName = SchemaModel.getBaseTypeName(field.getType());
+            addArgument(arguments, QueryFilters.WHERE, new TypeName(QueryFilters.filterTypeName(typeName)));
+            addArgument(arguments, QueryFilters.ORDER_BY,
+                    new ListType(new NonNullType(new TypeName(QueryFilters.orderByTypeName(typeName)))));
+        }
+        return field.transform(builder -> builder.inputValueDefinitions(arguments));
+    }
+
+    private void addArgument(List<InputValueDefinition> arguments, String name, Type<?> type) {
+        for (InputValueDefinition argument : arguments) {
+            if (argument.getName().equals(name)) return;
+        }
+        arguments.add(InputValueDefinition.newInputValueDefinition().name(name).type(type).build());
+    }
+
+    private SchemaModel.Table toTable(ObjectTypeDefinition type, Map<String, ObjectTypeDefinition> typesByName,
+                                      List<SchemaModel.Table> joinTables) {
+        List<SchemaModel.Column> columns = new ArrayList<>();
+        List<SchemaModel.Relation> relations = new ArrayList<>();
+        String keyColumn = null;
+        for (FieldDefinition field : type.getFieldDefinitions()) {
+            SchemaModel.Column column = SchemaModel.toColumn(field, null);
+            ObjectTypeDefinition target = typesByName.get(column.graphQLType());
+            if (target != null && !column.list()) {
+                // The column keeps the field name and stores the referenced row's key
+                relations.add(new SchemaModel.Relation(field.getName(), SchemaModel.RelationKind.MANY_TO_ONE,
+                        target.getName(), field.getName(), null));
+            } else if (target != null) {
+                String backReference = findBackReference(target, type.getName());
+                if (backReference != null) {
+                    relations.add(new SchemaModel.Relation(field.getName(), SchemaModel.RelationKind.ONE_TO_MANY,
+                            target.getName(), backReference, null));
+                } else {
+                    String joinTable = type.getName() + "_" + field.getName();
+                    relations.add(new SchemaModel.Relation(field.getName(), SchemaModel.RelationKind.MANY_TO_MANY,
+                            target.getName(), null, joinTable));
+                    joinTables.add(newJoinTable(joinTable));
+                }
+                continue;
+            }
+            boolean key = keyColumn == null && target == null && "ID".equals(column.graphQLType()) && !column.list();
+            if (key) keyColumn = column.name();
+            columns.add(new SchemaModel.Column(column.name(), column.graphQLType(), sqlType(column, target != null, key),
+                    column.nonNull(), column.list()));
+        }
+        return new SchemaModel.Table(type.getName(), columns, keyColumn, relations);
+    }
+
+    /**
+     * The key column takes the adapter's type for ID, its primary key; other ID fields and
+     * object references hold another row's key. Lists of scalars are stored as text.
+     */
+    private String sqlType(SchemaModel.Column column, boolean reference, boolean key) {
+        if (key) return databaseAdapter.mapGraphQLTypeToSql("ID");
+        if (column.list()) return databaseAdapter.mapGraphQLTypeToSql("String");
+        if (reference || "ID".equals(column.graphQLType())) return databaseAdapter.keyReferenceSqlType();
+        return databaseAdapter.mapGraphQLTypeToSql(column.graphQLType());
+    }
+
+    /**
+     * Indexes for the columns lookups filter on: the column arguments of each Query field
+     * (one index per field, in argument order), foreign keys used to resolve relations, and
+     * fields marked with @index or @unique. A table's key column is its primary key, which the
+     * database indexes itself, so it is skipped.
+     */
+    private Map<String, List<SchemaModel.Index>> collectIndexes(ObjectTypeDefinition queryType,
+                                                                Collection<ObjectTypeDefinition> types,
+                                                                Map<String, SchemaModel.Table> tables) {
+        Map<String, List<SchemaModel.Index>> indexes = new LinkedHashMap<>();
         for (ObjectTypeDefinition type : types) {
-            if (type.getName().equals("Query") || type.getName().equals("Mutation")) continue;
-            String columns = type.getFieldDefinitions().stream()
-                    .map(field -> field.getName() + " " + databaseAdapter.mapGraphQLTypeToSql(field.getType().toString()))
-                    .collect(Collectors.joining(", "));
-            databaseAdapter.createTable(type.getName(), columns);
+            SchemaModel.Table table = tables.get(type.getName());
+            for (FieldDefinition field : type.getFieldDefinitions()) {
+                boolean unique = field.hasDirective(UNIQUE_DIRECTIVE);
+                if ((unique || field.hasDirective(INDEX_DIRECTIVE)) && table.getColumn(field.getName()) != null) {
+                    addIndex(indexes, table, List.of(field.getName()), unique);
+                }
+            }
         }
+        if (queryType != null) {
+            for (FieldDefinition field : queryType.getFieldDefinitions()) {
+                SchemaModel.Table table = tables.get(SchemaModel.getBaseTypeName(field.getType()));
+                if (table == null) continue;
+                List<String> columns = new ArrayList<>();
+                for (InputValueDefinition argument : field.getInputValueDefinitions()) {
+                    String name = argument.getName();
+                    if (PaginationSettings.isPaginationArgument(name) || QueryFilters.WHERE.equals(name)
+                            || QueryFilters.ORDER_BY.equals(name)) continue;
+                    if (table.getColumn(name) != null) columns.add(name);
+                }
+                if (!columns.isEmpty()) addIndex(indexes, table, columns, false);
+            }
+        }
+        for (SchemaModel.Table table : tables.values()) {
+            for (SchemaModel.Relation relation : table.relations()) {
+                SchemaModel.Table target = tables.get(relation.targetTable());
+                switch (relation.kind()) {
+                    case ONE_TO_MANY -> addIndex(indexes, target, List.of(relation.foreignKeyColumn()), false);
+                    case MANY_TO_ONE -> addKeyIndex(indexes, target);
+                    case MANY_TO_MANY -> {
+                        addKeyIndex(indexes, target);
+                        indexes.computeIfAbsent(relation.joinTable(), k -> new ArrayList<>())
+                                .add(new SchemaModel.Index(List.of(SchemaModel.Relation.JOIN_PARENT_COLUMN), false));
+                    }
+                }
+            }
+        }
+        return indexes;
     }
 
+    private void addKeyIndex(Map<String, List<SchemaModel.Index>> indexes, SchemaModel.Table table) {
+        if (table.keyColumn() != null) addIndex(indexes, table, List.of(table.keyColumn()), false);
+    }
 
+    private void addIndex(Map<String, List<SchemaModel.Index>> indexes, SchemaModel.Table table, List<String> columns,
+                          boolean unique) {
+        if (table.keyColumn() != null && columns.equals(List.of(table.keyColumn()))) return;
+        List<SchemaModel.Index> tableIndexes = indexes.computeIfAbsent(table.name(), k -> new ArrayList<>());
+        for (int i = 0; i < tableIndexes.size(); i++) {
+            if (tableIndexes.get(i).columns().equals(columns)) {
+                if (unique) tableIndexes.set(i, new SchemaModel.Index(columns, true));
+                return;
+            }
+        }
+        tableIndexes.add(new SchemaModel.Index(columns, unique));
+    }
+
+    // First single-valued field of the child type pointing back at the parent type
+    private String findBackReference(ObjectTypeDefinition child, String parentType) {
+        for (FieldDefinition field : child.getFieldDefinitions()) {
+            SchemaModel.Column column = SchemaModel.toColumn(field, null);
+            if (!column.list() && column.graphQLType().equals(parentType)) {
+                return field.getName();
+            }
+        }
+        return null;
+    }
+
+    private SchemaModel.Table newJoinTable(String name) {
+        String keyType = databaseAdapter.keyReferenceSqlType();
+        List<SchemaModel.Column> columns = List.of(
+                new SchemaModel.Column(SchemaModel.Relation.JOIN_PARENT_COLUMN, "ID", keyType, true, false),
+                new SchemaModel.Column(SchemaModel.Relation.JOIN_CHILD_COLUMN, "ID", keyType, true, false));
+        return new SchemaModel.Table(name, columns, null);
+    }
 
     // --- Schema Parsing Helpers for Dynamic GraphQL ---
     public List<ObjectTypeDefinition> getObjectTypes(File schemaFile) throws IOException {
-        String schema = Files.readString(schemaFile.toPath());
-        Parser parser = new Parser();
-        Document document = parser.parseDocument(schema);
-        return document.getDefinitionsOfType(ObjectTypeDefinition.class).stream()
-                .filter(type -> !type.getName().equals("Query") && !type.getName().equals("Mutation"))
-                .collect(Collectors.toList());
+        return loadSchemaModel(schemaFile).getObjectTypes();
     }
 
     public ObjectTypeDefinition getQueryType(File schemaFile) throws IOException {
-        String schema = Files.readString(schemaFile.toPath());
-        Parser parser = new Parser();
-        Document document = parser.parseDocument(schema);
-        return document.getDefinitionsOfType(ObjectTypeDefinition.class).stream()
-                .filter(type -> type.getName().equals("Query"))
-                .findFirst().orElse(null);
+        return loadSchemaModel(schemaFile).getQueryType();
     }
 
     public ObjectTypeDefinition getMutationType(File schemaFile) throws IOException {
-        String schema = Files.readString(schemaFile.toPath());
-        Parser parser = new Parser();
-        Document document = parser.parseDocument(schema);
-        return document.getDefinitionsOfType(ObjectTypeDefinition.class).stream()
-                .filter(type -> type.getName().equals("Mutation"))
-                .findFirst().orElse(null);
+        return loadSchemaModel(schemaFile).getMutationType();
     }
 
     // Setter for test injection
     void setDatabaseAdapter(com.dac.graphql.core.adapter.DatabaseAdapter adapter) {
         this.databaseAdapter = adapter;
     }
-} 
\ No newline at end of file
+}
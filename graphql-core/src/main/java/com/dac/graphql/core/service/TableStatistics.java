@@ -0,0 +1,55 @@
+package com.dac.graphql.core.service;
+
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estimated row counts per table, read from the database's statistics and reused for a
+ * configured time, so planning a query does not query the database each time.
+ */
+@Component
+public class TableStatistics {
+
+    private record Estimate(long rows, long readAtNanos) {
+    }
+
+    private final DatabaseAdapter databaseAdapter;
+    private final long refreshNanos;
+    private final Map<String, Estimate> estimates = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TableStatistics(DatabaseAdapter databaseAdapter,
+                           @Value("${graphql.limits.statistics-refresh-seconds:60}") long refreshSeconds) {
+        this.databaseAdapter = databaseAdapter;
+        this.refreshNanos = TimeUnit.SECONDS.toNanos(refreshSeconds);
+    }
+
+    /**
+     * Estimated number of rows in a table.
+     *
+     * @param tableName the table
+     * @return the estimate, or -1 if the database keeps none
+     */
+    public long rowCount(String tableName) {
+        long now = System.nanoTime();
+        Estimate estimate = estimates.get(tableName);
+        if (estimate == null || now - estimate.readAtNanos() >= refreshNanos) {
+            long rows;
+            try {
+                rows = databaseAdapter.estimatedRowCount(tableName);
+            } catch (SQLException e) {
+                rows = -1;
+            }
+            estimate = new Estimate(rows, now);
+            estimates.put(tableName, estimate);
+        }
+        return estimate.rows();
+    }
+}
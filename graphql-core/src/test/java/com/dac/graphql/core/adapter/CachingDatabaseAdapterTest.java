@@ -0,0 +1,159 @@
+package com.dac.graphql.core.adapter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingDatabaseAdapterTest {
+    private static final String SELECT_BOOK = "SELECT id, title FROM Book WHERE id = ?";
+    private static final String SELECT_BOOK_ROW = "SELECT * FROM Book WHERE id = ?";
+
+    private DatabaseAdapter delegate;
+    private SimpleMeterRegistry registry;
+    private CachingDatabaseAdapter adapter;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        delegate = Mockito.mock(DatabaseAdapter.class);
+        when(delegate.primaryKeyColumn("Book")).thenReturn("id");
+        registry = new SimpleMeterRegistry();
+        adapter = new CachingDatabaseAdapter(delegate, 100, 60, 60, registry);
+    }
+
+    @Test
+    void servesRepeatedKeyLookupsFromTheCache() throws SQLException {
+        when(delegate.executeQuerySingle(SELECT_BOOK_ROW, "1")).thenReturn(Map.of("id", "1", "title", "A"));
+        assertEquals(Map.of("id", "1", "title", "A"), adapter.executeQuerySingle(SELECT_BOOK, "1"));
+        assertEquals(Map.of("id", "1", "title", "A"), adapter.executeQuerySingle("SELECT title FROM Book WHERE id = ?", "1"));
+        verify(delegate, times(1)).executeQuerySingle(anyString(), any(Object[].class));
+        assertEquals(1, registry.get("cache.gets").tag("cache", CachingDatabaseAdapter.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void cachesMissingKeys() throws SQLException {
+        when(delegate.executeQueryByKeys("Book", List.of(), "id", List.of("1", "2")))
+                .thenReturn(List.of(Map.of("id", "1", "title", "A")));
+        assertEquals(1, adapter.executeQueryByKeys("Book", List.of("title"), "id", List.of("1", "2")).size());
+        assertEquals(1, adapter.executeQueryByKeys("Book", List.of("title"), "id", List.of("1", "2")).size());
+        assertNull(adapter.executeQuerySingle(SELECT_BOOK, "2"));
+        verify(delegate, times(1)).executeQueryByKeys(anyString(), anyList(), anyString(), anyList());
+        verify(delegate, Mockito.never()).executeQuerySingle(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void leavesOtherLookupsToTheDelegate() throws SQLException {
+        when(delegate.executeQueryByKeys("Book", List.of("title"), "author", List.of("a1")))
+                .thenReturn(List.of(Map.of("title", "A")));
+        adapter.executeQueryByKeys("Book", List.of("title"), "author", List.of("a1"));
+        adapter.executeQueryByKeys("Book", List.of("title"), "author", List.of("a1"));
+        adapter.executeQuerySingle("SELECT id FROM Book WHERE title = ?", "A");
+        adapter.executeQuerySingle("SELECT id FROM Book WHERE title = ?", "A");
+        verify(delegate, times(2)).executeQueryByKeys(anyString(), anyList(), anyString(), anyList());
+        verify(delegate, times(2)).executeQuerySingle(anyString(), any(Object[].class));
+        assertEquals(0, adapter.size());
+    }
+
+    @Test
+    void writesUpdateTheirKeys() throws SQLException {
+        when(delegate.executeQuerySingle(SELECT_BOOK_ROW, "1")).thenReturn(Map.of("id", "1", "title", "A"));
+        when(delegate.executeQuerySingle(SELECT_BOOK_ROW, "2")).thenReturn(Map.of("id", "2", "title", "B"));
+        adapter.executeQuerySingle(SELECT_BOOK, "1");
+        adapter.executeQuerySingle(SELECT_BOOK, "2");
+        adapter.executeQuerySingle(SELECT_BOOK, "3");
+
+        // Update evicts, delete stores the key as missing, insert evicts the missing key
+        when(delegate.executeQuerySingle(SELECT_BOOK_ROW, "1")).thenReturn(Map.of("id", "1", "title", "A2"));
+        adapter.executeUpdate("UPDATE Book SET title = ? WHERE id = ?", "A2", "1");
+        adapter.executeBatch(List.of(new SqlUpdate("DELETE FROM Book WHERE id = ?", "2")));
+        when(delegate.executeQuerySingle(SELECT_BOOK_ROW, "3")).thenReturn(Map.of("id", "3", "title", "C"));
+        adapter.executeUpdate("INSERT INTO Book (id, title) VALUES (?, ?)", "3", "C");
+
+        assertEquals("A2", adapter.executeQuerySingle(SELECT_BOOK, "1").get("title"));
+        assertNull(adapter.executeQuerySingle(SELECT_BOOK, "2"));
+        assertEquals("C", adapter.executeQuerySingle(SELECT_BOOK, "3").get("title"));
+        verify(delegate, times(2)).executeQuerySingle(SELECT_BOOK_ROW, "1");
+        verify(delegate, times(1)).executeQuerySingle(SELECT_BOOK_ROW, "2");
+    }
+
+    @Test
+    void statementsWithoutKeysDropTheTable() throws SQLException {
+        when(delegate.executeQuerySingle(SELECT_BOOK_ROW, "1")).thenReturn(Map.of("id", "1", "author", "a1"));
+        adapter.executeQuerySingle(SELECT_BOOK, "1");
+        adapter.executeUpdate("UPDATE Book SET author = ? WHERE id IN (?, ?)", "a2", "1", "2");
+        assertEquals(0, adapter.size());
+        adapter.executeQuerySingle(SELECT_BOOK, "1");
+        adapter.executeUpdate("UPDATE Book SET id = ? WHERE id = ?", "9", "1");
+        assertEquals(0, adapter.size());
+    }
+
+    @Test
+    void failedWritesStillEvict() throws SQLException {
+        when(delegate.executeQuerySingle(SELECT_BOOK_ROW, "1")).thenReturn(Map.of("id", "1", "title", "A"));
+        when(delegate.executeUpdate(anyString(), any(Object[].class))).thenThrow(new SQLException("busy"));
+        adapter.executeQuerySingle(SELECT_BOOK, "1");
+        assertThrows(SQLException.class, () -> adapter.executeUpdate("UPDATE Book SET title = ? WHERE id = ?", "B", "1"));
+        assertEquals(0, adapter.size());
+    }
+
+    @Test
+    void failedDeletesDoNotStoreTheKeyAsMissing() throws SQLException {
+        when(delegate.executeQuerySingle(SELECT_BOOK_ROW, "1")).thenReturn(Map.of("id", "1", "title", "A"));
+        when(delegate.executeQueryByKeys("Book", List.of(), "id", List.of("1")))
+                .thenReturn(List.of(Map.of("id", "1", "title", "A")));
+        when(delegate.executeUpdate(anyString(), any(Object[].class))).thenThrow(new SQLException("busy"));
+        when(delegate.executeBatch(anyList())).thenThrow(new SQLException("busy"));
+        adapter.executeQuerySingle(SELECT_BOOK, "1");
+
+        assertThrows(SQLException.class, () -> adapter.executeUpdate("DELETE FROM Book WHERE id = ?", "1"));
+        assertEquals("A", adapter.executeQuerySingle(SELECT_BOOK, "1").get("title"));
+        assertThrows(SQLException.class,
+                () -> adapter.executeBatch(List.of(new SqlUpdate("DELETE FROM Book WHERE id = ?", "1"))));
+        assertEquals(1, adapter.executeQueryByKeys("Book", List.of("title"), "id", List.of("1")).size());
+        verify(delegate, times(2)).executeQuerySingle(SELECT_BOOK_ROW, "1");
+        verify(delegate, times(1)).executeQueryByKeys("Book", List.of(), "id", List.of("1"));
+    }
+
+    @Test
+    void bulkInsertsEvictTheirKeys() throws SQLException {
+        adapter.executeQuerySingle(SELECT_BOOK, "1");
+        adapter.executeQuerySingle(SELECT_BOOK, "2");
+        when(delegate.bulkInsert(eq("Book"), eq(List.of("id", "title")), any())).thenAnswer(inv -> {
+            Iterator<Object[]> rows = inv.getArgument(2);
+            List<Object[]> inserted = new ArrayList<>();
+            rows.forEachRemaining(inserted::add);
+            return (long) inserted.size();
+        });
+        adapter.bulkInsert("Book", List.of("id", "title"), List.<Object[]>of(new Object[]{"1", "A"}).iterator());
+        assertEquals(1, adapter.size());
+    }
+
+    @Test
+    void readsOverlappingAWriteAreNotStored() throws SQLException {
+        when(delegate.executeQuerySingle(SELECT_BOOK_ROW, "1")).thenAnswer(inv -> {
+            // Committed while the old row is being read
+            adapter.executeUpdate("UPDATE Book SET title = ? WHERE id = ?", "B", "1");
+            return Map.of("id", "1", "title", "A");
+        });
+        adapter.executeQuerySingle(SELECT_BOOK, "1");
+        assertEquals(0, adapter.size());
+    }
+}
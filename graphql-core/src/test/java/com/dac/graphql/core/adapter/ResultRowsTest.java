@@ -0,0 +1,115 @@
+package com.dac.graphql.core.adapter;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+class ResultRowsTest {
+
+    // A result set over the given rows, with column classes as a driver would report them
+    private static ResultSet resultSet(List<String> names, List<String> classNames, List<Object[]> rows) throws SQLException {
+        ResultSetMetaData meta = Mockito.mock(ResultSetMetaData.class);
+        when(meta.getColumnCount()).thenReturn(names.size());
+        when(meta.getColumnName(anyInt())).thenAnswer(inv -> names.get((int) inv.getArgument(0) - 1));
+        when(meta.getColumnClassName(anyInt())).thenAnswer(inv -> classNames.get((int) inv.getArgument(0) - 1));
+        ResultSet rs = Mockito.mock(ResultSet.class);
+        when(rs.getMetaData()).thenReturn(meta);
+        Iterator<Object[]> iterator = rows.iterator();
+        Object[][] current = new Object[1][];
+        when(rs.next()).thenAnswer(inv -> {
+            if (!iterator.hasNext()) return false;
+            current[0] = iterator.next();
+            return true;
+        });
+        when(rs.getObject(anyInt())).thenAnswer(inv -> current[0][(int) inv.getArgument(0) - 1]);
+        return rs;
+    }
+
+    @Test
+    void copiedRowsKeepTheirValuesAndColumns() throws SQLException {
+        ResultRows rows = ResultRows.read(resultSet(List.of("id", "name"), List.of("java.lang.Integer", "java.lang.String"),
+                List.of(new Object[]{1, "a"}, new Object[]{2, null})));
+        ResultRows.Row copy = ResultRows.copyOf(rows.get(1));
+        assertEquals(rows.get(1), copy);
+        assertSame(rows.columns(), copy.columns());
+        assertEquals(2, copy.getIgnoreCase("ID"));
+    }
+
+    @Test
+    void rowsReadLikeMaps() throws SQLException {
+        List<Object[]> data = new java.util.ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            data.add(new Object[]{i, i % 3 == 0 ? null : i * 1.5, i % 2 == 0, "n" + i, (long) i << 40});
+        }
+        ResultRows rows = ResultRows.read(resultSet(List.of("id", "score", "active", "name", "big"),
+                List.of("java.lang.Integer", "java.lang.Double", "java.lang.Boolean", "java.lang.String", "java.lang.Long"), data));
+        assertEquals(100, rows.size());
+        Map<String, Object> row = rows.get(7);
+        assertEquals(7, row.get("id"));
+        assertEquals(10.5, row.get("score"));
+        assertEquals(false, row.get("active"));
+        assertEquals("n7", row.get("name"));
+        assertEquals(7L << 40, row.get("big"));
+        assertNull(rows.get(9).get("score"));
+        assertTrue(rows.get(9).containsKey("score"));
+        assertNull(row.get("missing"));
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("id", 9);
+        expected.put("score", null);
+        expected.put("active", false);
+        expected.put("name", "n9");
+        expected.put("big", 9L << 40);
+        assertEquals(expected, rows.get(9));
+        assertSame(rows.columns(), rows.get(0).columns());
+        assertThrows(UnsupportedOperationException.class, () -> row.put("id", 1));
+    }
+
+    @Test
+    void integersOutsideTheIntRangeReadAsLong() throws SQLException {
+        ResultRows rows = ResultRows.read(resultSet(List.of("n"), List.of("java.lang.Integer"),
+                List.of(new Object[]{1}, new Object[]{1L << 33})));
+        assertEquals(1, rows.get(0).get("n"));
+        assertEquals(1L << 33, rows.get(1).get("n"));
+    }
+
+    @Test
+    void valuesOfAnotherClassFallBackToObjects() throws SQLException {
+        // SQLite columns may hold values of any type regardless of their declaration
+        ResultRows rows = ResultRows.read(resultSet(List.of("n"), List.of("java.lang.Integer"),
+                Arrays.asList(new Object[]{1}, new Object[]{null}, new Object[]{"x"}, new Object[]{2})));
+        assertEquals(Arrays.asList(1, null, "x", 2), rows.stream().map(row -> row.get("n")).toList());
+    }
+
+    @Test
+    void repeatedColumnNamesKeepTheLastColumn() throws SQLException {
+        ResultRows rows = ResultRows.read(resultSet(List.of("id", "id", "name"), Arrays.asList(null, null, null),
+                List.<Object[]>of(new Object[]{"a", "b", "c"})));
+        assertEquals(Map.of("id", "b", "name", "c"), rows.get(0));
+    }
+
+    @Test
+    void columnsResolveIgnoringCase() throws SQLException {
+        ResultRows rows = ResultRows.read(resultSet(List.of("ID"), List.of("java.lang.String"),
+                List.<Object[]>of(new Object[]{"b1"})));
+        assertEquals(-1, rows.columns().indexOf("id"));
+        assertEquals("b1", rows.get(0).getIgnoreCase("id"));
+        assertFalse(rows.isEmpty());
+    }
+}
@@ -0,0 +1,18 @@
+package com.dac.graphql.core.adapter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SqlStatementsTest {
+
+    @Test
+    void readsTableAndOperationFromSql() {
+        assertEquals("delete", SqlStatements.operation("  DELETE FROM Book WHERE id = ?"));
+        assertEquals("other", SqlStatements.operation("-- comment"));
+        assertEquals("Book", SqlStatements.table("DELETE FROM Book WHERE id = ?"));
+        assertEquals("Author_tags", SqlStatements.table("INSERT INTO Author_tags (parent_key, child_key) VALUES (?, ?)"));
+        assertEquals("Book", SqlStatements.table("CREATE INDEX IF NOT EXISTS idx_Book_title ON Book (title)"));
+        assertEquals("unknown", SqlStatements.table("SELECT 1"));
+    }
+}
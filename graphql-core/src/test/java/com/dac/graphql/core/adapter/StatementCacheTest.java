@@ -0,0 +1,86 @@
+package com.dac.graphql.core.adapter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatementCacheTest {
+    private Connection physical;
+    private Connection proxy;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        physical = Mockito.mock(Connection.class);
+        proxy = Mockito.mock(Connection.class);
+        when(proxy.unwrap(Connection.class)).thenReturn(physical);
+        when(physical.prepareStatement(anyString())).thenAnswer(inv -> Mockito.mock(PreparedStatement.class));
+    }
+
+    @Test
+    void reusesStatementsOfThePhysicalConnection() throws SQLException {
+        StatementCache cache = new StatementCache(() -> 2);
+        PreparedStatement first;
+        try (StatementCache.Lease lease = cache.prepare(proxy, "SELECT 1")) {
+            first = lease.statement();
+        }
+        try (StatementCache.Lease lease = cache.prepare(proxy, "SELECT 1")) {
+            assertSame(first, lease.statement());
+        }
+        verify(physical, times(1)).prepareStatement("SELECT 1");
+        verify(proxy, Mockito.never()).prepareStatement(anyString());
+        verify(first, Mockito.never()).close();
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void neverLendsTheSameStatementTwice() throws SQLException {
+        StatementCache cache = new StatementCache(() -> 2);
+        try (StatementCache.Lease outer = cache.prepare(proxy, "SELECT 1");
+             StatementCache.Lease inner = cache.prepare(proxy, "SELECT 1")) {
+            assertNotSame(outer.statement(), inner.statement());
+        }
+    }
+
+    @Test
+    void evictsAndClosesLeastRecentlyUsed() throws SQLException {
+        StatementCache cache = new StatementCache(() -> 2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry, "test");
+        PreparedStatement oldest;
+        try (StatementCache.Lease lease = cache.prepare(proxy, "SELECT 1")) {
+            oldest = lease.statement();
+        }
+        cache.prepare(proxy, "SELECT 2").close();
+        cache.prepare(proxy, "SELECT 3").close();
+        verify(oldest).close();
+        cache.prepare(proxy, "SELECT 3").close();
+        assertEquals(1, registry.get("jdbc.statement.cache.evictions").functionCounter().count());
+        assertEquals(0.25, registry.get("jdbc.statement.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void closesStatementsWhenDisabled() throws SQLException {
+        StatementCache cache = new StatementCache(() -> 0);
+        PreparedStatement statement;
+        try (StatementCache.Lease lease = cache.prepare(proxy, "SELECT 1")) {
+            statement = lease.statement();
+        }
+        verify(statement).close();
+        cache.prepare(proxy, "SELECT 1").close();
+        verify(physical, times(2)).prepareStatement("SELECT 1");
+    }
+}
@@ -0,0 +1,57 @@
+package com.dac.graphql.core.adapter;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+class TimedDatabaseAdapterTest {
+    private DatabaseAdapter delegate;
+    private SimpleMeterRegistry registry;
+    private TimedDatabaseAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        delegate = Mockito.mock(DatabaseAdapter.class);
+        when(delegate.getDatabaseType()).thenReturn("sqlite");
+        registry = new SimpleMeterRegistry();
+        adapter = new TimedDatabaseAdapter(delegate, registry);
+    }
+
+    private Timer timer(String table, String operation, String status) {
+        return registry.find(TimedDatabaseAdapter.METRIC)
+                .tags("adapter", "sqlite", "table", table, "operation", operation, "status", status).timer();
+    }
+
+    @Test
+    void timesStatementsByTableAndOperation() throws SQLException {
+        List<Map<String, Object>> rows = List.of(Map.of("id", 1));
+        when(delegate.executeQuery("SELECT id FROM Book ORDER BY id LIMIT 100")).thenReturn(rows);
+        assertSame(rows, adapter.executeQuery("SELECT id FROM Book ORDER BY id LIMIT 100"));
+        adapter.executeQuery("SELECT id FROM Book ORDER BY id LIMIT 100");
+        adapter.executeUpdate("UPDATE Book SET title = ? WHERE id = ?", "A", 1);
+        adapter.executeQueryByKeys("Author", List.of("id"), "id", List.of(1));
+        assertEquals(2, timer("Book", "select", "success").count());
+        assertEquals(1, timer("Book", "update", "success").count());
+        assertEquals(1, timer("Author", "select", "success").count());
+    }
+
+    @Test
+    void countsFailedStatementsSeparately() throws SQLException {
+        when(delegate.executeUpdate(anyString(), Mockito.<Object[]>any())).thenThrow(new SQLException("constraint"));
+        assertThrows(SQLException.class, () -> adapter.executeUpdate("INSERT INTO Book (id) VALUES (?)", 1));
+        assertEquals(1, timer("Book", "insert", "error").count());
+        assertEquals(0, timer("Book", "insert", "success").count());
+    }
+}
@@ -0,0 +1,148 @@
+package com.dac.graphql.core.cache;
+
+import com.dac.graphql.core.adapter.CachingDatabaseAdapter;
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.service.SchemaRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheCoherenceTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String SELECT_BOOK = "SELECT * FROM Book WHERE id = ?";
+
+    private DatabaseAdapter database;
+    private CachingDatabaseAdapter entities;
+    private ResultCache resultCache;
+    private SchemaRegistry schemaRegistry;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = Mockito.mock(DatabaseAdapter.class);
+        when(database.primaryKeyColumn("Book")).thenReturn("id");
+        when(database.subscribe(anyString(), any())).thenReturn(true);
+        entities = new CachingDatabaseAdapter(database, 100, 60, 60, null);
+        resultCache = new ResultCache(true, 1, 60, null);
+        schemaRegistry = Mockito.mock(SchemaRegistry.class);
+    }
+
+    private CacheCoherence coherence(boolean enabled) {
+        CacheCoherence coherence = new CacheCoherence(entities, resultCache, schemaRegistry, enabled, "graphql_changes");
+        coherence.start();
+        return coherence;
+    }
+
+    private String published() throws SQLException {
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(database).publish(eq("graphql_changes"), payload.capture());
+        return payload.getValue();
+    }
+
+    private ResultCache.Key cacheResponse() {
+        ResultCache.Key key = resultCache.key("books", 1, null, "{ books { id } }", Map.of());
+        resultCache.put(key, resultCache.plan(List.of("Book"), 60), Map.of("data", Map.of()));
+        return key;
+    }
+
+    @Test
+    void publishesWrittenKeys() throws Exception {
+        coherence(true).written("Book", List.of(1, 2));
+        verify(database).subscribe(eq("graphql_changes"), any());
+        Map<?, ?> event = MAPPER.readValue(published(), Map.class);
+        assertEquals("table", event.get("type"));
+        assertEquals("Book", event.get("table"));
+        assertEquals(List.of("1", "2"), event.get("keys"));
+    }
+
+    @Test
+    void publishesTheTableWhenKeysDoNotFit() throws Exception {
+        coherence(true).written("Book", Collections.nCopies(2000, "0123456789"));
+        String payload = published();
+        assertTrue(payload.length() < CacheCoherence.MAX_PAYLOAD_BYTES);
+        assertFalse(MAPPER.readValue(payload, Map.class).containsKey("keys"));
+    }
+
+    @Test
+    void invalidatesLocallyWithoutPublishingWhenDisabled() throws SQLException {
+        ResultCache.Key key = cacheResponse();
+        coherence(false).written("Book", null);
+        assertNull(resultCache.get(key));
+        verify(database, never()).subscribe(anyString(), any());
+        verify(database, never()).publish(anyString(), anyString());
+    }
+
+    @Test
+    void ignoresItsOwnEvents() throws SQLException {
+        CacheCoherence coherence = coherence(true);
+        coherence.written("Book", List.of(1));
+        ResultCache.Key key = cacheResponse();
+        coherence.changed(published());
+        assertNotNull(resultCache.get(key));
+    }
+
+    @Test
+    void appliesTableEventsFromOtherNodes() throws SQLException {
+        when(database.executeQuerySingle(SELECT_BOOK, "1")).thenReturn(Map.of("id", 1, "title", "A"));
+        when(database.executeQuerySingle(SELECT_BOOK, "2")).thenReturn(Map.of("id", 2, "title", "B"));
+        entities.executeQuerySingle(SELECT_BOOK, "1");
+        entities.executeQuerySingle(SELECT_BOOK, "2");
+        ResultCache.Key key = cacheResponse();
+
+        coherence(true).changed("{\"node\":\"other\",\"type\":\"table\",\"table\":\"Book\",\"keys\":[\"1\"]}");
+        assertNull(resultCache.get(key));
+        entities.executeQuerySingle(SELECT_BOOK, "1");
+        entities.executeQuerySingle(SELECT_BOOK, "2");
+        verify(database, times(2)).executeQuerySingle(SELECT_BOOK, "1");
+        verify(database, times(1)).executeQuerySingle(SELECT_BOOK, "2");
+    }
+
+    @Test
+    void reloadsSpecsUploadedOnOtherNodes() {
+        CacheCoherence coherence = coherence(true);
+        coherence.changed("{\"node\":\"other\",\"type\":\"schema\",\"spec\":\"books\",\"version\":3}");
+        verify(schemaRegistry).reloadSchemaFile("books");
+        coherence.changed("not json");
+        verify(schemaRegistry, times(1)).reloadSchemaFile(anyString());
+    }
+
+    @Test
+    void dropsEverythingWhenEventsWereMissed() throws SQLException {
+        when(database.executeQuerySingle(SELECT_BOOK, "1")).thenReturn(Map.of("id", 1, "title", "A"));
+        entities.executeQuerySingle(SELECT_BOOK, "1");
+        ResultCache.Key key = cacheResponse();
+
+        coherence(true).resynchronize();
+        assertNull(resultCache.get(key));
+        assertEquals(0, entities.size());
+        verify(schemaRegistry).reloadAll();
+    }
+
+    @Test
+    void publishFailuresDoNotFailTheWrite() throws SQLException {
+        doThrow(new SQLException("down")).when(database).publish(anyString(), anyString());
+        ResultCache.Key key = cacheResponse();
+        coherence(true).written("Book", null);
+        assertNull(resultCache.get(key));
+    }
+}
@@ -0,0 +1,84 @@
+package com.dac.graphql.core.cache;
+
+import graphql.GraphQL;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledSchemaCacheTest {
+    private final File schemaFile = new File("src/test/resources/schema.graphql");
+
+    private static GraphQL newGraphQL() {
+        return GraphQL.newGraphQL(new SchemaGenerator().makeExecutableSchema(
+                new SchemaParser().parse("type Query { hello: String }"),
+                RuntimeWiring.newRuntimeWiring().build())).build();
+    }
+
+    @Test
+    void compilesOncePerVersion() throws Exception {
+        CompiledSchemaCache cache = new CompiledSchemaCache();
+        AtomicInteger compiles = new AtomicInteger();
+        CompiledSchemaCache.Compiler compiler = f -> {
+            compiles.incrementAndGet();
+            return newGraphQL();
+        };
+        GraphQL first = cache.get("spec", schemaFile, 1, compiler);
+        assertSame(first, cache.get("spec", schemaFile, 1, compiler));
+        assertEquals(1, compiles.get());
+
+        GraphQL second = cache.get("spec", schemaFile, 2, compiler);
+        assertNotSame(first, second);
+        assertEquals(2, compiles.get());
+        // A request that read an older version keeps using the newer instance
+        assertSame(second, cache.get("spec", schemaFile, 1, compiler));
+    }
+
+    @Test
+    void concurrentRequestsShareOneCompilation() throws Exception {
+        CompiledSchemaCache cache = new CompiledSchemaCache();
+        AtomicInteger compiles = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CompiledSchemaCache.Compiler compiler = f -> {
+            compiles.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return newGraphQL();
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<GraphQL>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> cache.get("spec", schemaFile, 1, compiler)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            GraphQL expected = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<GraphQL> result : results) {
+                assertSame(expected, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, compiles.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedCompilationIsRetried() throws Exception {
+        CompiledSchemaCache cache = new CompiledSchemaCache();
+        assertThrows(IllegalStateException.class,
+                () -> cache.get("spec", schemaFile, 1, f -> { throw new IllegalStateException("boom"); }));
+        assertNotNull(cache.get("spec", schemaFile, 1, f -> newGraphQL()));
+    }
+}
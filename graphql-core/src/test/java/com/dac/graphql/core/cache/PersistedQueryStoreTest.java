@@ -0,0 +1,45 @@
+package com.dac.graphql.core.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistedQueryStoreTest {
+    private static final String QUERY = "{ books { id } }";
+    private static final String HASH = PersistedQueryStore.sha256(QUERY);
+
+    @Test
+    void sha256IsLowercaseHex() {
+        assertEquals(64, HASH.length());
+        assertTrue(HASH.matches("[0-9a-f]+"));
+    }
+
+    @Test
+    void automaticRegistrationIsPerSpec() {
+        PersistedQueryStore store = new PersistedQueryStore(10, false);
+        assertNull(store.get("spec", HASH));
+        assertTrue(store.registerAutomatic("spec", HASH, QUERY));
+        assertEquals(QUERY, store.get("spec", HASH));
+        assertEquals(QUERY, store.get("spec", HASH.toUpperCase()));
+        assertNull(store.get("other", HASH));
+    }
+
+    @Test
+    void rejectsMismatchedHash() {
+        PersistedQueryStore store = new PersistedQueryStore(10, false);
+        assertFalse(store.registerAutomatic("spec", HASH, "{ other }"));
+        assertFalse(store.register("spec", HASH, "{ other }"));
+        assertFalse(store.register("spec", null, QUERY));
+        assertNull(store.get("spec", HASH));
+    }
+
+    @Test
+    void allowListOnlyServesExplicitRegistrations() {
+        PersistedQueryStore store = new PersistedQueryStore(10, true);
+        assertTrue(store.isAllowListEnabled());
+        assertTrue(store.registerAutomatic("spec", HASH, QUERY));
+        assertNull(store.get("spec", HASH));
+        assertTrue(store.register("spec", HASH, QUERY));
+        assertEquals(QUERY, store.get("spec", HASH));
+    }
+}
@@ -0,0 +1,63 @@
+package com.dac.graphql.core.cache;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.parser.Parser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreparsedDocumentCacheTest {
+    private final AtomicInteger parses = new AtomicInteger();
+    private final Function<ExecutionInput, PreparsedDocumentEntry> parser = input -> {
+        parses.incrementAndGet();
+        return new PreparsedDocumentEntry(new Parser().parseDocument(input.getQuery()));
+    };
+
+    private static ExecutionInput input(String query) {
+        return ExecutionInput.newExecutionInput().query(query).build();
+    }
+
+    @Test
+    void parsesEachQueryOncePerSchemaVersion() {
+        PreparsedDocumentCache cache = new PreparsedDocumentCache(10, null);
+        PreparsedDocumentProvider v1 = cache.forSchema("spec", 1);
+        PreparsedDocumentEntry first = v1.getDocumentAsync(input("{ books { id } }"), parser).join();
+        assertSame(first, v1.getDocumentAsync(input("{ books { id } }"), parser).join());
+        assertEquals(1, parses.get());
+
+        cache.forSchema("spec", 2).getDocumentAsync(input("{ books { id } }"), parser).join();
+        cache.forSchema("other", 1).getDocumentAsync(input("{ books { id } }"), parser).join();
+        assertEquals(3, parses.get());
+    }
+
+    @Test
+    void invalidatesOlderVersionsOfOneSpec() {
+        PreparsedDocumentCache cache = new PreparsedDocumentCache(10, null);
+        cache.forSchema("spec", 1).getDocumentAsync(input("{ a }"), parser).join();
+        cache.forSchema("spec", 2).getDocumentAsync(input("{ b }"), parser).join();
+        cache.forSchema("other", 1).getDocumentAsync(input("{ c }"), parser).join();
+        cache.invalidateBefore("spec", 2);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void recordsHitMissAndEvictionMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PreparsedDocumentCache cache = new PreparsedDocumentCache(1, registry);
+        PreparsedDocumentProvider provider = cache.forSchema("spec", 1);
+        provider.getDocumentAsync(input("{ a }"), parser).join();
+        provider.getDocumentAsync(input("{ a }"), parser).join();
+        provider.getDocumentAsync(input("{ b }"), parser).join();
+        cache.size();
+        String name = PreparsedDocumentCache.CACHE_NAME;
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", name, "result", "hit").functionCounter().count());
+        assertEquals(2.0, registry.get("cache.gets").tags("cache", name, "result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.evictions").tags("cache", name).functionCounter().count());
+    }
+}
@@ -0,0 +1,70 @@
+package com.dac.graphql.core.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+    private static final Map<String, Object> RESPONSE = Map.of("data", Map.of("books", List.of()));
+
+    @Test
+    void normalizeDropsIgnoredTokensButKeepsStrings() {
+        assertEquals("{books(first:10){id title}}",
+                ResultCache.normalize("{\n  books(first: 10) {\n    id, # the key\n    title\n  }\n}"));
+        assertEquals("query Q($id:ID!){book(id:$id){id}}", ResultCache.normalize("query Q($id: ID!) { book(id: $id) { id } }"));
+        assertEquals("{books(title:\"a,  b\"){id}}", ResultCache.normalize("{ books(title: \"a,  b\") { id } }"));
+    }
+
+    @Test
+    void writesInvalidateResponsesThatReadTheTable() {
+        ResultCache cache = new ResultCache(true, 1, 60, null);
+        ResultCache.Key books = cache.key("spec", 1, null, "{ books { id } }", null);
+        ResultCache.Key authors = cache.key("spec", 1, null, "{ authors { id } }", null);
+        cache.put(books, cache.plan(List.of("Book"), 60), RESPONSE);
+        cache.put(authors, cache.plan(List.of("Author"), 60), RESPONSE);
+        assertEquals("{\"data\":{\"books\":[]}}", new String(cache.get(books), StandardCharsets.UTF_8));
+        cache.invalidate(List.of("BOOK"));
+        assertNull(cache.get(books));
+        assertNotNull(cache.get(authors));
+    }
+
+    @Test
+    void doesNotStoreResponsesReadBeforeAWrite() {
+        ResultCache cache = new ResultCache(true, 1, 60, null);
+        ResultCache.Key key = cache.key("spec", 1, null, "{ books { id } }", null);
+        ResultCache.Plan plan = cache.plan(List.of("Book"), 60);
+        cache.invalidate(List.of("Book"));
+        cache.put(key, plan, RESPONSE);
+        assertNull(cache.get(key));
+        cache.put(key, cache.plan(List.of("Book"), 0), RESPONSE);
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    void keysIncludeVersionAndVariables() {
+        ResultCache cache = new ResultCache(true, 1, 60, null);
+        ResultCache.Key key = cache.key("spec", 1, null, "query($id: ID) { book(id: $id) { id } }", Map.of("id", 1));
+        cache.put(key, cache.plan(List.of("Book"), 60), RESPONSE);
+        assertNotNull(cache.get(cache.key("spec", 1, null, "query($id: ID) { book(id: $id) { id } }", Map.of("id", 1))));
+        assertNull(cache.get(cache.key("spec", 1, null, "query($id: ID) { book(id: $id) { id } }", Map.of("id", 2))));
+        assertNull(cache.get(cache.key("spec", 2, null, "query($id: ID) { book(id: $id) { id } }", Map.of("id", 1))));
+    }
+
+    @Test
+    void exportsHitRatioAndSize() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ResultCache cache = new ResultCache(true, 1, 60, registry);
+        ResultCache.Key key = cache.key("spec", 1, null, "{ books { id } }", null);
+        cache.get(key);
+        cache.put(key, cache.plan(List.of("Book"), 60), RESPONSE);
+        cache.get(key);
+        assertEquals(1, registry.get("cache.gets").tag("cache", ResultCache.CACHE_NAME).tag("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tag("cache", ResultCache.CACHE_NAME).tag("result", "miss").functionCounter().count());
+        assertTrue(registry.get("cache.weight.bytes").gauge().value() > 0);
+    }
+}
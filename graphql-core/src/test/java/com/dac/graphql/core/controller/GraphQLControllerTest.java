@@ -1,36 +1,62 @@
 package com.dac.graphql.core.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.cache.PersistedQueryStore;
+import com.dac.graphql.core.cache.PreparsedDocumentCache;
+import com.dac.graphql.core.cache.CacheCoherence;
+import com.dac.graphql.core.cache.ResultCache;
+import com.dac.graphql.core.service.AdmissionController;
+import com.dac.graphql.core.service.FetcherExecutor;
+import com.dac.graphql.core.service.GroupCommitScheduler;
+import com.dac.graphql.core.service.IndexAdvisor;
+import com.dac.graphql.core.service.PaginationSettings;
+import com.dac.graphql.core.service.QueryLimits;
+import com.dac.graphql.core.service.QueryLog;
+import com.dac.graphql.core.service.RowDataLoaderFactory;
+import com.dac.graphql.core.service.SchemaModel;
 import com.dac.graphql.core.service.SchemaRegistry;
 import com.dac.graphql.core.service.SchemaService;
-
-import graphql.language.FieldDefinition;
-import graphql.language.ListType;
-import graphql.language.ObjectTypeDefinition;
-import graphql.language.TypeName;
+import com.dac.graphql.core.service.TableStatistics;
 
 class GraphQLControllerTest {
     @Mock
@@ -42,9 +68,14 @@ class GraphQLControllerTest {
     @InjectMocks
     private GraphQLController controller;
 
+    private final PreparsedDocumentCache documentCache = new PreparsedDocumentCache(100, null);
+    private IndexAdvisor indexAdvisor;
+    private final QueryLog queryLog = new QueryLog();
+
     @BeforeEach
     void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
+        indexAdvisor = new IndexAdvisor(databaseAdapter);
         // Inject mocks for schemaService and databaseAdapter
         Field schemaServiceField = GraphQLController.class.getDeclaredField("schemaService");
         schemaServiceField.setAccessible(true);
@@ -52,6 +83,77 @@ class GraphQLControllerTest {
         Field databaseAdapterField = GraphQLController.class.getDeclaredField("databaseAdapter");
         databaseAdapterField.setAccessible(true);
         databaseAdapterField.set(controller, databaseAdapter);
+        Field documentCacheField = GraphQLController.class.getDeclaredField("documentCache");
+        documentCacheField.setAccessible(true);
+        documentCacheField.set(controller, documentCache);
+        setPersistedQueryStore(new PersistedQueryStore(100, false));
+        Field rowDataLoaderFactoryField = GraphQLController.class.getDeclaredField("rowDataLoaderFactory");
+        rowDataLoaderFactoryField.setAccessible(true);
+        rowDataLoaderFactoryField.set(controller, new RowDataLoaderFactory(databaseAdapter, 100, true));
+        Field paginationSettingsField = GraphQLController.class.getDeclaredField("paginationSettings");
+        paginationSettingsField.setAccessible(true);
+        paginationSettingsField.set(controller, new PaginationSettings(100, Map.of()));
+        Field groupCommitSchedulerField = GraphQLController.class.getDeclaredField("groupCommitScheduler");
+        groupCommitSchedulerField.setAccessible(true);
+        groupCommitSchedulerField.set(controller, new GroupCommitScheduler(databaseAdapter, false, 5, 100));
+        Field indexAdvisorField = GraphQLController.class.getDeclaredField("indexAdvisor");
+        indexAdvisorField.setAccessible(true);
+        indexAdvisorField.set(controller, indexAdvisor);
+        Field queryLogField = GraphQLController.class.getDeclaredField("queryLog");
+        queryLogField.setAccessible(true);
+        queryLogField.set(controller, queryLog);
+        setFetcherExecutor(new FetcherExecutor(false));
+        setQueryLimits(new QueryLimits(0, 0, 0, Map.of(), Map.of(), Map.of()), new AdmissionController(0, 100, null));
+        Field tableStatisticsField = GraphQLController.class.getDeclaredField("tableStatistics");
+        tableStatisticsField.setAccessible(true);
+        tableStatisticsField.set(controller, new TableStatistics(databaseAdapter, 60));
+        setResultCache(new ResultCache(false, 64, 60, null));
+        when(schemaService.loadSchemaModel(any())).thenAnswer(inv -> loadModel(inv.getArgument(0)));
+    }
+
+    private void setQueryLimits(QueryLimits queryLimits, AdmissionController admissionController) throws Exception {
+        Field queryLimitsField = GraphQLController.class.getDeclaredField("queryLimits");
+        queryLimitsField.setAccessible(true);
+        queryLimitsField.set(controller, queryLimits);
+        Field admissionControllerField = GraphQLController.class.getDeclaredField("admissionController");
+        admissionControllerField.setAccessible(true);
+        admissionControllerField.set(controller, admissionController);
+    }
+
+    private void setResultCache(ResultCache resultCache) throws Exception {
+        Field resultCacheField = GraphQLController.class.getDeclaredField("resultCache");
+        resultCacheField.setAccessible(true);
+        resultCacheField.set(controller, resultCache);
+        Field cacheCoherenceField = GraphQLController.class.getDeclaredField("cacheCoherence");
+        cacheCoherenceField.setAccessible(true);
+        cacheCoherenceField.set(controller, new CacheCoherence(databaseAdapter, resultCache, null, false, "graphql_changes"));
+    }
+
+    private void setFetcherExecutor(FetcherExecutor fetcherExecutor) throws Exception {
+        Field fetcherExecutorField = GraphQLController.class.getDeclaredField("fetcherExecutor");
+        fetcherExecutorField.setAccessible(true);
+        fetcherExecutorField.set(controller, fetcherExecutor);
+    }
+
+    private void setPersistedQueryStore(PersistedQueryStore store) throws Exception {
+        Field persistedQueryStoreField = GraphQLController.class.getDeclaredField("persistedQueryStore");
+        persistedQueryStoreField.setAccessible(true);
+        persistedQueryStoreField.set(controller, store);
+    }
+
+    private static Map<String, Object> persistedQueryRequest(String hash, String query) {
+        Map<String, Object> req = new HashMap<>();
+        if (query != null) req.put("query", query);
+        req.put("extensions", Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)));
+        return req;
+    }
+
+    private SchemaModel loadModel(File schemaFile) throws Exception {
+        SchemaService realService = new SchemaService();
+        Field adapterField = SchemaService.class.getDeclaredField("databaseAdapter");
+        adapterField.setAccessible(true);
+        adapterField.set(realService, databaseAdapter);
+        return realService.loadSchemaModel(schemaFile);
     }
 
     @Test
@@ -101,14 +203,7 @@ class GraphQLControllerTest {
         when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
         File schemaFile = new File("src/test/resources/schema.graphql");
         when(schemaRegistry.getSchemaFile("testspec")).thenReturn(schemaFile);
-        ObjectTypeDefinition queryType = Mockito.mock(ObjectTypeDefinition.class);
-        FieldDefinition fieldDef = Mockito.mock(FieldDefinition.class);
-        when(fieldDef.getName()).thenReturn("books");
-        when(fieldDef.getType()).thenReturn(new ListType(new TypeName("Book")));
-        when(queryType.getFieldDefinitions()).thenReturn(List.of(fieldDef));
-        when(schemaService.getQueryType(schemaFile)).thenReturn(queryType);
-        when(schemaService.getMutationType(schemaFile)).thenReturn(null);
-        when(databaseAdapter.executeQuery(anyString())).thenReturn(List.of(Collections.singletonMap("id", 1)));
+        when(databaseAdapter.executeQuery(anyString(), any(Object[].class))).thenReturn(List.of(Collections.singletonMap("id", 1)));
         Map<String, Object> req = new HashMap<>();
         req.put("query", "{ books { id } }");
         ResponseEntity<?> resp = controller.execute("testspec", req);
@@ -121,15 +216,6 @@ class GraphQLControllerTest {
         when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
         File schemaFile = new File("src/test/resources/schema.graphql");
         when(schemaRegistry.getSchemaFile("testspec")).thenReturn(schemaFile);
-        ObjectTypeDefinition queryType = Mockito.mock(ObjectTypeDefinition.class);
-        when(queryType.getFieldDefinitions()).thenReturn(List.of());
-        ObjectTypeDefinition mutationType = Mockito.mock(ObjectTypeDefinition.class);
-        FieldDefinition fieldDef = Mockito.mock(FieldDefinition.class);
-        when(fieldDef.getName()).thenReturn("addBook");
-        when(fieldDef.getType()).thenReturn(new TypeName("Book"));
-        when(mutationType.getFieldDefinitions()).thenReturn(List.of(fieldDef));
-        when(schemaService.getQueryType(schemaFile)).thenReturn(queryType);
-        when(schemaService.getMutationType(schemaFile)).thenReturn(mutationType);
         when(databaseAdapter.executeUpdate(anyString(), any())).thenReturn(1);
         Map<String, Object> req = new HashMap<>();
         req.put("query", "mutation { addBook(id: 1, title: \"A\", author: \"B\") { id } }");
@@ -142,14 +228,7 @@ class GraphQLControllerTest {
         when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
         File schemaFile = new File("src/test/resources/schema.graphql");
         when(schemaRegistry.getSchemaFile("testspec")).thenReturn(schemaFile);
-        ObjectTypeDefinition queryType = Mockito.mock(ObjectTypeDefinition.class);
-        FieldDefinition fieldDef = Mockito.mock(FieldDefinition.class);
-        when(fieldDef.getName()).thenReturn("books");
-        when(fieldDef.getType()).thenReturn(new ListType(new TypeName("Book")));
-        when(queryType.getFieldDefinitions()).thenReturn(List.of(fieldDef));
-        when(schemaService.getQueryType(schemaFile)).thenReturn(queryType);
-        when(schemaService.getMutationType(schemaFile)).thenReturn(null);
-        when(databaseAdapter.executeQuery(anyString())).thenThrow(new RuntimeException("DB error"));
+        when(databaseAdapter.executeQuery(anyString(), any(Object[].class))).thenThrow(new RuntimeException("DB error"));
         Map<String, Object> req = new HashMap<>();
         req.put("query", "{ books { id } }");
         ResponseEntity<?> resp = controller.execute("testspec", req);
@@ -157,20 +236,66 @@ class GraphQLControllerTest {
         assertTrue(resp.getBody().toString().contains("errors") || resp.getStatusCode().is5xxServerError());
     }
 
+    @Test
+    void failedOperationsAreKeptAsSlowOperations() throws Exception {
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/schema.graphql"));
+        when(databaseAdapter.executeQuery(anyString(), any(Object[].class))).thenThrow(new RuntimeException("DB error"));
+        Map<String, Object> req = new HashMap<>();
+        req.put("query", "{ books { id } }");
+        controller.execute("testspec", req);
+        List<QueryLog.Entry> entries = queryLog.slowOperations();
+        assertEquals(List.of("graphql", "sql"), entries.stream().map(QueryLog.Entry::type).toList());
+        assertEquals(PersistedQueryStore.sha256("{ books { id } }"), entries.get(0).statement());
+        assertEquals("DB error", entries.get(1).error());
+        assertTrue(entries.get(1).statement().startsWith("SELECT id FROM Book"));
+    }
+
+    private String stream(String query) throws Exception {
+        ResponseEntity<?> resp = controller.executeStreaming("testspec", Map.of("query", query));
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingResponseBody) resp.getBody()).writeTo(out);
+        return out.toString();
+    }
+
+    @Test
+    void streamsTopLevelListsFromACursor() throws Exception {
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/schema.graphql"));
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.findColumn("id")).thenReturn(1);
+        when(rs.findColumn("title")).thenReturn(2);
+        when(rs.getObject(1)).thenReturn("b1", "b2");
+        when(rs.getObject(2)).thenReturn("A", (Object) null);
+        doAnswer(inv -> {
+            DatabaseAdapter.RowHandler handler = inv.getArgument(2);
+            handler.row(rs);
+            handler.row(rs);
+            return null;
+        }).when(databaseAdapter).streamQuery(anyString(), any(), any());
+        assertEquals("{\"data\":{\"books\":[{\"id\":\"b1\",\"name\":\"A\",\"__typename\":\"Book\"},"
+                        + "{\"id\":\"b2\",\"name\":null,\"__typename\":\"Book\"}]}}",
+                stream("{ books { id name: title __typename } }"));
+        verify(databaseAdapter).streamQuery(eq("SELECT id, title FROM Book ORDER BY id LIMIT ?"), eq(new Object[]{100}), any());
+        verify(databaseAdapter, never()).executeQuery(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void streamingErrorsFollowTheData() throws Exception {
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/schema.graphql"));
+        doThrow(new SQLException("cursor lost")).when(databaseAdapter).streamQuery(anyString(), any(), any());
+        String body = stream("{ books { id } }");
+        assertTrue(body.startsWith("{\"data\":{\"books\":[]},\"errors\":[{"), body);
+        assertTrue(body.contains("cursor lost"), body);
+    }
+
     @Test
     void mutationDataFetcherThrowsException() throws Exception {
         when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
         File schemaFile = new File("src/test/resources/schema.graphql");
         when(schemaRegistry.getSchemaFile("testspec")).thenReturn(schemaFile);
-        ObjectTypeDefinition queryType = Mockito.mock(ObjectTypeDefinition.class);
-        when(queryType.getFieldDefinitions()).thenReturn(List.of());
-        ObjectTypeDefinition mutationType = Mockito.mock(ObjectTypeDefinition.class);
-        FieldDefinition fieldDef = Mockito.mock(FieldDefinition.class);
-        when(fieldDef.getName()).thenReturn("addBook");
-        when(fieldDef.getType()).thenReturn(new TypeName("Book"));
-        when(mutationType.getFieldDefinitions()).thenReturn(List.of(fieldDef));
-        when(schemaService.getQueryType(schemaFile)).thenReturn(queryType);
-        when(schemaService.getMutationType(schemaFile)).thenReturn(mutationType);
         // Throw on executeUpdate to simulate DB error
         when(databaseAdapter.executeUpdate(anyString(), any())).thenThrow(new RuntimeException("DB error"));
         Map<String, Object> req = new HashMap<>();
@@ -187,14 +312,7 @@ class GraphQLControllerTest {
         File schemaFile1 = new File("src/test/resources/schema1.graphql");
         File schemaFile2 = new File("src/test/resources/schema2.graphql");
         when(schemaRegistry.getSchemaFile("testspec")).thenReturn(schemaFile1, schemaFile2);
-        ObjectTypeDefinition queryType = Mockito.mock(ObjectTypeDefinition.class);
-        FieldDefinition fieldDef = Mockito.mock(FieldDefinition.class);
-        when(fieldDef.getName()).thenReturn("books");
-        when(fieldDef.getType()).thenReturn(new ListType(new TypeName("Book")));
-        when(queryType.getFieldDefinitions()).thenReturn(List.of(fieldDef));
-        when(schemaService.getQueryType(any())).thenReturn(queryType);
-        when(schemaService.getMutationType(any())).thenReturn(null);
-        when(databaseAdapter.executeQuery(anyString())).thenReturn(List.of(Collections.singletonMap("id", 1)));
+        when(databaseAdapter.executeQuery(anyString(), any(Object[].class))).thenReturn(List.of(Collections.singletonMap("id", 1)));
         Map<String, Object> req = new HashMap<>();
         req.put("query", "{ books { id } }");
         ResponseEntity<?> resp1 = controller.execute("testspec", req);
@@ -203,25 +321,347 @@ class GraphQLControllerTest {
         assertEquals(HttpStatus.OK, resp2.getStatusCode());
     }
 
+    @Test
+    void reusesParsedDocumentsUntilSchemaIsReuploaded() throws Exception {
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/schema.graphql"));
+        when(schemaRegistry.getSchemaVersion("testspec")).thenReturn(1L);
+        when(databaseAdapter.executeQuery(anyString(), any(Object[].class))).thenReturn(List.of(Collections.singletonMap("id", 1)));
+        Map<String, Object> req = new HashMap<>();
+        req.put("query", "{ books { id } }");
+        controller.execute("testspec", req);
+        controller.execute("testspec", req);
+        assertEquals(1, documentCache.size());
+        // A re-upload bumps the version; documents parsed against the old schema are dropped
+        when(schemaRegistry.getSchemaVersion("testspec")).thenReturn(2L);
+        req.put("query", "{ books { id title } }");
+        assertEquals(HttpStatus.OK, controller.execute("testspec", req).getStatusCode());
+        assertEquals(1, documentCache.size());
+    }
+
+    @Test
+    void resolvesAutomaticPersistedQueries() throws Exception {
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/schema.graphql"));
+        when(databaseAdapter.executeQuery(anyString(), any(Object[].class))).thenReturn(List.of(Collections.singletonMap("id", 1)));
+        String query = "{ books { id } }";
+        String hash = PersistedQueryStore.sha256(query);
+
+        ResponseEntity<?> notFound = controller.execute("testspec", persistedQueryRequest(hash, null));
+        assertEquals(HttpStatus.OK, notFound.getStatusCode());
+        assertTrue(notFound.getBody().toString().contains("PersistedQueryNotFound"));
+
+        assertEquals(HttpStatus.OK, controller.execute("testspec", persistedQueryRequest(hash, query)).getStatusCode());
+        ResponseEntity<?> resp = controller.execute("testspec", persistedQueryRequest(hash, null));
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+        assertTrue(resp.getBody().toString().contains("books"));
+
+        ResponseEntity<?> mismatch = controller.execute("testspec", persistedQueryRequest("deadbeef", query));
+        assertEquals(HttpStatus.BAD_REQUEST, mismatch.getStatusCode());
+    }
+
+    @Test
+    void allowListRejectsNonPersistedQueries() throws Exception {
+        setPersistedQueryStore(new PersistedQueryStore(100, true));
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/schema.graphql"));
+        when(databaseAdapter.executeQuery(anyString(), any(Object[].class))).thenReturn(List.of(Collections.singletonMap("id", 1)));
+        String query = "{ books { id } }";
+        String hash = PersistedQueryStore.sha256(query);
+        Map<String, Object> plain = new HashMap<>();
+        plain.put("query", query);
+        assertEquals(HttpStatus.BAD_REQUEST, controller.execute("testspec", plain).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, controller.execute("testspec", persistedQueryRequest(hash, query)).getStatusCode());
+
+        Map<String, Object> registration = Map.of("sha256Hash", hash, "query", query);
+        assertEquals(HttpStatus.OK, controller.registerPersistedQuery("testspec", registration).getStatusCode());
+        ResponseEntity<?> resp = controller.execute("testspec", persistedQueryRequest(hash, null));
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+        assertTrue(resp.getBody().toString().contains("books"));
+    }
+
+    @Test
+    void resolvesRelationsWithOneQueryPerLevel() throws Exception {
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/relations.graphql"));
+        when(databaseAdapter.executeQuery("SELECT id, title, author FROM Book ORDER BY id LIMIT ?", 100)).thenReturn(List.of(
+                Map.of("id", "b1", "title", "A", "author", "a1"),
+                Map.of("id", "b2", "title", "B", "author", "a2"),
+                Map.of("id", "b3", "title", "C", "author", "a1")));
+        when(databaseAdapter.executeQueryByKeys(eq("Author"), anyList(), eq("id"), any())).thenReturn(List.of(
+                Map.of("id", "a1", "name", "Ann"), Map.of("id", "a2", "name", "Bob")));
+        when(databaseAdapter.executeQueryByKeys(eq("Book"), anyList(), eq("author"), any())).thenReturn(List.of(
+                Map.of("id", "b1", "title", "A", "author", "a1"),
+                Map.of("id", "b3", "title", "C", "author", "a1"),
+                Map.of("id", "b2", "title", "B", "author", "a2")));
+        Map<String, Object> req = new HashMap<>();
+        req.put("query", "{ books { title author { name books { title } } } }");
+        ResponseEntity<?> resp = controller.execute("testspec", req);
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+        String body = resp.getBody().toString();
+        assertTrue(body.contains("{title=A, author={name=Ann, books=[{title=A}, {title=C}]}}"), body);
+        assertTrue(body.contains("{title=B, author={name=Bob, books=[{title=B}]}}"), body);
+        verify(databaseAdapter, times(1)).executeQueryByKeys("Author", List.of("id", "name"), "id", List.of("a1", "a2"));
+        verify(databaseAdapter, times(1)).executeQueryByKeys("Book", List.of("id", "title", "author"), "author", List.of("a1", "a2"));
+    }
+
+    @Test
+    void siblingRootFieldsFetchConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        setFetcherExecutor(new FetcherExecutor(executor));
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/relations.graphql"));
+        // Each query waits for the other to start, so serial fetching would time out
+        CountDownLatch started = new CountDownLatch(2);
+        when(databaseAdapter.executeQuery(anyString(), any(Object[].class))).thenAnswer(inv -> {
+            started.countDown();
+            if (!started.await(5, TimeUnit.SECONDS)) throw new IllegalStateException("fetched serially");
+            String sql = inv.getArgument(0);
+            return sql.contains("FROM Author") ? List.of(Map.of("id", "a1", "name", "Ann"))
+                    : List.of(Map.of("id", "b1", "title", "A"));
+        });
+        try {
+            Map<String, Object> req = new HashMap<>();
+            req.put("query", "{ authors { name } books { title } }");
+            ResponseEntity<?> resp = controller.execute("testspec", req);
+            assertEquals("{data={authors=[{name=Ann}], books=[{title=A}]}}", resp.getBody().toString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsQueriesOverTheDepthAndAliasLimits() throws Exception {
+        setQueryLimits(new QueryLimits(2, 1, 100000, Map.of(), Map.of(), Map.of()), new AdmissionController(0, 100, null));
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/relations.graphql"));
+        Map<String, Object> req = new HashMap<>();
+        req.put("query", "{ books { author { name } } }");
+        String body = controller.execute("testspec", req).getBody().toString();
+        assertTrue(body.contains("Query depth 3 exceeds the maximum of 2"), body);
+        assertTrue(body.contains("code=MAX_DEPTH_EXCEEDED"), body);
+        req.put("query", "{ a: books { id } b: books { id } }");
+        body = controller.execute("testspec", req).getBody().toString();
+        assertTrue(body.contains("code=MAX_ALIASES_EXCEEDED"), body);
+        verify(databaseAdapter, never()).executeQuery(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void estimatesCostFromTableStatistics() throws Exception {
+        setQueryLimits(new QueryLimits(15, 50, 50, Map.of(), Map.of(), Map.of()), new AdmissionController(0, 100, null));
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/relations.graphql"));
+        when(databaseAdapter.estimatedRowCount("Book")).thenReturn(20L);
+        when(databaseAdapter.estimatedRowCount("Author")).thenReturn(5000L);
+        Map<String, Object> req = new HashMap<>();
+        // 1 fetch + 20 rows
+        req.put("query", "{ books { title } }");
+        assertFalse(controller.execute("testspec", req).getBody().toString().contains("MAX_COST_EXCEEDED"));
+        // 1 fetch + 100 rows, the page size
+        req.put("query", "{ authors { name } }");
+        String body = controller.execute("testspec", req).getBody().toString();
+        assertTrue(body.contains("Query cost 101 exceeds the maximum of 50"), body);
+    }
+
+    @Test
+    void shedsOperationsWhenCostCapacityIsInUse() throws Exception {
+        AdmissionController admission = new AdmissionController(100, 0, null);
+        setQueryLimits(new QueryLimits(0, 0, 0, Map.of(), Map.of(), Map.of()), admission);
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/schema.graphql"));
+        Map<String, Object> req = new HashMap<>();
+        req.put("query", "{ books { id } }");
+        AdmissionController.Permit held = admission.tryAcquire(100);
+        ResponseEntity<?> resp = controller.execute("testspec", req);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, resp.getStatusCode());
+        assertEquals("1", resp.getHeaders().getFirst("Retry-After"));
+        verify(databaseAdapter, never()).executeQuery(anyString(), any(Object[].class));
+        held.release();
+        assertEquals(HttpStatus.OK, controller.execute("testspec", req).getStatusCode());
+        // The operation returned its tokens
+        assertNotNull(admission.tryAcquire(100));
+    }
+
+    @Test
+    void servesRepeatedQueriesFromTheResultCacheUntilATableIsWritten() throws Exception {
+        setResultCache(new ResultCache(true, 64, 60, null));
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/schema.graphql"));
+        when(databaseAdapter.executeQuery(anyString(), any(Object[].class))).thenReturn(List.of(Map.of("id", "1", "title", "A")));
+        when(databaseAdapter.executeUpdate(anyString(), any())).thenReturn(1);
+        Map<String, Object> req = new HashMap<>();
+        req.put("query", "{ books { id title } }");
+        assertEquals("{data={books=[{id=1, title=A}]}}", controller.execute("testspec", req).getBody().toString());
+        // Same query once normalized
+        req.put("query", "{\n  books { id, title }\n}");
+        ResponseEntity<?> cached = controller.execute("testspec", req);
+        assertEquals("{\"data\":{\"books\":[{\"id\":\"1\",\"title\":\"A\"}]}}",
+                new String((byte[]) cached.getBody(), StandardCharsets.UTF_8));
+        verify(databaseAdapter, times(1)).executeQuery(anyString(), any(Object[].class));
+        Map<String, Object> mutation = new HashMap<>();
+        mutation.put("query", "mutation { addBook(id: 2, title: \"B\", author: \"Bob\") { id } }");
+        assertEquals(HttpStatus.OK, controller.execute("testspec", mutation).getStatusCode());
+        controller.execute("testspec", req);
+        verify(databaseAdapter, times(2)).executeQuery(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void honoursCacheControlHints() throws Exception {
+        ResultCache resultCache = new ResultCache(true, 64, 60, null);
+        setResultCache(resultCache);
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/cache-control.graphql"));
+        Map<String, Object> req = new HashMap<>();
+        // maxAge 0 on the type
+        req.put("query", "{ reviews { stars } }");
+        assertEquals(HttpStatus.OK, controller.execute("testspec", req).getStatusCode());
+        // Private to the caller
+        req.put("query", "{ books { title } me { title } }");
+        assertEquals(HttpStatus.OK, controller.execute("testspec", req).getStatusCode());
+        assertEquals(0, resultCache.size());
+        req.put("query", "{ books { title } }");
+        controller.execute("testspec", req);
+        assertEquals(1, resultCache.size());
+    }
+
+    @Test
+    void addMutationLinksListRelations() throws Exception {
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/relations.graphql"));
+        Map<String, Object> req = new HashMap<>();
+        req.put("query", "mutation { addAuthor(id: \"a1\", name: \"Ann\", books: [\"b1\", \"b2\"], tags: [\"t1\"]) { name } }");
+        ResponseEntity<?> resp = controller.execute("testspec", req);
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+        verify(databaseAdapter).executeUpdate("INSERT INTO Author (id, name) VALUES (?, ?)", "a1", "Ann");
+        verify(databaseAdapter).executeUpdate("UPDATE Book SET author = ? WHERE id IN (?, ?)", "a1", "b1", "b2");
+        verify(databaseAdapter).executeUpdate("INSERT INTO Author_tags (parent_key, child_key) VALUES (?, ?)", "a1", "t1");
+    }
+
+    @Test
+    void bulkMutationInsertsAllRowsAtOnce() throws Exception {
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/schema.graphql"));
+        List<Object[]> inserted = new java.util.ArrayList<>();
+        when(databaseAdapter.bulkInsert(eq("Book"), eq(List.of("id", "title", "author")), any())).thenAnswer(inv -> {
+            java.util.Iterator<Object[]> rows = inv.getArgument(2);
+            rows.forEachRemaining(inserted::add);
+            return (long) inserted.size();
+        });
+        Map<String, Object> req = new HashMap<>();
+        req.put("query", "mutation { addBooks(input: [{ id: 1, title: \"A\", author: \"Ann\" }, { id: 2, title: \"B\", author: \"Bob\" }]) }");
+        ResponseEntity<?> resp = controller.execute("testspec", req);
+        assertEquals("{data={addBooks=2}}", resp.getBody().toString());
+        assertEquals(List.of("1", "A", "Ann"), List.of(inserted.get(0)));
+        assertEquals(List.of("2", "B", "Bob"), List.of(inserted.get(1)));
+        verify(databaseAdapter, never()).executeUpdate(anyString(), any());
+    }
+
+    @Test
+    void bulkMutationLeavesKeysToTheDatabaseWhenNoneAreGiven() throws Exception {
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/schema.graphql"));
+        List<Object[]> inserted = new java.util.ArrayList<>();
+        when(databaseAdapter.bulkInsert(eq("Book"), anyList(), any())).thenAnswer(inv -> {
+            java.util.Iterator<Object[]> rows = inv.getArgument(2);
+            rows.forEachRemaining(inserted::add);
+            return (long) inserted.size();
+        });
+        Map<String, Object> req = new HashMap<>();
+        req.put("query", "mutation { addBooks(input: [{ title: \"A\", author: \"Ann\" }, { title: \"B\", author: \"Bob\" }]) }");
+        assertEquals("{data={addBooks=2}}", controller.execute("testspec", req).getBody().toString());
+        verify(databaseAdapter).bulkInsert(eq("Book"), eq(List.of("title", "author")), any());
+        assertEquals(List.of("A", "Ann"), List.of(inserted.get(0)));
+
+        req.put("query", "mutation { addBooks(input: [{ title: \"A\", author: \"Ann\" }, { id: 2, title: \"B\", author: \"Bob\" }]) }");
+        assertTrue(controller.execute("testspec", req).getBody().toString()
+                .contains("Field 'id' must be given for every Book or for none"));
+    }
+
     @Test
     void executesQueryWithVariables() throws Exception {
         when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
         File schemaFile = new File("src/test/resources/schema.graphql");
         when(schemaRegistry.getSchemaFile("testspec")).thenReturn(schemaFile);
-        ObjectTypeDefinition queryType = Mockito.mock(ObjectTypeDefinition.class);
-        FieldDefinition fieldDef = Mockito.mock(FieldDefinition.class);
-        when(fieldDef.getName()).thenReturn("book");
-        when(fieldDef.getType()).thenReturn(new TypeName("Book"));
-        when(queryType.getFieldDefinitions()).thenReturn(List.of(fieldDef));
-        when(schemaService.getQueryType(schemaFile)).thenReturn(queryType);
-        when(schemaService.getMutationType(schemaFile)).thenReturn(null);
-        when(databaseAdapter.executeQuerySingle(anyString(), any())).thenReturn(Collections.singletonMap("id", 1));
+        when(databaseAdapter.executeQueryByKeys(anyString(), anyList(), anyString(), any())).thenReturn(List.of(Collections.singletonMap("id", 1)));
         Map<String, Object> req = new HashMap<>();
         req.put("query", "query($id: ID!) { book(id: $id) { id } }");
         req.put("variables", Map.of("id", 1));
         ResponseEntity<?> resp = controller.execute("testspec", req);
         assertEquals(HttpStatus.OK, resp.getStatusCode());
-        assertTrue(resp.getBody().toString().contains("book"));
+        assertTrue(resp.getBody().toString().contains("book={id=1}"));
+    }
+
+    @Test
+    void batchesAliasedKeyLookupsIntoOneQuery() throws Exception {
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/schema.graphql"));
+        when(databaseAdapter.executeQueryByKeys(eq("Book"), anyList(), eq("id"), any())).thenReturn(List.of(
+                Map.of("id", "2", "title", "B"), Map.of("id", "1", "title", "A")));
+        Map<String, Object> req = new HashMap<>();
+        req.put("query", "{ a: book(id: 1) { title } b: book(id: 2) { title } c: book(id: 3) { title } d: book(id: 1) { title } }");
+        ResponseEntity<?> resp = controller.execute("testspec", req);
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+        assertEquals("{data={a={title=A}, b={title=B}, c=null, d={title=A}}}", resp.getBody().toString());
+        verify(databaseAdapter, times(1)).executeQueryByKeys("Book", List.of("id", "title"), "id", List.of("1", "2", "3"));
+        verify(databaseAdapter, never()).executeQuerySingle(anyString(), any());
+    }
+
+    @Test
+    void selectsOnlyRequestedColumns() throws Exception {
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/schema.graphql"));
+        when(databaseAdapter.executeQuery("SELECT id, title FROM Book ORDER BY id LIMIT ?", 100)).thenReturn(List.of(Map.of("id", "1", "title", "A")));
+        Map<String, Object> req = new HashMap<>();
+        req.put("query", "{ books { title } }");
+        ResponseEntity<?> resp = controller.execute("testspec", req);
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+        assertEquals("{data={books=[{title=A}]}}", resp.getBody().toString());
+        verify(databaseAdapter, never()).executeQuery("SELECT * FROM Book");
+    }
+
+    @Test
+    void pagesListQueriesByKey() throws Exception {
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/schema.graphql"));
+        when(databaseAdapter.executeQuery("SELECT id, title FROM Book WHERE id > ? ORDER BY id LIMIT ?", "1", 2))
+                .thenReturn(List.of(Map.of("id", "2", "title", "B"), Map.of("id", "3", "title", "C")));
+        when(databaseAdapter.executeQuery("SELECT id FROM Book ORDER BY id LIMIT ? OFFSET ?", 5, 10))
+                .thenReturn(List.of(Map.of("id", "11")));
+        Map<String, Object> req = new HashMap<>();
+        req.put("query", "{ books(first: 2, after: \"1\") { id title } }");
+        ResponseEntity<?> resp = controller.execute("testspec", req);
+        assertEquals("{data={books=[{id=2, title=B}, {id=3, title=C}]}}", resp.getBody().toString());
+        req.put("query", "{ books(limit: 5, offset: 10) { id } }");
+        resp = controller.execute("testspec", req);
+        assertEquals("{data={books=[{id=11}]}}", resp.getBody().toString());
+    }
+
+    @Test
+    void pushesFiltersAndOrderingIntoSql() throws Exception {
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/schema.graphql"));
+        when(databaseAdapter.executeQuery(
+                "SELECT id, title FROM Book WHERE title LIKE ? ESCAPE '\\' AND author IN (?, ?) ORDER BY title DESC, id LIMIT ?",
+                "%SQL%", "Ann", "Bob", 10)).thenReturn(List.of(Map.of("id", "2", "title", "SQL B")));
+        Map<String, Object> req = new HashMap<>();
+        req.put("query", "{ books(where: { title: { contains: \"SQL\" }, author: { in: [\"Ann\", \"Bob\"] } }, "
+                + "orderBy: [{ field: title, direction: DESC }], first: 10) { title } }");
+        ResponseEntity<?> resp = controller.execute("testspec", req);
+        assertEquals("{data={books=[{title=SQL B}]}}", resp.getBody().toString());
+        assertEquals(Map.of(new IndexAdvisor.Predicate("Book", "title"), 1L, new IndexAdvisor.Predicate("Book", "author"), 1L),
+                indexAdvisor.predicateCounts());
+    }
+
+    @Test
+    void rejectsPagesOverMaxPageSize() throws Exception {
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/schema.graphql"));
+        Map<String, Object> req = new HashMap<>();
+        req.put("query", "{ books(first: 101) { id } }");
+        ResponseEntity<?> resp = controller.execute("testspec", req);
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+        assertTrue(resp.getBody().toString().contains("Page size must be between 0 and 100"));
+        verify(databaseAdapter, never()).executeQuery(anyString(), any(Object[].class));
     }
 
     @Test
@@ -0,0 +1,49 @@
+package com.dac.graphql.core.controller;
+
+import com.dac.graphql.core.service.IndexAdvisor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class IndexAdvisorControllerTest {
+    private MockMvc mockMvc;
+
+    @Mock
+    private IndexAdvisor indexAdvisor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        IndexAdvisorController controller = new IndexAdvisorController();
+        java.lang.reflect.Field indexAdvisorField = IndexAdvisorController.class.getDeclaredField("indexAdvisor");
+        indexAdvisorField.setAccessible(true);
+        indexAdvisorField.set(controller, indexAdvisor);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void returnsRecommendations() throws Exception {
+        when(indexAdvisor.recommend()).thenReturn(List.of(new IndexAdvisor.Recommendation("Book", "title", 4,
+                "CREATE INDEX IF NOT EXISTS idx_Book_title ON Book (title)")));
+        mockMvc.perform(get("/api/index-advisor"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"table\": \"Book\", \"column\": \"title\", \"predicateCount\": 4}]"));
+    }
+
+    @Test
+    void returns500WhenMetadataFails() throws Exception {
+        when(indexAdvisor.recommend()).thenThrow(new SQLException("boom"));
+        mockMvc.perform(get("/api/index-advisor")).andExpect(status().isInternalServerError());
+    }
+}
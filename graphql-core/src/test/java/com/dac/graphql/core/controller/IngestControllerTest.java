@@ -0,0 +1,131 @@
+package com.dac.graphql.core.controller;
+
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.cache.CacheCoherence;
+import com.dac.graphql.core.cache.ResultCache;
+import com.dac.graphql.core.service.SchemaRegistry;
+import com.dac.graphql.core.service.SchemaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.File;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class IngestControllerTest {
+    private MockMvc mockMvc;
+
+    @Mock
+    private SchemaRegistry schemaRegistry;
+    @Mock
+    private DatabaseAdapter databaseAdapter;
+
+    private final List<List<Object>> inserted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        IngestController controller = new IngestController();
+        SchemaService schemaService = new SchemaService();
+        Field adapterField = SchemaService.class.getDeclaredField("databaseAdapter");
+        adapterField.setAccessible(true);
+        adapterField.set(schemaService, databaseAdapter);
+        inject(controller, "schemaService", schemaService);
+        inject(controller, "schemaRegistry", schemaRegistry);
+        inject(controller, "databaseAdapter", databaseAdapter);
+        inject(controller, "cacheCoherence",
+                new CacheCoherence(databaseAdapter, new ResultCache(false, 1, 60, null), schemaRegistry, false, "graphql_changes"));
+        when(schemaRegistry.hasSchema("testspec")).thenReturn(true);
+        when(schemaRegistry.getSchemaFile("testspec")).thenReturn(new File("src/test/resources/relations.graphql"));
+        when(databaseAdapter.mapGraphQLTypeToSql(anyString())).thenReturn("TEXT");
+        when(databaseAdapter.bulkInsert(anyString(), anyList(), any())).thenAnswer(inv -> {
+            Iterator<Object[]> rows = inv.getArgument(2);
+            rows.forEachRemaining(row -> inserted.add(Arrays.asList(row)));
+            return (long) inserted.size();
+        });
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    private static void inject(IngestController controller, String name, Object value) throws Exception {
+        Field field = IngestController.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(controller, value);
+    }
+
+    @Test
+    void ingestsNdjson() throws Exception {
+        String body = "{\"id\": \"b1\", \"title\": \"A\", \"author\": \"a1\"}\n{\"id\": \"b2\", \"title\": \"B\"}\n";
+        mockMvc.perform(post("/api/ingest/testspec/Book").contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"table\": \"Book\", \"rows\": 2}"));
+        verify(databaseAdapter).bulkInsert(eq("Book"), eq(List.of("id", "title", "author")), any());
+        assertEquals(List.of(List.of("b1", "A", "a1"), Arrays.asList("b2", "B", null)), inserted);
+    }
+
+    @Test
+    void leavesKeysToTheDatabaseWhenNoneAreGiven() throws Exception {
+        String body = "{\"title\": \"A\", \"author\": \"a1\"}\n{\"title\": \"B\"}\n";
+        mockMvc.perform(post("/api/ingest/testspec/Book").contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk());
+        verify(databaseAdapter).bulkInsert(eq("Book"), eq(List.of("title", "author")), any());
+        assertEquals(List.of(List.of("A", "a1"), Arrays.asList("B", null)), inserted);
+        mockMvc.perform(post("/api/ingest/testspec/Book").contentType("application/x-ndjson")
+                        .content("{\"title\": \"A\"}\n{\"id\": \"b2\", \"title\": \"B\"}\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("Field 'id' must be given for every Book or for none")));
+    }
+
+    @Test
+    void ingestsCsvWithHeaderColumns() throws Exception {
+        String body = "id,title\r\nb1,\"Say \"\"hi\"\", twice\"\r\nb2,\r\n";
+        mockMvc.perform(post("/api/ingest/testspec/Book").contentType("text/csv").content(body))
+                .andExpect(status().isOk());
+        verify(databaseAdapter).bulkInsert(eq("Book"), eq(List.of("id", "title")), any());
+        assertEquals(List.of(List.of("b1", "Say \"hi\", twice"), Arrays.asList("b2", null)), inserted);
+    }
+
+    @Test
+    void rejectsUnknownFields() throws Exception {
+        mockMvc.perform(post("/api/ingest/testspec/Book").contentType("text/csv").content("id,isbn\nb1,123\n"))
+                .andExpect(status().isBadRequest());
+        verify(databaseAdapter, never()).bulkInsert(anyString(), anyList(), any());
+        mockMvc.perform(post("/api/ingest/testspec/Book").contentType("application/x-ndjson").content("{\"isbn\": \"123\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void returns404ForUnknownType() throws Exception {
+        mockMvc.perform(post("/api/ingest/testspec/Shelf").contentType("application/x-ndjson").content("{}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void csvQuotedFieldsMaySpanLines() throws Exception {
+        IngestController.CsvRows rows = new IngestController.CsvRows(new StringReader("a,b\n\"1\n2\",\"\"\n"));
+        assertEquals(List.of("a", "b"), rows.header());
+        assertEquals(Map.of("a", "1\n2", "b", ""), rows.next());
+        assertFalse(rows.hasNext());
+    }
+}
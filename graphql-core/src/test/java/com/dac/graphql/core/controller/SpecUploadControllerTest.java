@@ -1,5 +1,6 @@
 package com.dac.graphql.core.controller;
 
+import com.dac.graphql.core.cache.CacheCoherence;
 import com.dac.graphql.core.service.SchemaRegistry;
 import com.dac.graphql.core.service.SchemaService;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +17,8 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.io.File;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
@@ -29,6 +32,8 @@ class SpecUploadControllerTest {
     private SchemaService schemaService;
     @Mock
     private SchemaRegistry schemaRegistry;
+    @Mock
+    private CacheCoherence cacheCoherence;
     @InjectMocks
     private SpecUploadController controller;
 
@@ -43,6 +48,9 @@ class SpecUploadControllerTest {
         java.lang.reflect.Field schemaRegistryField = SpecUploadController.class.getDeclaredField("schemaRegistry");
         schemaRegistryField.setAccessible(true);
         schemaRegistryField.set(controller, schemaRegistry);
+        java.lang.reflect.Field cacheCoherenceField = SpecUploadController.class.getDeclaredField("cacheCoherence");
+        cacheCoherenceField.setAccessible(true);
+        cacheCoherenceField.set(controller, cacheCoherence);
         // Manually set uploadDir
         java.lang.reflect.Field uploadDirField = SpecUploadController.class.getDeclaredField("uploadDir");
         uploadDirField.setAccessible(true);
@@ -55,6 +63,7 @@ class SpecUploadControllerTest {
         MockMultipartFile file = new MockMultipartFile("file", "schema.graphql", MediaType.TEXT_PLAIN_VALUE, "type Query { hello: String }".getBytes());
         mockMvc.perform(multipart("/api/upload-graphql-spec/testspec").file(file))
                 .andExpect(status().isOk());
+        verify(cacheCoherence).schemaChanged(eq("testspec"), anyLong());
     }
 
     @Test
@@ -0,0 +1,98 @@
+package com.dac.graphql.core.service;
+
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.adapter.SqlUpdate;
+import graphql.language.FieldDefinition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FieldSqlPlanTest {
+    private SchemaModel model;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SchemaService schemaService = new SchemaService();
+        DatabaseAdapter adapter = Mockito.mock(DatabaseAdapter.class);
+        Mockito.when(adapter.mapGraphQLTypeToSql(Mockito.anyString())).thenReturn("TEXT");
+        schemaService.setDatabaseAdapter(adapter);
+        model = schemaService.loadSchemaModel(new File("src/test/resources/relations.graphql"));
+    }
+
+    private static FieldDefinition field(String name, String sdl) {
+        return new graphql.parser.Parser().parseDocument("type T { " + name + sdl + " }")
+                .getDefinitionsOfType(graphql.language.ObjectTypeDefinition.class).get(0).getFieldDefinitions().get(0);
+    }
+
+    @Test
+    void bindsQueriesInDeclaredArgumentOrder() {
+        FieldSqlPlan plan = FieldSqlPlan.forQuery(model, field("book", "(id: ID, title: String): Book"));
+        Map<String, Object> args = new LinkedHashMap<>();
+        args.put("title", "A");
+        args.put("id", "b1");
+        FieldSqlPlan.Select select = plan.bindSelect(args, List.of("id", "title"));
+        assertEquals("SELECT id, title FROM Book WHERE id = ? AND title = ?", select.sql());
+        assertArrayEquals(new Object[]{"b1", "A"}, select.params());
+        assertTrue(select.singleRow());
+        // The statement text is built once per shape
+        assertSame(select.sql(), plan.bindSelect(Map.of("id", "b2", "title", "B"), List.of("id", "title")).sql());
+        FieldSqlPlan.Select all = plan.bindSelect(Map.of(), List.of());
+        assertEquals("SELECT * FROM Book", all.sql());
+        assertFalse(all.singleRow());
+    }
+
+    @Test
+    void bindsPagesOncePerShape() {
+        FieldSqlPlan plan = FieldSqlPlan.forPagedQuery(model,
+                field("books", "(title: String, first: Int, after: ID, where: BookFilter): [Book]"));
+        FieldSqlPlan.Select page = plan.bindPage(Map.of("title", "A"), List.of("id", "title"), null, "id", "b1", 10, null);
+        assertEquals("SELECT id, title FROM Book WHERE title = ? AND id > ? ORDER BY id LIMIT ?", page.sql());
+        assertArrayEquals(new Object[]{"A", "b1", 10}, page.params());
+        assertFalse(page.singleRow());
+        // Page sizes and offsets are bound, so every page shares the statement
+        assertSame(page.sql(), plan.bindPage(Map.of("title", "B"), List.of("id", "title"), null, "id", "b2", 25, null).sql());
+        FieldSqlPlan.Select offset = plan.bindPage(Map.of(), List.of(), null, "id", null, 5, 20);
+        assertEquals("SELECT * FROM Book ORDER BY id LIMIT ? OFFSET ?", offset.sql());
+        assertArrayEquals(new Object[]{5, 20}, offset.params());
+        assertSame(offset.sql(), plan.bindPage(Map.of(), List.of(), null, "id", null, 5, 40).sql());
+        // Filter values follow the column arguments' values
+        FieldSqlPlan.Select filtered = plan.bindPage(Map.of("title", "A"), List.of(), Map.of("id", Map.of("eq", "b3")),
+                "id", null, 10, null);
+        assertEquals("SELECT * FROM Book WHERE title = ? AND id = ? ORDER BY id LIMIT ?", filtered.sql());
+        assertArrayEquals(new Object[]{"A", "b3", 10}, filtered.params());
+    }
+
+    @Test
+    void plansInsertsWithLinkedRelations() {
+        FieldSqlPlan plan = FieldSqlPlan.forMutation(model, field("addAuthor", "(id: ID!, name: String, books: [ID]): Author"));
+        assertEquals(FieldSqlPlan.Kind.INSERT, plan.kind());
+        assertEquals(List.of("books"), plan.links().stream().map(SchemaModel.Relation::fieldName).toList());
+        SqlUpdate insert = plan.bindUpdate(Map.of("id", "a1", "books", List.of("b1")));
+        assertEquals("INSERT INTO Author (id) VALUES (?)", insert.sql());
+        assertArrayEquals(new Object[]{"a1"}, insert.params());
+    }
+
+    @Test
+    void plansUpdatesAndDeletesByFirstArgument() {
+        FieldSqlPlan update = FieldSqlPlan.forMutation(model, field("updateBook", "(id: ID!, title: String): Book"));
+        SqlUpdate bound = update.bindUpdate(Map.of("id", "b1", "title", "New"));
+        assertEquals("UPDATE Book SET title = ? WHERE id = ?", bound.sql());
+        assertArrayEquals(new Object[]{"New", "b1"}, bound.params());
+        FieldSqlPlan delete = FieldSqlPlan.forMutation(model, field("deleteBook", "(id: ID!): Book"));
+        assertEquals("DELETE FROM Book WHERE id = ?", delete.bindUpdate(Map.of("id", "b1")).sql());
+        assertEquals("id", delete.keyArgument());
+        assertNull(FieldSqlPlan.forMutation(model, field("publish", "(id: ID!): Book")));
+    }
+}
@@ -0,0 +1,57 @@
+package com.dac.graphql.core.service;
+
+import graphql.GraphQL;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GraphQLMetricsInstrumentationTest {
+    private SimpleMeterRegistry registry;
+    private GraphQL graphQL;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type
+                        .dataFetcher("books", env -> CompletableFuture.supplyAsync(
+                                () -> List.of(Map.of("title", "A"), Map.of("title", "B"))))
+                        .dataFetcher("broken", env -> {
+                            throw new IllegalStateException("down");
+                        }))
+                .build();
+        String sdl = "type Book { title: String } type Query { books: [Book] broken: String }";
+        graphQL = GraphQL.newGraphQL(new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(sdl), wiring))
+                .instrumentation(new GraphQLMetricsInstrumentation(registry, "library"))
+                .build();
+    }
+
+    @Test
+    void recordsOperationsAndFetchedFields() {
+        graphQL.execute("{ books { title } }");
+        assertEquals(1, registry.find("graphql.query.latency").tag("specName", "library").timer().count());
+        assertEquals(1, registry.find("graphql.query.count").tags("specName", "library", "status", "success").counter().count());
+        assertEquals(1, registry.find("graphql.field.fetch").tags("field", "Query.books", "status", "success").timer().count());
+        assertEquals(2, registry.find("graphql.field.result.size").tag("field", "Query.books").summary().totalAmount());
+        // Titles come from the parent row and are not timed
+        assertNull(registry.find("graphql.field.fetch").tag("field", "Book.title").timer());
+    }
+
+    @Test
+    void countsErrors() {
+        graphQL.execute("{ broken }");
+        assertEquals(1, registry.find("graphql.query.count").tags("specName", "library", "status", "error").counter().count());
+        assertEquals(1, registry.find("graphql.errors").tags("specName", "library", "classification", "DataFetchingException").counter().count());
+        assertEquals(1, registry.find("graphql.field.fetch").tags("field", "Query.broken", "status", "error").timer().count());
+    }
+}
@@ -0,0 +1,68 @@
+package com.dac.graphql.core.service;
+
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.adapter.SqlUpdate;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GroupCommitSchedulerTest {
+    private final DatabaseAdapter adapter = Mockito.mock(DatabaseAdapter.class);
+
+    private static SqlUpdate insert(int id) {
+        return new SqlUpdate("INSERT INTO Book (id) VALUES (?)", id);
+    }
+
+    @Test
+    void runsImmediatelyWhenDisabled() throws Exception {
+        when(adapter.executeUpdate(anyString(), Mockito.<Object>any())).thenReturn(1);
+        GroupCommitScheduler scheduler = new GroupCommitScheduler(adapter, false, 5, 100);
+        assertArrayEquals(new int[]{1}, scheduler.submit("Book", List.of(insert(1))).get());
+        verify(adapter, never()).executeBatch(anyList());
+    }
+
+    @Test
+    void commitsMutationsOfOneWindowTogether() throws Exception {
+        when(adapter.executeBatch(anyList())).thenAnswer(inv -> new int[((List<?>) inv.getArgument(0)).size()]);
+        GroupCommitScheduler scheduler = new GroupCommitScheduler(adapter, true, 200, 3);
+        CompletableFuture<int[]> first = scheduler.submit("Book", List.of(insert(1)));
+        CompletableFuture<int[]> second = scheduler.submit("Book", List.of(insert(2), insert(3)));
+        assertFalse(first.isDone());
+        // The size threshold flushes before the window ends
+        CompletableFuture<int[]> third = scheduler.submit("Book", List.of(insert(4)));
+        assertEquals(1, first.get().length);
+        assertEquals(2, second.get().length);
+        assertEquals(1, third.get().length);
+        verify(adapter, times(1)).executeBatch(anyList());
+        scheduler.shutdown();
+    }
+
+    @Test
+    void retriesEachMutationWhenTheBatchFails() throws Exception {
+        SqlUpdate bad = new SqlUpdate("INSERT INTO Book (missing) VALUES (?)", 1);
+        when(adapter.executeBatch(anyList())).thenAnswer(inv -> {
+            List<?> updates = inv.getArgument(0);
+            if (updates.contains(bad)) throw new SQLException("no such column: missing");
+            return new int[]{1};
+        });
+        GroupCommitScheduler scheduler = new GroupCommitScheduler(adapter, true, 50, 100);
+        CompletableFuture<int[]> good = scheduler.submit("Book", List.of(insert(1)));
+        CompletableFuture<int[]> failing = scheduler.submit("Book", List.of(bad));
+        assertArrayEquals(new int[]{1}, good.get());
+        ExecutionException e = assertThrows(ExecutionException.class, failing::get);
+        assertTrue(e.getCause().getMessage().contains("no such column"));
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,62 @@
+package com.dac.graphql.core.service;
+
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+class IndexAdvisorTest {
+    private DatabaseAdapter databaseAdapter;
+    private IndexAdvisor advisor;
+
+    @BeforeEach
+    void setUp() {
+        databaseAdapter = Mockito.mock(DatabaseAdapter.class);
+        advisor = new IndexAdvisor(databaseAdapter);
+    }
+
+    @Test
+    void extractsPredicateColumnsFromGeneratedSql() {
+        assertEquals(List.of(new IndexAdvisor.Predicate("Book", "title"), new IndexAdvisor.Predicate("Book", "author"),
+                        new IndexAdvisor.Predicate("Book", "id")),
+                IndexAdvisor.predicates("SELECT id, title FROM Book WHERE title LIKE ? ESCAPE '\\' AND author IN (?, ?) "
+                        + "AND id > ? AND 1 = 0 ORDER BY title DESC, id LIMIT ? OFFSET ?"));
+        assertEquals(List.of(new IndexAdvisor.Predicate("Author_tags", "parent_key")),
+                IndexAdvisor.predicates("SELECT j.parent_key AS parent_key, c.* FROM Tag c JOIN Author_tags j "
+                        + "ON c.id = j.child_key WHERE j.parent_key IN (?, ?)"));
+        assertEquals(List.of(), IndexAdvisor.predicates("SELECT id FROM Book ORDER BY id LIMIT ?"));
+    }
+
+    @Test
+    void ranksUnindexedColumnsByPredicateCount() throws Exception {
+        when(databaseAdapter.indexedColumns("Book")).thenReturn(Set.of("ID"));
+        for (int i = 0; i < 3; i++) {
+            advisor.recordQuery("SELECT id FROM Book WHERE author = ? AND title = ? LIMIT 10");
+        }
+        advisor.recordQuery("SELECT id FROM Book WHERE title IS NULL LIMIT 10");
+        advisor.recordLookup("Book", "id");
+        assertEquals(Map.of(new IndexAdvisor.Predicate("Book", "author"), 3L, new IndexAdvisor.Predicate("Book", "title"), 4L,
+                new IndexAdvisor.Predicate("Book", "id"), 1L), advisor.predicateCounts());
+        List<IndexAdvisor.Recommendation> recommendations = advisor.recommend();
+        assertEquals(List.of(
+                new IndexAdvisor.Recommendation("Book", "title", 4, "CREATE INDEX IF NOT EXISTS idx_Book_title ON Book (title)"),
+                new IndexAdvisor.Recommendation("Book", "author", 3, "CREATE INDEX IF NOT EXISTS idx_Book_author ON Book (author)")),
+                recommendations);
+    }
+
+    @Test
+    void boundsDistinctStatements() {
+        for (int i = 0; i < IndexAdvisor.MAX_STATEMENTS + 10; i++) {
+            advisor.recordQuery("SELECT id FROM Book WHERE id = ? LIMIT " + i);
+        }
+        assertTrue(advisor.predicateCounts().get(new IndexAdvisor.Predicate("Book", "id")) <= IndexAdvisor.MAX_STATEMENTS);
+    }
+}
@@ -0,0 +1,70 @@
+package com.dac.graphql.core.service;
+
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import graphql.execution.CoercedVariables;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryCostTest {
+    private DatabaseAdapter adapter;
+    private GraphQLSchema schema;
+    private QueryCost queryCost;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SchemaService schemaService = new SchemaService();
+        adapter = Mockito.mock(DatabaseAdapter.class);
+        Mockito.when(adapter.mapGraphQLTypeToSql(Mockito.anyString())).thenReturn("TEXT");
+        Mockito.when(adapter.estimatedRowCount("Author")).thenReturn(10L);
+        Mockito.when(adapter.estimatedRowCount("Book")).thenReturn(50L);
+        schemaService.setDatabaseAdapter(adapter);
+        SchemaModel model = schemaService.loadSchemaModel(new File("src/test/resources/relations.graphql"));
+        schema = new SchemaGenerator().makeExecutableSchema(model.getTypeRegistry(), RuntimeWiring.MOCKED_WIRING);
+        queryCost = new QueryCost(model, new TableStatistics(adapter, 60), 100);
+    }
+
+    private QueryCost.Result measure(String query, Map<String, Object> variables) {
+        return queryCost.measure(schema, new Parser().parseDocument(query), null, CoercedVariables.of(variables));
+    }
+
+    @Test
+    void weighsNestedListsByRowsPerParent() {
+        // authors: 1 + 10 rows + 10 * books; books: 1 + 50 / 10 rows per author
+        QueryCost.Result result = measure("{ authors { name books { title } } }", Map.of());
+        assertEquals(71, result.cost());
+        assertEquals(3, result.depth());
+        assertEquals(0, result.aliases());
+    }
+
+    @Test
+    void usesRequestedPageSizes() {
+        assertEquals(3, measure("query($n: Int) { authors(first: $n) { name } }", Map.of("n", 2)).cost());
+        assertEquals(101, measure("{ authors(first: 5000) { name } }", Map.of()).cost());
+    }
+
+    @Test
+    void countsAliasesInFragments() {
+        QueryCost.Result result = measure("{ a: authors { ...F } b: book(id: 1) { title } } fragment F on Author { n: name }", Map.of());
+        assertEquals(3, result.aliases());
+        // 1 + 10 rows for authors, 1 + 1 for the single book
+        assertEquals(13, result.cost());
+        assertEquals(2, result.depth());
+    }
+
+    @Test
+    void readsStatisticsOncePerRefresh() throws Exception {
+        measure("{ authors { name } }", Map.of());
+        measure("{ authors { name } }", Map.of());
+        Mockito.verify(adapter, Mockito.times(1)).estimatedRowCount("Author");
+    }
+}
@@ -0,0 +1,56 @@
+package com.dac.graphql.core.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryFiltersTest {
+    private final SchemaModel.Table book = new SchemaModel.Table("Book", List.of(
+            new SchemaModel.Column("id", "ID", "TEXT", true, false),
+            new SchemaModel.Column("title", "String", "TEXT", false, false),
+            new SchemaModel.Column("pages", "Int", "INTEGER", false, false)), "id");
+
+    @Test
+    void translatesOperatorsIntoParameterisedConditions() {
+        Map<String, Object> title = new LinkedHashMap<>();
+        title.put("contains", "50%_off");
+        title.put("isNull", false);
+        Map<String, Object> where = new LinkedHashMap<>();
+        where.put("id", Map.of("in", List.of("1", "2")));
+        where.put("title", title);
+        where.put("pages", Map.of("gt", 100));
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        QueryFilters.appendConditions(book, where, conditions, params);
+        assertEquals(List.of("id IN (?, ?)", "title LIKE ? ESCAPE '\\'", "title IS NOT NULL", "pages > ?"), conditions);
+        assertEquals(List.of("1", "2", "%50\\%\\_off%", 100), params);
+    }
+
+    @Test
+    void emptyInMatchesNothing() {
+        List<String> conditions = new ArrayList<>();
+        QueryFilters.appendConditions(book, Map.of("id", Map.of("in", List.of())), conditions, new ArrayList<>());
+        assertEquals(List.of("1 = 0"), conditions);
+    }
+
+    @Test
+    void rejectsUnknownFields() {
+        assertThrows(IllegalArgumentException.class, () -> QueryFilters.appendConditions(
+                book, Map.of("author", Map.of("eq", "x")), new ArrayList<>(), new ArrayList<>()));
+        assertThrows(IllegalArgumentException.class, () -> QueryFilters.orderByClause(
+                book, List.of(Map.of("field", "author"))));
+    }
+
+    @Test
+    void ordersByKeyAsTieBreaker() {
+        assertEquals("id", QueryFilters.orderByClause(book, null));
+        assertEquals("pages DESC, title ASC, id", QueryFilters.orderByClause(book, List.of(
+                Map.of("field", "pages", "direction", "DESC"), Map.of("field", "title"))));
+        assertEquals("id DESC", QueryFilters.orderByClause(book, List.of(Map.of("field", "id", "direction", "DESC"))));
+    }
+}
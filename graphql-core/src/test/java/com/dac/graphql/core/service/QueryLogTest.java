@@ -0,0 +1,71 @@
+package com.dac.graphql.core.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryLogTest {
+
+    @Test
+    void fastOperationsAreNotKeptUnlessTheyFail() {
+        QueryLog queryLog = new QueryLog(0, 60_000, 100, "hash", 10);
+        queryLog.sql("Book", "SELECT * FROM Book", null, System.nanoTime(), null);
+        assertTrue(queryLog.slowOperations().isEmpty());
+        queryLog.sql("Book", "SELECT * FROM Book WHERE id = ?", new Object[]{"b1"}, System.nanoTime(), new SQLException("boom"));
+        QueryLog.Entry entry = queryLog.slowOperations().get(0);
+        assertEquals("sql", entry.type());
+        assertEquals("Book", entry.name());
+        assertEquals("boom", entry.error());
+    }
+
+    @Test
+    void ringBufferKeepsTheMostRecentSlowOperationsNewestFirst() {
+        QueryLog queryLog = new QueryLog(0, 0, 100, "plain", 2);
+        for (String id : List.of("b1", "b2", "b3")) {
+            queryLog.sql("Book", "SELECT * FROM Book WHERE id = ?", new Object[]{id}, System.nanoTime(), null);
+        }
+        List<QueryLog.Entry> entries = queryLog.slowOperations();
+        assertEquals(List.of(List.of("b3"), List.of("b2")), entries.stream().map(QueryLog.Entry::parameters).toList());
+        assertNull(entries.get(0).error());
+    }
+
+    @Test
+    void rendersParametersPerMode() {
+        List<Object> values = Arrays.asList("secret", 42, null);
+        assertEquals(Arrays.asList("secret", "42", null), new QueryLog(0, 0, 100, "plain", 1).render(values));
+        assertEquals(Arrays.asList(QueryLog.REDACTED, QueryLog.REDACTED, null), new QueryLog(0, 0, 100, "redact", 1).render(values));
+        List<String> hashed = new QueryLog(0, 0, 100, "HASH", 1).render(values);
+        assertEquals("2bb80d53", hashed.get(0));
+        assertEquals(8, hashed.get(1).length());
+    }
+
+    @Test
+    void graphqlOperationsLogTheQueryHashUnlessPlain() {
+        QueryLog hashed = new QueryLog(0, 0, 100, "hash", 1);
+        hashed.operation("spec", "Books", "{ books { id } }", Map.of("id", "b1"), System.nanoTime(), null);
+        QueryLog.Entry entry = hashed.slowOperations().get(0);
+        assertEquals("spec", entry.spec());
+        assertEquals(64, entry.statement().length());
+        QueryLog plain = new QueryLog(0, 0, 100, "plain", 1);
+        plain.operation("spec", null, "{ books { id } }", null, System.nanoTime(), null);
+        assertEquals("{ books { id } }", plain.slowOperations().get(0).statement());
+    }
+
+    @Test
+    void linesBeyondThePerSecondLimitAreDropped() {
+        QueryLog queryLog = new QueryLog(0, 0, 1, "hash", 0);
+        for (int i = 0; i < 5; i++) {
+            queryLog.sql("Book", "SELECT * FROM Book", null, System.nanoTime(), null);
+        }
+        // A second boundary between calls resets the window at most once
+        assertTrue(queryLog.droppedCount() >= 3);
+        assertTrue(queryLog.slowOperations().isEmpty());
+    }
+}
@@ -0,0 +1,81 @@
+package com.dac.graphql.core.service;
+
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RowDataLoaderFactoryTest {
+    private final DatabaseAdapter adapter = Mockito.mock(DatabaseAdapter.class);
+
+    @Test
+    void mapsRowsBackInKeyOrder() throws Exception {
+        when(adapter.executeQueryByKeys(anyString(), anyList(), anyString(), anyList())).thenReturn(List.of(
+                Map.of("ID", 2, "name", "Bob"), Map.of("ID", 1, "name", "Alice")));
+        RowDataLoaderFactory factory = new RowDataLoaderFactory(adapter, 100, true);
+        DataLoaderRegistry registry = factory.newRegistry();
+        DataLoader<Object, Map<String, Object>> loader = factory.getLoader(registry, "Person", "id", List.of());
+        assertSame(loader, factory.getLoader(registry, "Person", "id", List.of()));
+
+        CompletableFuture<Map<String, Object>> one = loader.load("1");
+        CompletableFuture<Map<String, Object>> two = loader.load("2");
+        CompletableFuture<Map<String, Object>> missing = loader.load("3");
+        registry.dispatchAll();
+
+        assertEquals("Alice", one.get().get("name"));
+        assertEquals("Bob", two.get().get("name"));
+        assertNull(missing.get());
+        verify(adapter, times(1)).executeQueryByKeys("Person", List.of(), "id", List.of("1", "2", "3"));
+    }
+
+    @Test
+    void addsKeyColumnToProjection() throws Exception {
+        when(adapter.executeQueryByKeys(anyString(), anyList(), anyString(), anyList())).thenReturn(List.of());
+        RowDataLoaderFactory factory = new RowDataLoaderFactory(adapter, 100, true);
+        DataLoaderRegistry registry = factory.newRegistry();
+        DataLoader<Object, Map<String, Object>> names = factory.getLoader(registry, "Person", "id", List.of("name"));
+        assertNotSame(names, factory.getLoader(registry, "Person", "id", List.of("email")));
+        names.load("1");
+        registry.dispatchAll();
+        verify(adapter).executeQueryByKeys("Person", List.of("name", "id"), "id", List.of("1"));
+    }
+
+    @Test
+    void splitsBatchesAtMaxBatchSize() throws Exception {
+        when(adapter.executeQueryByKeys(anyString(), anyList(), anyString(), anyList())).thenReturn(List.of());
+        RowDataLoaderFactory factory = new RowDataLoaderFactory(adapter, 2, true);
+        DataLoaderRegistry registry = factory.newRegistry();
+        DataLoader<Object, Map<String, Object>> loader = factory.getLoader(registry, "Person", "id", List.of());
+        loader.load("1");
+        loader.load("2");
+        loader.load("3");
+        registry.dispatchAll();
+        verify(adapter, times(2)).executeQueryByKeys(anyString(), anyList(), anyString(), anyList());
+    }
+
+    @Test
+    void failsAllKeysOnSqlError() throws Exception {
+        when(adapter.executeQueryByKeys(anyString(), anyList(), anyString(), any())).thenThrow(new SQLException("boom"));
+        RowDataLoaderFactory factory = new RowDataLoaderFactory(adapter, 100, true);
+        DataLoaderRegistry registry = factory.newRegistry();
+        CompletableFuture<Map<String, Object>> row = factory.getLoader(registry, "Person", "id", List.of()).load("1");
+        registry.dispatchAll();
+        ExecutionException e = assertThrows(ExecutionException.class, row::get);
+        assertTrue(e.getCause().getMessage().contains("SQL error querying table 'Person'"));
+    }
+}
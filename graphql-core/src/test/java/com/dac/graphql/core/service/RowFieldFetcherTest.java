@@ -0,0 +1,51 @@
+package com.dac.graphql.core.service;
+
+import com.dac.graphql.core.adapter.ResultRows;
+import graphql.Scalars;
+import graphql.schema.GraphQLFieldDefinition;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+class RowFieldFetcherTest {
+
+    private static ResultRows rows(String column, Object... values) throws Exception {
+        ResultSetMetaData meta = Mockito.mock(ResultSetMetaData.class);
+        when(meta.getColumnCount()).thenReturn(1);
+        when(meta.getColumnName(1)).thenReturn(column);
+        ResultSet rs = Mockito.mock(ResultSet.class);
+        when(rs.getMetaData()).thenReturn(meta);
+        // true once per value, then false
+        Boolean[] more = new Boolean[values.length];
+        java.util.Arrays.fill(more, true);
+        more[values.length - 1] = false;
+        when(rs.next()).thenReturn(true, more);
+        when(rs.getObject(1)).thenReturn(values[0], java.util.Arrays.copyOfRange(values, 1, values.length));
+        return ResultRows.read(rs);
+    }
+
+    @Test
+    void readsRowsFromEachResultByPosition() throws Exception {
+        RowFieldFetcher fetcher = new RowFieldFetcher("title");
+        ResultRows first = rows("title", "A", "B");
+        // H2 upper-cases unquoted column names
+        ResultRows second = rows("TITLE", "C");
+        assertEquals("A", fetcher.get(null, first.get(0), () -> null));
+        assertEquals("B", fetcher.get(null, first.get(1), () -> null));
+        assertEquals("C", fetcher.get(null, second.get(0), () -> null));
+        assertNull(new RowFieldFetcher("year").get(null, first.get(0), () -> null));
+    }
+
+    @Test
+    void readsOtherSourcesAsProperties() throws Exception {
+        GraphQLFieldDefinition title = GraphQLFieldDefinition.newFieldDefinition().name("title").type(Scalars.GraphQLString).build();
+        assertEquals("A", new RowFieldFetcher("title").get(title, Map.of("title", "A"), () -> null));
+    }
+}
@@ -32,6 +32,17 @@ class SchemaRegistryTest {
         }
     }
 
+    @Test
+    void testSetSchemaFileBumpsVersion() {
+        SchemaRegistry registry = new SchemaRegistry();
+        assertEquals(0L, registry.getSchemaVersion("testspec"));
+        File file = new File("test.graphql");
+        registry.setSchemaFile("testspec", file);
+        assertEquals(1L, registry.getSchemaVersion("testspec"));
+        registry.setSchemaFile("testspec", file);
+        assertEquals(2L, registry.getSchemaVersion("testspec"));
+    }
+
     @Test
     void testGetAllSchemas() {
         SchemaRegistry registry = new SchemaRegistry();
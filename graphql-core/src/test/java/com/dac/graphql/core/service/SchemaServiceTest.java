@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 import java.io.File;
 import java.io.FileWriter;
 import java.nio.file.Files;
+import java.util.List;
+import graphql.language.InputValueDefinition;
 import static org.junit.jupiter.api.Assertions.*;
 import com.dac.graphql.core.adapter.DatabaseAdapter;
 
@@ -72,4 +74,171 @@ class SchemaServiceTest {
         try (FileWriter fw = new FileWriter(file)) { fw.write(schema); }
         assertNotNull(schemaService.getMutationType(file));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testLoadSchemaModel() throws Exception {
+        String schema = "type Book { id: ID! title: String! tags: [String] }\n"
+                + "type Query { books: [Book] book(id: ID!): Book }\n"
+                + "type Mutation { addBook(id: ID!, title: String!): Book }";
+        File file = new File("test-schema.graphql");
+        try (FileWriter fw = new FileWriter(file)) { fw.write(schema); }
+        SchemaModel model = schemaService.loadSchemaModel(file);
+        assertNotNull(model.getDocument());
+        assertNotNull(model.getTypeRegistry().getType("Book").orElse(null));
+        assertEquals("Query", model.getQueryType().getName());
+        assertEquals("Mutation", model.getMutationType().getName());
+        assertEquals(1, model.getObjectTypes().size());
+        SchemaModel.Table book = model.getTable("Book");
+        assertEquals("id", book.keyColumn());
+        assertEquals(3, book.columns().size());
+        assertTrue(book.getColumn("id").nonNull());
+        assertEquals("ID", book.getColumn("id").graphQLType());
+        assertTrue(book.getColumn("tags").list());
+        assertEquals("id TEXT, title TEXT, tags TEXT", book.columnDefinitions());
+        assertThrows(UnsupportedOperationException.class, () -> model.getTables().clear());
+    }
+
+    @Test
+    void testLoadSchemaModelAddsListArguments() throws Exception {
+        String schema = "type Book { id: ID! title: String! }\n"
+                + "type Query { books(limit: Int): [Book] book(id: ID!): Book }";
+        File file = new File("test-schema.graphql");
+        try (FileWriter fw = new FileWriter(file)) { fw.write(schema); }
+        SchemaModel model = schemaService.loadSchemaModel(file);
+        List<String> books = model.getQueryType().getFieldDefinitions().get(0).getInputValueDefinitions().stream()
+                .map(InputValueDefinition::getName).toList();
+        assertEquals(List.of("limit", "first", "after", "offset", "where", "orderBy"), books);
+        assertEquals(1, model.getQueryType().getFieldDefinitions().get(1).getInputValueDefinitions().size());
+        assertTrue(model.getTypeRegistry().getType("BookFilter").isPresent());
+        assertTrue(model.getTypeRegistry().getType("BookOrderBy").isPresent());
+        assertTrue(model.getTypeRegistry().getType("StringFilter").isPresent());
+        assertFalse(model.getTypeRegistry().getType("IntFilter").isPresent());
+    }
+
+    @Test
+    void testLoadSchemaModelAddsBulkMutations() throws Exception {
+        SchemaModel model = schemaService.loadSchemaModel(new File("src/test/resources/relations.graphql"));
+        List<String> mutations = model.getMutationType().getFieldDefinitions().stream()
+                .map(graphql.language.FieldDefinition::getName).toList();
+        assertTrue(mutations.containsAll(List.of("addAuthor", "addAuthors", "addBooks", "addTags")));
+        graphql.language.InputObjectTypeDefinition bookInput = model.getTypeRegistry()
+                .getType("BookInput", graphql.language.InputObjectTypeDefinition.class).orElseThrow();
+        // The author reference is given by key; list fields are not part of the input
+        assertEquals("ID", ((graphql.language.TypeName) bookInput.getInputValueDefinitions().stream()
+                .filter(field -> field.getName().equals("author")).findFirst().orElseThrow().getType()).getName());
+        // The key may be left to the database
+        assertTrue(bookInput.getInputValueDefinitions().stream()
+                .filter(field -> field.getName().equals("id")).findFirst().orElseThrow().getType() instanceof graphql.language.TypeName);
+        assertTrue(model.getTypeRegistry().getType("AuthorInput", graphql.language.InputObjectTypeDefinition.class)
+                .orElseThrow().getInputValueDefinitions().stream().noneMatch(field -> field.getName().equals("books")));
+        assertEquals(model.getTable("Book"), BulkMutations.targetTable(model, model.getMutationType().getFieldDefinitions()
+                .stream().filter(field -> field.getName().equals("addBooks")).findFirst().orElseThrow()));
+    }
+
+    @Test
+    void testLoadSchemaModelIndexesLookupColumns() throws Exception {
+        String schema = "type Employee { id: ID! email: String! @unique department: String title: String @index }\n"
+                + "type Query { employee(id: ID!): Employee employeesByDepartment(department: String, title: String, first: Int): [Employee] }";
+        File file = new File("test-schema.graphql");
+        try (FileWriter fw = new FileWriter(file)) { fw.write(schema); }
+        SchemaModel model = schemaService.loadSchemaModel(file);
+        assertEquals(List.of(
+                new SchemaModel.Index(List.of("email"), true),
+                new SchemaModel.Index(List.of("title"), false),
+                new SchemaModel.Index(List.of("department", "title"), false)), model.getTable("Employee").indexes());
+        // The directives are declared so the schema still builds
+        assertTrue(model.getTypeRegistry().getDirectiveDefinition("unique").isPresent());
+    }
+
+    @Test
+    void testLoadSchemaModelIndexesRelationKeys() throws Exception {
+        SchemaModel model = schemaService.loadSchemaModel(new File("src/test/resources/relations.graphql"));
+        assertTrue(model.getTable("Book").indexes().contains(new SchemaModel.Index(List.of("author"), false)));
+        // Keys resolved through relations are primary keys and get no extra index
+        assertTrue(model.getTable("Tag").indexes().isEmpty());
+        assertEquals(List.of(new SchemaModel.Index(List.of("parent_key"), false)), model.getJoinTables().get(0).indexes());
+    }
+
+    @Test
+    void testProcessSchemaModelCreatesIndexes() throws Exception {
+        List<String> statements = new java.util.ArrayList<>();
+        schemaService.setDatabaseAdapter(new DatabaseAdapter() {
+            @Override public java.sql.Connection getConnection() { return null; }
+            @Override public java.util.List<java.util.Map<String, Object>> executeQuery(String sql, Object... params) { return java.util.Collections.emptyList(); }
+            @Override public java.util.Map<String, Object> executeQuerySingle(String sql, Object... params) { return null; }
+            @Override public int executeUpdate(String sql, Object... params) { statements.add(sql); return 0; }
+            @Override public void createTable(String tableName, String columns) { statements.add("CREATE TABLE " + tableName); }
+            @Override public String mapGraphQLTypeToSql(String graphQLType) { return "TEXT"; }
+            @Override public String getDatabaseType() { return "test"; }
+        });
+        String schema = "type Book { id: ID! title: String! }\ntype Query { book(id: ID!): Book }";
+        File file = new File("test-schema.graphql");
+        try (FileWriter fw = new FileWriter(file)) { fw.write(schema); }
+        schemaService.processSchemaFile(file);
+        // The key is the primary key, which needs no index of its own
+        assertEquals(List.of("CREATE TABLE Book"), statements);
+    }
+
+    @Test
+    void testGeneratedTablesUseTheMappedTypesAndPrimaryKey() throws Exception {
+        List<String> tables = new java.util.ArrayList<>();
+        List<String> statements = new java.util.ArrayList<>();
+        schemaService.setDatabaseAdapter(new DatabaseAdapter() {
+            @Override public java.sql.Connection getConnection() { return null; }
+            @Override public java.util.List<java.util.Map<String, Object>> executeQuery(String sql, Object... params) { return java.util.Collections.emptyList(); }
+            @Override public java.util.Map<String, Object> executeQuerySingle(String sql, Object... params) { return null; }
+            @Override public int executeUpdate(String sql, Object... params) { statements.add(sql); return 0; }
+            @Override public void createTable(String tableName, String columns) { tables.add(tableName + " (" + columns + ")"); }
+            @Override public String mapGraphQLTypeToSql(String graphQLType) {
+                return switch (graphQLType) {
+                    case "ID" -> "SERIAL PRIMARY KEY";
+                    case "Int" -> "INTEGER";
+                    case "Float" -> "REAL";
+                    case "Boolean" -> "BOOLEAN";
+                    default -> "TEXT";
+                };
+            }
+            @Override public String keyReferenceSqlType() { return "INTEGER"; }
+            @Override public String getDatabaseType() { return "test"; }
+        });
+        String schema = """
+                type Author { id: ID! name: String! books: [Book] tags: [Tag] }
+                type Tag { id: ID! }
+                type Book { id: ID! isbn: ID title: String! pages: Int! price: Float inPrint: Boolean author: Author keywords: [String] }
+                type Query { book(id: ID!): Book booksByIsbn(isbn: ID): [Book] }
+                """;
+        File file = new File("test-schema.graphql");
+        try (FileWriter fw = new FileWriter(file)) { fw.write(schema); }
+        schemaService.processSchemaFile(file);
+        assertEquals(List.of(
+                "Author (id SERIAL PRIMARY KEY, name TEXT)",
+                "Tag (id SERIAL PRIMARY KEY)",
+                "Book (id SERIAL PRIMARY KEY, isbn INTEGER, title TEXT, pages INTEGER, price REAL, inPrint BOOLEAN, "
+                        + "author INTEGER, keywords TEXT)",
+                "Author_tags (parent_key INTEGER, child_key INTEGER)"), tables);
+        assertFalse(statements.stream().anyMatch(sql -> sql.contains("(id)")), statements.toString());
+        assertTrue(statements.contains("CREATE INDEX IF NOT EXISTS idx_Book_isbn ON Book (isbn)"), statements.toString());
+    }
+
+    @Test
+    void testLoadSchemaModelDetectsRelations() throws Exception {
+        SchemaModel model = schemaService.loadSchemaModel(new File("src/test/resources/relations.graphql"));
+        SchemaModel.Table author = model.getTable("Author");
+        assertEquals("id TEXT, name TEXT", author.columnDefinitions());
+        SchemaModel.Relation books = author.getRelation("books");
+        assertEquals(SchemaModel.RelationKind.ONE_TO_MANY, books.kind());
+        assertEquals("Book", books.targetTable());
+        assertEquals("author", books.foreignKeyColumn());
+        SchemaModel.Relation tags = author.getRelation("tags");
+        assertEquals(SchemaModel.RelationKind.MANY_TO_MANY, tags.kind());
+        assertEquals("Author_tags", tags.joinTable());
+
+        SchemaModel.Table book = model.getTable("Book");
+        assertEquals(SchemaModel.RelationKind.MANY_TO_ONE, book.getRelation("author").kind());
+        assertNotNull(book.getColumn("author"));
+
+        assertEquals(1, model.getJoinTables().size());
+        assertEquals("parent_key TEXT, child_key TEXT", model.getJoinTables().get(0).columnDefinitions());
+        assertSame(book, model.getTableIgnoreCase("book"));
+    }
+}
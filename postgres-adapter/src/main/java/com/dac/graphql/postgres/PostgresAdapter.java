@@ -1,10 +1,22 @@
 package com.dac.graphql.postgres;
 
+import com.dac.graphql.core.adapter.ChangeListener;
 import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.adapter.JdbcSupport;
 import com.dac.graphql.core.adapter.ConnectionProvider;
+import com.dac.graphql.core.adapter.PooledConnectionProvider;
+import com.dac.graphql.core.adapter.ResultRows;
+import com.dac.graphql.core.adapter.SqlUpdate;
+import com.dac.graphql.core.adapter.StatementCache;
+import com.zaxxer.hikari.HikariConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.*;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,6 +26,9 @@ import javax.sql.DataSource;
 @Component
 @Profile("postgres")
 public class PostgresAdapter implements DatabaseAdapter {
+    // Bytes of CSV sent to the server per COPY write
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     private ConnectionProvider connectionProvider;
     private boolean closeConnections = true;
 
@@ -26,9 +41,53 @@ public class PostgresAdapter implements DatabaseAdapter {
     @Value("${spring.datasource.password}")
     private String dbPassword;
 
-    // Default constructor for Spring
+    // Pool settings for the non-Spring path; the Spring DataSource reads the same properties
+    @Value("${spring.datasource.hikari.minimum-idle:2}")
+    private int poolMinimumIdle = 2;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolMaximumSize = 10;
+
+    @Value("${spring.datasource.hikari.validation-timeout:3000}")
+    private long poolValidationTimeout = 3000;
+
+    @Value("${spring.datasource.hikari.leak-detection-threshold:30000}")
+    private long poolLeakDetectionThreshold = 30000;
+
+    // pgjdbc switches a statement to a named server-side prepared statement after this many executions
+    @Value("${spring.datasource.hikari.data-source-properties.prepareThreshold:3}")
+    private int prepareThreshold = 3;
+
+    @Value("${spring.datasource.hikari.data-source-properties.preparedStatementCacheQueries:256}")
+    private int preparedStatementCacheQueries = 256;
+
+    // GraphQL IDs arrive as strings; unspecified lets the server read them as the integer keys they compare with
+    @Value("${spring.datasource.hikari.data-source-properties.stringtype:unspecified}")
+    private String stringType = "unspecified";
+
+    // Rows fetched per round trip; pgjdbc reads the whole result at once unless this is set
+    @Value("${graphql.jdbc.fetch-size:500}")
+    private int fetchSize = 500;
+
+    // Prepared statements kept per physical connection, keyed by SQL text
+    @Value("${graphql.jdbc.statement-cache-size:64}")
+    private int statementCacheSize = 64;
+
+    private final StatementCache statementCache = new StatementCache(() -> statementCacheSize);
+    private final List<PostgresNotificationListener> listeners = new ArrayList<>();
+
+    // Default constructor: pools connections to dbUrl itself
     public PostgresAdapter() {
-        this.connectionProvider = () -> DriverManager.getConnection(dbUrl, dbUser, dbPassword);
+        this.connectionProvider = new PooledConnectionProvider(() -> {
+            HikariConfig config = PooledConnectionProvider.config("postgres-adapter", dbUrl,
+                    poolMinimumIdle, poolMaximumSize, poolValidationTimeout, poolLeakDetectionThreshold);
+            config.setUsername(dbUser);
+            config.setPassword(dbPassword);
+            config.addDataSourceProperty("prepareThreshold", prepareThreshold);
+            config.addDataSourceProperty("preparedStatementCacheQueries", preparedStatementCacheQueries);
+            config.addDataSourceProperty("stringtype", stringType);
+            return config;
+        });
         this.closeConnections = true;
     }
 
@@ -44,6 +103,11 @@ public class PostgresAdapter implements DatabaseAdapter {
         this.closeConnections = false;
     }
 
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        statementCache.bindTo(meterRegistry, getDatabaseType());
+    }
+
     @Override
     public Connection getConnection() throws SQLException {
         return connectionProvider.getConnection();
@@ -53,39 +117,88 @@ public class PostgresAdapter implements DatabaseAdapter {
     public List<Map<String, Object>> executeQuery(String sql, Object... params) throws SQLException {
         Connection conn = getConnection();
         try {
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                for (int i = 0; i < params.length; i++) {
-                    stmt.setObject(i + 1, params[i]);
-                }
-                try (ResultSet rs = stmt.executeQuery()) {
-                    List<Map<String, Object>> results = new ArrayList<>();
-                    ResultSetMetaData meta = rs.getMetaData();
-                    while (rs.next()) {
-                        Map<String, Object> row = new HashMap<>();
-                        for (int i = 1; i <= meta.getColumnCount(); i++) {
-                            row.put(meta.getColumnName(i), rs.getObject(i));
-                        }
-                        results.add(row);
-                    }
-                    return results;
-                }
+            // pgjdbc only uses a cursor for the fetch size inside a transaction
+            boolean autoCommit = fetchSize > 0 && conn.getAutoCommit();
+            if (autoCommit) conn.setAutoCommit(false);
+            try {
+                return queryRows(conn, sql, params);
+            } finally {
+                if (autoCommit) conn.setAutoCommit(true);
             }
         } finally {
             if (closeConnections && conn != null) conn.close();
         }
     }
 
+    @Override
+    public void streamQuery(String sql, Object[] params, RowHandler handler) throws SQLException {
+        Connection conn = getConnection();
+        try {
+            // pgjdbc only uses a cursor for the fetch size inside a transaction
+            boolean autoCommit = fetchSize > 0 && conn.getAutoCommit();
+            if (autoCommit) conn.setAutoCommit(false);
+            try (StatementCache.Lease lease = statementCache.prepare(conn, sql)) {
+                PreparedStatement stmt = lease.statement();
+                stmt.setFetchSize(fetchSize);
+                JdbcSupport.streamRows(stmt, params, handler);
+            } finally {
+                if (autoCommit) conn.setAutoCommit(true);
+            }
+        } finally {
+            if (closeConnections && conn != null) conn.close();
+        }
+    }
+
+    private List<Map<String, Object>> queryRows(Connection conn, String sql, Object... params) throws SQLException {
+        try (StatementCache.Lease lease = statementCache.prepare(conn, sql)) {
+            PreparedStatement stmt = lease.statement();
+            stmt.setFetchSize(fetchSize);
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                return ResultRows.read(rs);
+            }
+        }
+    }
+
     @Override
     public Map<String, Object> executeQuerySingle(String sql, Object... params) throws SQLException {
         List<Map<String, Object>> results = executeQuery(sql, params);
         return results.isEmpty() ? null : results.get(0);
     }
 
+    @Override
+    public List<Map<String, Object>> executeQueryByKeys(String tableName, List<String> columns, String keyColumn, List<?> keys) throws SQLException {
+        if (keys.isEmpty()) return Collections.emptyList();
+        // One statement shape for any number of keys: WHERE key = ANY(array)
+        String sql = "SELECT " + JdbcSupport.selectList(columns) + " FROM " + tableName + " WHERE " + keyColumn + " = ANY(?)";
+        Connection conn = getConnection();
+        try {
+            Array keyArray = conn.createArrayOf(arrayElementType(keys), keys.toArray());
+            try {
+                return queryRows(conn, sql, keyArray);
+            } finally {
+                keyArray.free();
+            }
+        } finally {
+            if (closeConnections && conn != null) conn.close();
+        }
+    }
+
+    private static String arrayElementType(List<?> keys) {
+        Object first = keys.get(0);
+        if (first instanceof Integer) return "integer";
+        if (first instanceof Long) return "bigint";
+        return "varchar";
+    }
+
     @Override
     public int executeUpdate(String sql, Object... params) throws SQLException {
         Connection conn = getConnection();
         try {
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (StatementCache.Lease lease = statementCache.prepare(conn, sql)) {
+                PreparedStatement stmt = lease.statement();
                 for (int i = 0; i < params.length; i++) {
                     stmt.setObject(i + 1, params[i]);
                 }
@@ -96,6 +209,63 @@ public class PostgresAdapter implements DatabaseAdapter {
         }
     }
 
+    @Override
+    public int[] executeBatch(List<SqlUpdate> updates) throws SQLException {
+        if (updates.isEmpty()) return new int[0];
+        Connection conn = getConnection();
+        try {
+            return JdbcSupport.batchUpdate(conn, updates);
+        } finally {
+            if (closeConnections && conn != null) conn.close();
+        }
+    }
+
+    @Override
+    public long bulkInsert(String tableName, List<String> columns, Iterator<Object[]> rows) throws SQLException {
+        Connection conn = getConnection();
+        try {
+            if (!conn.isWrapperFor(PGConnection.class)) {
+                // Not a PostgreSQL server connection (e.g. H2 in tests): multi-row INSERTs instead
+                return JdbcSupport.insertRows(conn, tableName, columns, rows);
+            }
+            String sql = "COPY " + tableName + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+            CopyIn copy = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+            try {
+                StringBuilder buffer = new StringBuilder();
+                while (rows.hasNext()) {
+                    appendCsvRow(buffer, rows.next());
+                    if (buffer.length() >= COPY_BUFFER_SIZE) {
+                        writeToCopy(copy, buffer);
+                    }
+                }
+                writeToCopy(copy, buffer);
+                return copy.endCopy();
+            } finally {
+                if (copy.isActive()) copy.cancelCopy();
+            }
+        } finally {
+            if (closeConnections && conn != null) conn.close();
+        }
+    }
+
+    private static void writeToCopy(CopyIn copy, StringBuilder buffer) throws SQLException {
+        if (buffer.length() == 0) return;
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    // In COPY csv format an unquoted empty field is NULL and a quoted one is the empty string
+    private static void appendCsvRow(StringBuilder buffer, Object[] row) {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) buffer.append(',');
+            if (row[i] != null) {
+                buffer.append('"').append(String.valueOf(row[i]).replace("\"", "\"\"")).append('"');
+            }
+        }
+        buffer.append('\n');
+    }
+
     @Override
     public void createTable(String tableName, String columns) throws SQLException {
         String sql = "CREATE TABLE IF NOT EXISTS " + tableName + " (" + columns + ");";
@@ -109,6 +279,76 @@ public class PostgresAdapter implements DatabaseAdapter {
         }
     }
 
+    @Override
+    public Set<String> indexedColumns(String tableName) throws SQLException {
+        Connection conn = getConnection();
+        try {
+            return JdbcSupport.indexedColumns(conn, tableName);
+        } finally {
+            if (closeConnections && conn != null) conn.close();
+        }
+    }
+
+    @Override
+    public String primaryKeyColumn(String tableName) throws SQLException {
+        Connection conn = getConnection();
+        try {
+            return JdbcSupport.primaryKeyColumn(conn, tableName);
+        } finally {
+            if (closeConnections && conn != null) conn.close();
+        }
+    }
+
+    @Override
+    public void publish(String channel, String payload) throws SQLException {
+        Connection conn = getConnection();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT pg_notify(?, ?)")) {
+            stmt.setString(1, channel);
+            stmt.setString(2, payload);
+            stmt.execute();
+        } finally {
+            if (closeConnections && conn != null) conn.close();
+        }
+    }
+
+    /**
+     * Listens on its own connection, opened to dbUrl or taken from the pool for as long as the
+     * adapter lives. An adapter sharing a single connection cannot listen.
+     */
+    @Override
+    public synchronized boolean subscribe(String channel, ChangeListener listener) {
+        PostgresNotificationListener.ConnectionFactory connections;
+        if (dbUrl != null) {
+            connections = () -> DriverManager.getConnection(dbUrl, dbUser, dbPassword);
+        } else if (closeConnections) {
+            connections = connectionProvider::getConnection;
+        } else {
+            return false;
+        }
+        PostgresNotificationListener notificationListener = new PostgresNotificationListener(connections, channel, listener);
+        listeners.add(notificationListener);
+        notificationListener.start();
+        return true;
+    }
+
+    /**
+     * The planner's row estimate from pg_class, kept current by autovacuum and ANALYZE. Tables
+     * that were never analyzed report -1.
+     */
+    @Override
+    public long estimatedRowCount(String tableName) throws SQLException {
+        Connection conn = getConnection();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT reltuples FROM pg_class WHERE oid = to_regclass(?)")) {
+            stmt.setString(1, tableName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                long rows = rs.next() ? (long) rs.getDouble(1) : -1;
+                return rows > 0 ? rows : -1;
+            }
+        } finally {
+            if (closeConnections && conn != null) conn.close();
+        }
+    }
+
     @Override
     public String mapGraphQLTypeToSql(String graphQLType) {
         switch (graphQLType.replace("!", "")) {
@@ -121,8 +361,23 @@ public class PostgresAdapter implements DatabaseAdapter {
         }
     }
 
+    /**
+     * Keys come from SERIAL columns, so references to them are integers.
+     */
+    @Override
+    public String keyReferenceSqlType() {
+        return "INTEGER";
+    }
+
     @Override
     public String getDatabaseType() {
         return "postgres";
     }
+
+    @PreDestroy
+    public synchronized void close() {
+        listeners.forEach(PostgresNotificationListener::stop);
+        listeners.clear();
+        if (connectionProvider instanceof PooledConnectionProvider pool) pool.close();
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.dac.graphql.postgres;
+
+import com.dac.graphql.core.adapter.ChangeListener;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+/**
+ * Runs LISTEN on a dedicated connection and hands each notification on the channel to a
+ * {@link ChangeListener}, on a daemon thread of its own. pgjdbc only reads notifications when
+ * the connection is used, so the thread polls with a timeout. A lost connection is reopened
+ * with exponential backoff; notifications sent meanwhile are lost, so the listener is told to
+ * resynchronize once listening again.
+ */
+class PostgresNotificationListener implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresNotificationListener.class);
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final int POLL_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    @FunctionalInterface
+    interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final ConnectionFactory connections;
+    private final String channel;
+    private final ChangeListener listener;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile Connection connection;
+
+    PostgresNotificationListener(ConnectionFactory connections, String channel, ChangeListener listener) {
+        // LISTEN takes an identifier, not a parameter
+        if (!CHANNEL.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid notification channel: " + channel);
+        }
+        this.connections = connections;
+        this.channel = channel;
+        this.listener = listener;
+        this.thread = new Thread(this, "pg-listen-" + channel);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        thread.interrupt();
+        Connection current = connection;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException e) {
+                // Closing only unblocks the poll
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        long backoff = 1000;
+        boolean listenedBefore = false;
+        while (running) {
+            try (Connection conn = connections.open()) {
+                connection = conn;
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN " + channel);
+                }
+                if (listenedBefore) listener.resynchronize();
+                listenedBefore = true;
+                backoff = 1000;
+                poll(conn.unwrap(PGConnection.class));
+            } catch (SQLException e) {
+                if (!running) break;
+                log.warn("Listening on {} failed, retrying in {} ms: {}", channel, backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    private void poll(PGConnection conn) throws SQLException {
+        while (running) {
+            PGNotification[] notifications = conn.getNotifications(POLL_MILLIS);
+            if (notifications == null) continue;
+            for (PGNotification notification : notifications) {
+                try {
+                    listener.changed(notification.getParameter());
+                } catch (RuntimeException e) {
+                    log.warn("Change listener failed on {}: {}", channel, e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package com.dac.graphql.postgres;
 
+import com.dac.graphql.core.adapter.ChangeListener;
+import com.dac.graphql.core.adapter.SqlUpdate;
 import org.h2.jdbcx.JdbcDataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -41,6 +47,7 @@ class PostgresAdapterTest {
         assertEquals("DOUBLE PRECISION", adapter.mapGraphQLTypeToSql("Float"));
         assertEquals("BOOLEAN", adapter.mapGraphQLTypeToSql("Boolean"));
         assertEquals("SERIAL PRIMARY KEY", adapter.mapGraphQLTypeToSql("ID"));
+        assertEquals("INTEGER", adapter.keyReferenceSqlType());
     }
 
     @Test
@@ -91,6 +98,111 @@ class PostgresAdapterTest {
         assertEquals("Bob", row.get("NAME"));
     }
 
+    @Test
+    void testExecuteBatchCommitsAtomically() throws SQLException {
+        adapter.createTable("TestTable", "id INTEGER PRIMARY KEY, name TEXT");
+        int[] counts = adapter.executeBatch(List.of(
+                new SqlUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", 1, "Alice"),
+                new SqlUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", 2, "Bob"),
+                new SqlUpdate("UPDATE TestTable SET name = ? WHERE id = ?", "Carol", 2)));
+        assertEquals(3, counts.length);
+        assertEquals(1, counts[2]);
+        assertThrows(SQLException.class, () -> adapter.executeBatch(List.of(
+                new SqlUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", 3, "Dan"),
+                new SqlUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", 1, "Duplicate"))));
+        // The failed batch was rolled back as a whole
+        assertEquals(2, adapter.executeQuery("SELECT * FROM TestTable").size());
+        assertEquals("Carol", adapter.executeQuerySingle("SELECT name FROM TestTable WHERE id = ?", 2).values().iterator().next());
+    }
+
+    @Test
+    void testBulkInsertFallsBackToMultiRowInsert() throws SQLException {
+        adapter.createTable("TestTable", "id INTEGER PRIMARY KEY, name TEXT");
+        List<Object[]> rows = new java.util.ArrayList<>();
+        for (int i = 1; i <= 1203; i++) {
+            rows.add(new Object[]{i, "name" + i});
+        }
+        assertEquals(1203, adapter.bulkInsert("TestTable", List.of("id", "name"), rows.iterator()));
+        assertEquals(1203, adapter.executeQuery("SELECT * FROM TestTable").size());
+    }
+
+    @Test
+    void testBulkInsertWithoutKeysUsesTheSequence() throws SQLException {
+        adapter.createTable("TestTable", "id " + adapter.mapGraphQLTypeToSql("ID!") + ", name TEXT");
+        List<Object[]> rows = List.of(new Object[]{"A"}, new Object[]{"B"});
+        assertEquals(2, adapter.bulkInsert("TestTable", List.of("name"), rows.iterator()));
+        assertEquals(List.of(1, 2), adapter.executeQuery("SELECT id FROM TestTable ORDER BY id").stream()
+                .map(row -> ((Number) row.values().iterator().next()).intValue()).toList());
+    }
+
+    @Test
+    void testBulkInsertStreamsCsvThroughCopy() throws Exception {
+        Connection conn = Mockito.mock(Connection.class);
+        PGConnection pgConnection = Mockito.mock(PGConnection.class);
+        CopyManager copyManager = Mockito.mock(CopyManager.class);
+        CopyIn copyIn = Mockito.mock(CopyIn.class);
+        Mockito.when(conn.isWrapperFor(PGConnection.class)).thenReturn(true);
+        Mockito.when(conn.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        Mockito.when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        Mockito.when(copyManager.copyIn("COPY Book (id, title) FROM STDIN WITH (FORMAT csv)")).thenReturn(copyIn);
+        Mockito.when(copyIn.endCopy()).thenReturn(3L);
+        java.io.ByteArrayOutputStream sent = new java.io.ByteArrayOutputStream();
+        Mockito.doAnswer(invocation -> {
+            sent.write((byte[]) invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+            return null;
+        }).when(copyIn).writeToCopy(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt());
+        PostgresAdapter copyAdapter = new PostgresAdapter(() -> conn);
+        List<Object[]> rows = List.of(new Object[]{1, "Plain"}, new Object[]{2, "Say \"hi\", twice"}, new Object[]{3, null});
+        assertEquals(3, copyAdapter.bulkInsert("Book", List.of("id", "title"), rows.iterator()));
+        assertEquals("\"1\",\"Plain\"\n\"2\",\"Say \"\"hi\"\", twice\"\n\"3\",\n", sent.toString());
+    }
+
+    @Test
+    void testSubscribeDeliversNotificationsAndResynchronizesAfterReconnecting() throws Exception {
+        DataSource dataSource = Mockito.mock(DataSource.class);
+        Connection first = Mockito.mock(Connection.class);
+        Connection second = Mockito.mock(Connection.class);
+        PGConnection firstPg = Mockito.mock(PGConnection.class);
+        PGConnection secondPg = Mockito.mock(PGConnection.class);
+        PGNotification notification = Mockito.mock(PGNotification.class);
+        Mockito.when(dataSource.getConnection()).thenReturn(first, second);
+        Mockito.when(first.createStatement()).thenReturn(Mockito.mock(Statement.class));
+        Mockito.when(second.createStatement()).thenReturn(Mockito.mock(Statement.class));
+        Mockito.when(first.unwrap(PGConnection.class)).thenReturn(firstPg);
+        Mockito.when(second.unwrap(PGConnection.class)).thenReturn(secondPg);
+        Mockito.when(notification.getParameter()).thenReturn("{\"type\":\"table\"}");
+        Mockito.when(firstPg.getNotifications(Mockito.anyInt()))
+                .thenReturn(new PGNotification[]{notification})
+                .thenThrow(new SQLException("connection lost"));
+        Mockito.when(secondPg.getNotifications(Mockito.anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(10);
+            return null;
+        });
+        ChangeListener listener = Mockito.mock(ChangeListener.class);
+
+        PostgresAdapter listening = new PostgresAdapter(dataSource);
+        assertTrue(listening.subscribe("graphql_changes", listener));
+        Mockito.verify(listener, Mockito.timeout(5000)).changed("{\"type\":\"table\"}");
+        Mockito.verify(listener, Mockito.timeout(5000)).resynchronize();
+        listening.close();
+        Mockito.verify(second, Mockito.timeout(5000).atLeastOnce()).close();
+        assertThrows(IllegalArgumentException.class, () -> new PostgresAdapter(dataSource).subscribe("drop table", listener));
+        assertFalse(adapter.subscribe("graphql_changes", listener));
+    }
+
+    @Test
+    void testExecuteQueryByKeysUsesOneArrayParameter() throws SQLException {
+        adapter.createTable("TestTable", "id INTEGER PRIMARY KEY, name TEXT");
+        adapter.executeUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", 1, "Alice");
+        adapter.executeUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", 2, "Bob");
+        adapter.executeUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", 3, "Carol");
+        List<Map<String, Object>> result = adapter.executeQueryByKeys("TestTable", List.of(), "id", List.of(3, 1, 9));
+        assertEquals(2, result.size());
+        List<Map<String, Object>> ids = adapter.executeQueryByKeys("TestTable", List.of("id"), "id", List.of(1));
+        assertEquals(1, ids.get(0).size());
+        assertTrue(adapter.executeQueryByKeys("TestTable", List.of(), "id", List.of()).isEmpty());
+    }
+
     @Test
     void testExecuteUpdateReturnsZeroWhenNoRowsAffected() throws SQLException {
         adapter.createTable("TestTable", "id INTEGER PRIMARY KEY, name TEXT");
@@ -142,5 +254,9 @@ class PostgresAdapterTest {
         adapter.createTable("TestTable", "id INTEGER PRIMARY KEY, name TEXT");
         int inserted = adapter.executeUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", 1, "Test");
         assertEquals(1, inserted);
+        try (Connection pooled = adapter.getConnection()) {
+            assertTrue(pooled instanceof com.zaxxer.hikari.pool.HikariProxyConnection);
+        }
+        adapter.close();
     }
 } 
\ No newline at end of file
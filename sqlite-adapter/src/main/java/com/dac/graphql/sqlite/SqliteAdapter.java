@@ -1,7 +1,16 @@
 package com.dac.graphql.sqlite;
 
 import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.adapter.JdbcSupport;
 import com.dac.graphql.core.adapter.ConnectionProvider;
+import com.dac.graphql.core.adapter.PooledConnectionProvider;
+import com.dac.graphql.core.adapter.ResultRows;
+import com.dac.graphql.core.adapter.SqlUpdate;
+import com.dac.graphql.core.adapter.StatementCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
@@ -9,6 +18,7 @@ import org.springframework.stereotype.Component;
 
 import java.sql.*;
 import java.util.*;
+import javax.sql.DataSource;
 
 @Component
 @Primary
@@ -17,12 +27,66 @@ public class SqliteAdapter implements DatabaseAdapter {
     @Value("${spring.datasource.url:jdbc:sqlite:database.db}")
     private String dbUrl;
 
+    // Rows the driver steps through per fetch instead of materialising the whole result first
+    @Value("${graphql.jdbc.fetch-size:500}")
+    private int fetchSize = 500;
+
+    // Prepared statements kept per physical connection, keyed by SQL text
+    @Value("${graphql.jdbc.statement-cache-size:64}")
+    private int statementCacheSize = 64;
+
+    private final StatementCache statementCache = new StatementCache(() -> statementCacheSize);
+
+    // Pool settings for the non-Spring path; the Spring DataSource reads the same properties
+    @Value("${spring.datasource.hikari.minimum-idle:2}")
+    private int poolMinimumIdle = 2;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolMaximumSize = 10;
+
+    @Value("${spring.datasource.hikari.validation-timeout:3000}")
+    private long poolValidationTimeout = 3000;
+
+    @Value("${spring.datasource.hikari.leak-detection-threshold:30000}")
+    private long poolLeakDetectionThreshold = 30000;
+
+    // WAL mode: one queued writer connection and a pool of read-only connections
+    @Value("${sqlite.wal.enabled:false}")
+    private boolean walEnabled;
+
+    @Value("${sqlite.wal.reader-pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int walReaderPoolSize = Runtime.getRuntime().availableProcessors();
+
+    @Value("${sqlite.wal.mmap-size:268435456}")
+    private long walMmapSize = 268435456L;
+
+    @Value("${sqlite.wal.cache-size:-65536}")
+    private int walCacheSize = -65536;
+
+    @Value("${sqlite.wal.busy-timeout:5000}")
+    private int walBusyTimeout = 5000;
+
+    // Rows of a bulk load read per writer task, see stagedInsert
+    @Value("${sqlite.wal.bulk-chunk-rows:5000}")
+    private int walBulkChunkRows = 5000;
+
+    private final java.util.concurrent.atomic.AtomicLong stagingTables = new java.util.concurrent.atomic.AtomicLong();
+
     private ConnectionProvider connectionProvider;
     private boolean closeConnections = true;
+    private SqliteWalEngine walEngine;
 
-    // Default constructor for Spring
+    // Default constructor: pools connections to dbUrl itself
     public SqliteAdapter() {
-        this.connectionProvider = () -> DriverManager.getConnection(dbUrl);
+        this.connectionProvider = new PooledConnectionProvider(() -> PooledConnectionProvider.config("sqlite-adapter",
+                dbUrl, poolMinimumIdle, poolMaximumSize, poolValidationTimeout, poolLeakDetectionThreshold));
+        this.closeConnections = true;
+    }
+
+    // Spring constructor: borrows from the application's pooled DataSource
+    @Autowired
+    public SqliteAdapter(DataSource dataSource) {
+        this.connectionProvider = dataSource::getConnection;
         this.closeConnections = true;
     }
 
@@ -32,6 +96,18 @@ public class SqliteAdapter implements DatabaseAdapter {
         this.closeConnections = false;
     }
 
+    @PostConstruct
+    public void init() throws SQLException {
+        if (walEnabled) {
+            walEngine = new SqliteWalEngine(dbUrl, walReaderPoolSize, walMmapSize, walCacheSize, walBusyTimeout);
+        }
+    }
+
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        statementCache.bindTo(meterRegistry, getDatabaseType());
+    }
+
     @Override
     public Connection getConnection() throws SQLException {
         return connectionProvider.getConnection();
@@ -39,28 +115,30 @@ public class SqliteAdapter implements DatabaseAdapter {
 
     @Override
     public List<Map<String, Object>> executeQuery(String sql, Object... params) throws SQLException {
-        Connection conn = getConnection();
-        try {
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return read(conn -> {
+            try (StatementCache.Lease lease = statementCache.prepare(conn, sql)) {
+                PreparedStatement stmt = lease.statement();
+                stmt.setFetchSize(fetchSize);
                 for (int i = 0; i < params.length; i++) {
                     stmt.setObject(i + 1, params[i]);
                 }
                 try (ResultSet rs = stmt.executeQuery()) {
-                    List<Map<String, Object>> results = new ArrayList<>();
-                    ResultSetMetaData meta = rs.getMetaData();
-                    while (rs.next()) {
-                        Map<String, Object> row = new HashMap<>();
-                        for (int i = 1; i <= meta.getColumnCount(); i++) {
-                            row.put(meta.getColumnName(i), rs.getObject(i));
-                        }
-                        results.add(row);
-                    }
-                    return results;
+                    return ResultRows.read(rs);
                 }
             }
-        } finally {
-            if (closeConnections && conn != null) conn.close();
-        }
+        });
+    }
+
+    @Override
+    public void streamQuery(String sql, Object[] params, RowHandler handler) throws SQLException {
+        read(conn -> {
+            try (StatementCache.Lease lease = statementCache.prepare(conn, sql)) {
+                PreparedStatement stmt = lease.statement();
+                stmt.setFetchSize(fetchSize);
+                JdbcSupport.streamRows(stmt, params, handler);
+                return null;
+            }
+        });
     }
 
     @Override
@@ -71,27 +149,94 @@ public class SqliteAdapter implements DatabaseAdapter {
 
     @Override
     public int executeUpdate(String sql, Object... params) throws SQLException {
-        Connection conn = getConnection();
-        try {
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return write(conn -> {
+            try (StatementCache.Lease lease = statementCache.prepare(conn, sql)) {
+                PreparedStatement stmt = lease.statement();
                 for (int i = 0; i < params.length; i++) {
                     stmt.setObject(i + 1, params[i]);
                 }
                 return stmt.executeUpdate();
             }
+        });
+    }
+
+    @Override
+    public int[] executeBatch(List<SqlUpdate> updates) throws SQLException {
+        if (updates.isEmpty()) return new int[0];
+        return write(conn -> JdbcSupport.batchUpdate(conn, updates));
+    }
+
+    @Override
+    public long bulkInsert(String tableName, List<String> columns, Iterator<Object[]> rows) throws SQLException {
+        if (walEngine != null) return stagedInsert(tableName, columns, rows);
+        // One transaction for all rows: SQLite syncs once at commit instead of once per row
+        return withConnection(conn -> JdbcSupport.insertRows(conn, tableName, columns, rows));
+    }
+
+    /**
+     * Bulk load through the single writer without holding it while rows arrive: the rows may
+     * be read from a slow request body, so they are read here in chunks and each chunk is
+     * written to a temporary table in a writer task of its own. One last task copies the
+     * staged rows into the table, so the load still commits as a whole or not at all.
+     */
+    private long stagedInsert(String tableName, List<String> columns, Iterator<Object[]> rows) throws SQLException {
+        String staging = "bulk_" + stagingTables.incrementAndGet();
+        String columnList = String.join(", ", columns);
+        walEngine.write(conn -> execute(conn, "CREATE TEMP TABLE " + staging + " AS SELECT " + columnList
+                + " FROM " + tableName + " WHERE 0"));
+        try {
+            List<Object[]> chunk = new ArrayList<>(walBulkChunkRows);
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() == walBulkChunkRows || !rows.hasNext()) {
+                    List<Object[]> staged = new ArrayList<>(chunk);
+                    walEngine.write(conn -> JdbcSupport.insertRows(conn, "temp." + staging, columns, staged.iterator()));
+                    chunk.clear();
+                }
+            }
+            return walEngine.write(conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    return (long) stmt.executeUpdate("INSERT INTO " + tableName + " (" + columnList + ") SELECT "
+                            + columnList + " FROM temp." + staging);
+                }
+            });
         } finally {
-            if (closeConnections && conn != null) conn.close();
+            walEngine.write(conn -> execute(conn, "DROP TABLE IF EXISTS temp." + staging));
+        }
+    }
+
+    private static boolean execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            return stmt.execute(sql);
         }
     }
 
     @Override
     public void createTable(String tableName, String columns) throws SQLException {
         String sql = "CREATE TABLE IF NOT EXISTS " + tableName + " (" + columns + ");";
-        Connection conn = getConnection();
-        try {
+        write(conn -> {
             try (Statement stmt = conn.createStatement()) {
-                stmt.execute(sql);
+                return stmt.execute(sql);
             }
+        });
+    }
+
+    // Reads go to the WAL engine's reader pool when enabled
+    private <T> T read(SqliteWalEngine.SqlWork<T> work) throws SQLException {
+        if (walEngine != null) return walEngine.read(work);
+        return withConnection(work);
+    }
+
+    // Writes are queued to the WAL engine's single writer when enabled
+    private <T> T write(SqliteWalEngine.SqlWork<T> work) throws SQLException {
+        if (walEngine != null) return walEngine.write(work);
+        return withConnection(work);
+    }
+
+    private <T> T withConnection(SqliteWalEngine.SqlWork<T> work) throws SQLException {
+        Connection conn = getConnection();
+        try {
+            return work.apply(conn);
         } finally {
             if (closeConnections && conn != null) conn.close();
         }
@@ -109,8 +254,52 @@ public class SqliteAdapter implements DatabaseAdapter {
         }
     }
 
+    @Override
+    public Set<String> indexedColumns(String tableName) throws SQLException {
+        return read(conn -> JdbcSupport.indexedColumns(conn, tableName));
+    }
+
+    /**
+     * The driver reports missing tables as errors, so they have no primary key here.
+     */
+    @Override
+    public String primaryKeyColumn(String tableName) throws SQLException {
+        return read(conn -> {
+            try {
+                return JdbcSupport.primaryKeyColumn(conn, tableName);
+            } catch (SQLException e) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * The largest rowid, which SQLite reads from the end of the table's B-tree; it overestimates
+     * after deletes. Tables without a rowid report -1.
+     */
+    @Override
+    public long estimatedRowCount(String tableName) throws SQLException {
+        return read(conn -> {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT MAX(_ROWID_) FROM " + tableName)) {
+                return rs.next() ? rs.getLong(1) : 0;
+            } catch (SQLException e) {
+                return -1L;
+            }
+        });
+    }
+
     @Override
     public String getDatabaseType() {
         return "sqlite";
     }
+
+    @PreDestroy
+    public void close() throws SQLException {
+        if (walEngine != null) {
+            walEngine.close();
+            walEngine = null;
+        }
+        if (connectionProvider instanceof PooledConnectionProvider pool) pool.close();
+    }
 } 
\ No newline at end of file
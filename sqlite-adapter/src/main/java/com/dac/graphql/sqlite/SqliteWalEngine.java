@@ -0,0 +1,113 @@
+package com.dac.graphql.sqlite;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQLite execution mode for file databases: WAL journaling, one writer connection and a
+ * pool of read-only connections. All writes are queued to a single thread owning the writer
+ * connection, so they are serialised without contending for the file lock, while readers
+ * run concurrently against the last committed snapshot.
+ */
+public class SqliteWalEngine implements AutoCloseable {
+
+    /** Work run against a connection owned by the engine. */
+    public interface SqlWork<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+
+    private final Connection writer;
+    private final ExecutorService writeQueue;
+    private final HikariDataSource readers;
+
+    /**
+     * Open the writer connection and reader pool.
+     *
+     * @param dbUrl JDBC URL of a file database, e.g. jdbc:sqlite:database.db
+     * @param readerPoolSize number of read-only connections
+     * @param mmapSize bytes of the database file to memory-map
+     * @param cacheSize page cache size per connection, negative for KiB as in PRAGMA cache_size
+     * @param busyTimeoutMs how long a statement waits for a lock before failing with SQLITE_BUSY
+     * @throws SQLException if the writer connection cannot be opened
+     */
+    public SqliteWalEngine(String dbUrl, int readerPoolSize, long mmapSize, int cacheSize, int busyTimeoutMs)
+            throws SQLException {
+        // The writer opens first so the database and its WAL exist before read-only connections attach
+        this.writer = dataSource(dbUrl, false, mmapSize, cacheSize, busyTimeoutMs).getConnection();
+        this.writeQueue = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sqlite-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("sqlite-readers");
+        config.setDataSource(dataSource(dbUrl, true, mmapSize, cacheSize, busyTimeoutMs));
+        config.setMaximumPoolSize(readerPoolSize);
+        config.setMinimumIdle(1);
+        config.setReadOnly(true);
+        this.readers = new HikariDataSource(config);
+    }
+
+    private static SQLiteDataSource dataSource(String dbUrl, boolean readOnly, long mmapSize, int cacheSize,
+                                               int busyTimeoutMs) {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        // With WAL, NORMAL only syncs at checkpoints and stays consistent after a crash
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapSize));
+        config.setCacheSize(cacheSize);
+        config.setBusyTimeout(busyTimeoutMs);
+        config.setReadOnly(readOnly);
+        SQLiteDataSource dataSource = new SQLiteDataSource(config);
+        dataSource.setUrl(dbUrl);
+        return dataSource;
+    }
+
+    /**
+     * Run read-only work on a pooled reader connection.
+     */
+    public <T> T read(SqlWork<T> work) throws SQLException {
+        try (Connection connection = readers.getConnection()) {
+            return work.apply(connection);
+        }
+    }
+
+    /**
+     * Queue work for the writer connection and wait for it to complete.
+     */
+    public <T> T write(SqlWork<T> work) throws SQLException {
+        Future<T> result = writeQueue.submit(() -> work.apply(writer));
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for the SQLite writer", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) throw sqlException;
+            throw new SQLException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        // Let queued writes finish before the writer connection goes away
+        writeQueue.shutdown();
+        try {
+            writeQueue.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        readers.close();
+        writer.close();
+    }
+}
@@ -1,5 +1,10 @@
 package com.dac.graphql.sqlite;
 
+import com.dac.graphql.core.adapter.CachingDatabaseAdapter;
+import com.dac.graphql.core.adapter.DatabaseAdapter;
+import com.dac.graphql.core.adapter.ResultRows;
+import com.dac.graphql.core.adapter.SqlUpdate;
+import com.dac.graphql.core.service.SchemaService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -8,11 +13,15 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SqliteAdapterTest {
     private SqliteAdapter adapter;
@@ -52,6 +61,119 @@ class SqliteAdapterTest {
         assertEquals("Alice", single.get("name"));
     }
 
+    @Test
+    void testQueryKeepsDriverValueTypes() throws SQLException {
+        adapter.createTable("TestTable", "id INTEGER PRIMARY KEY, score REAL, name TEXT");
+        adapter.executeUpdate("INSERT INTO TestTable (id, score, name) VALUES (?, ?, ?)", 1, 2.5, "Alice");
+        adapter.executeUpdate("INSERT INTO TestTable (id, score, name) VALUES (?, ?, ?)", 1L << 40, null, "Bob");
+        List<Map<String, Object>> results = adapter.executeQuery("SELECT id, score, name FROM TestTable ORDER BY id");
+        assertEquals(Map.of("id", 1, "score", 2.5, "name", "Alice"), results.get(0));
+        assertEquals(1L << 40, results.get(1).get("id"));
+        assertNull(results.get(1).get("score"));
+    }
+
+    @Test
+    void testEstimatedRowCount() throws SQLException {
+        adapter.createTable("TestTable", "id TEXT PRIMARY KEY, name TEXT");
+        assertEquals(0, adapter.estimatedRowCount("TestTable"));
+        adapter.executeUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", "a", "Alice");
+        adapter.executeUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", "b", "Bob");
+        assertEquals(2, adapter.estimatedRowCount("TestTable"));
+        assertEquals(-1, adapter.estimatedRowCount("Missing"));
+    }
+
+    @Test
+    void testStreamQueryVisitsRowsInOrder() throws SQLException {
+        adapter.createTable("TestTable", "id INTEGER PRIMARY KEY, name TEXT");
+        adapter.executeBatch(List.of(new SqlUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", 1, "Alice"),
+                new SqlUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", 2, "Bob")));
+        List<String> names = new java.util.ArrayList<>();
+        adapter.streamQuery("SELECT name FROM TestTable WHERE id > ? ORDER BY id", new Object[]{0}, rs -> names.add(rs.getString(1)));
+        assertEquals(List.of("Alice", "Bob"), names);
+    }
+
+    @Test
+    void testExecuteBatchCommitsAtomically() throws SQLException {
+        adapter.createTable("TestTable", "id INTEGER PRIMARY KEY, name TEXT");
+        int[] counts = adapter.executeBatch(List.of(
+                new SqlUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", 1, "Alice"),
+                new SqlUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", 2, "Bob"),
+                new SqlUpdate("UPDATE TestTable SET name = ? WHERE id = ?", "Carol", 2)));
+        assertEquals(3, counts.length);
+        assertEquals(1, counts[2]);
+        assertThrows(SQLException.class, () -> adapter.executeBatch(List.of(
+                new SqlUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", 3, "Dan"),
+                new SqlUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", 1, "Duplicate"))));
+        // The failed batch was rolled back as a whole
+        assertEquals(2, adapter.executeQuery("SELECT * FROM TestTable").size());
+        assertEquals("Carol", adapter.executeQuerySingle("SELECT name FROM TestTable WHERE id = ?", 2).values().iterator().next());
+    }
+
+    @Test
+    void testBulkInsertUsesOneTransaction() throws SQLException {
+        adapter.createTable("TestTable", "id INTEGER PRIMARY KEY, name TEXT");
+        List<Object[]> rows = new java.util.ArrayList<>();
+        for (int i = 1; i <= 1203; i++) {
+            rows.add(new Object[]{i, i % 2 == 0 ? null : "name" + i});
+        }
+        assertEquals(1203, adapter.bulkInsert("TestTable", List.of("id", "name"), rows.iterator()));
+        assertEquals(1203, adapter.executeQuery("SELECT * FROM TestTable").size());
+        assertEquals(601, adapter.executeQuery("SELECT * FROM TestTable WHERE name IS NULL").size());
+        // A failing row rolls back every row inserted before it
+        List<Object[]> duplicate = List.of(new Object[]{2000, "new"}, new Object[]{1, "duplicate"});
+        assertThrows(SQLException.class, () -> adapter.bulkInsert("TestTable", List.of("id", "name"), duplicate.iterator()));
+        assertEquals(1203, adapter.executeQuery("SELECT * FROM TestTable").size());
+    }
+
+    @Test
+    void testPrimaryKeyColumn() throws SQLException {
+        adapter.createTable("TestTable", "id TEXT PRIMARY KEY, name TEXT");
+        adapter.createTable("Pairs", "a TEXT, b TEXT, PRIMARY KEY (a, b)");
+        assertEquals("id", adapter.primaryKeyColumn("TestTable"));
+        assertNull(adapter.primaryKeyColumn("Pairs"));
+        assertNull(adapter.primaryKeyColumn("Missing"));
+    }
+
+    @Test
+    void testCreateIndexIsReportedAsIndexed() throws SQLException {
+        adapter.createTable("TestTable", "id TEXT, name TEXT, email TEXT");
+        adapter.createIndex("TestTable", List.of("name", "email"), false);
+        adapter.createIndex("TestTable", List.of("email"), true);
+        // Creating the same index again is a no-op
+        adapter.createIndex("TestTable", List.of("email"), true);
+        assertEquals(java.util.Set.of("name", "email"), adapter.indexedColumns("TestTable"));
+        adapter.executeUpdate("INSERT INTO TestTable (id, email) VALUES (?, ?)", "1", "a@example.com");
+        assertThrows(SQLException.class,
+                () -> adapter.executeUpdate("INSERT INTO TestTable (id, email) VALUES (?, ?)", "2", "a@example.com"));
+    }
+
+    @Test
+    void testRepeatedStatementsArePreparedOnce() throws SQLException {
+        io.micrometer.core.instrument.simple.SimpleMeterRegistry registry = new io.micrometer.core.instrument.simple.SimpleMeterRegistry();
+        adapter.setMeterRegistry(registry);
+        adapter.createTable("TestTable", "id INTEGER PRIMARY KEY, name TEXT");
+        for (int i = 1; i <= 3; i++) {
+            adapter.executeUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", i, "name" + i);
+            assertEquals(i, adapter.executeQuery("SELECT * FROM TestTable").size());
+        }
+        assertEquals("name2", adapter.executeQuerySingle("SELECT name FROM TestTable WHERE id = ?", 2).get("name"));
+        assertEquals(4, registry.get("jdbc.statement.cache.hits").tag("adapter", "sqlite").functionCounter().count());
+        assertEquals(3, registry.get("jdbc.statement.cache.misses").tag("adapter", "sqlite").functionCounter().count());
+    }
+
+    @Test
+    void testExecuteQueryByKeys() throws SQLException {
+        adapter.createTable("TestTable", "id TEXT PRIMARY KEY, name TEXT");
+        adapter.executeUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", "1", "Alice");
+        adapter.executeUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", "2", "Bob");
+        adapter.executeUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", "3", "Carol");
+        List<Map<String, Object>> results = adapter.executeQueryByKeys("TestTable", List.of(), "id", List.of("3", "1", "9"));
+        assertEquals(2, results.size());
+        List<Map<String, Object>> ids = adapter.executeQueryByKeys("TestTable", List.of("id"), "id", List.of("1"));
+        assertEquals(1, ids.get(0).size());
+        assertTrue(adapter.executeQueryByKeys("TestTable", List.of(), "id", List.of()).isEmpty());
+    }
+
     @Test
     void testDefaultConstructorClosesConnection() throws Exception {
         Connection mockConn = Mockito.mock(Connection.class);
@@ -76,7 +198,172 @@ class SqliteAdapterTest {
         adapter.createTable("TestTable", "id INTEGER PRIMARY KEY, name TEXT");
         int inserted = adapter.executeUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", 1, "Test");
         assertEquals(1, inserted);
+        // Connections come from a pool and go back to it when closed
+        try (Connection pooled = adapter.getConnection()) {
+            assertTrue(pooled.isWrapperFor(org.sqlite.SQLiteConnection.class));
+            assertTrue(pooled instanceof com.zaxxer.hikari.pool.HikariProxyConnection);
+        }
+        assertEquals(1, adapter.executeQuery("SELECT * FROM TestTable").size());
         // Clean up
+        adapter.close();
         new java.io.File(dbFile).delete();
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testWalModeSerialisesConcurrentWrites() throws Exception {
+        java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("sqlite-wal");
+        SqliteAdapter adapter = new SqliteAdapter();
+        setField(adapter, "dbUrl", "jdbc:sqlite:" + dir.resolve("wal.db"));
+        setField(adapter, "walEnabled", true);
+        setField(adapter, "walReaderPoolSize", 4);
+        adapter.init();
+        try {
+            adapter.createTable("TestTable", "id INTEGER PRIMARY KEY, name TEXT");
+            java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(8);
+            List<java.util.concurrent.Future<Integer>> inserts = new java.util.ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                int id = i;
+                inserts.add(pool.submit(() -> adapter.executeUpdate("INSERT INTO TestTable (id, name) VALUES (?, ?)", id, "n" + id)));
+            }
+            for (java.util.concurrent.Future<Integer> insert : inserts) {
+                assertEquals(1, insert.get());
+            }
+            pool.shutdown();
+            assertEquals(200, adapter.executeQuery("SELECT * FROM TestTable").size());
+            assertEquals("wal", adapter.executeQuerySingle("PRAGMA journal_mode").values().iterator().next());
+            // Reads run on read-only connections
+            assertThrows(SQLException.class, () -> adapter.executeQuery("DELETE FROM TestTable RETURNING id"));
+        } finally {
+            adapter.close();
+            try (java.util.stream.Stream<java.nio.file.Path> files = java.nio.file.Files.list(dir)) {
+                for (java.nio.file.Path file : files.toList()) java.nio.file.Files.delete(file);
+            }
+            java.nio.file.Files.delete(dir);
+        }
+    }
+
+    @Test
+    void testWalBulkInsertDoesNotHoldTheWriterWhileReadingRows() throws Exception {
+        java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("sqlite-wal");
+        SqliteAdapter adapter = new SqliteAdapter();
+        setField(adapter, "dbUrl", "jdbc:sqlite:" + dir.resolve("wal.db"));
+        setField(adapter, "walEnabled", true);
+        setField(adapter, "walReaderPoolSize", 2);
+        setField(adapter, "walBulkChunkRows", 2);
+        adapter.init();
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newSingleThreadExecutor();
+        try {
+            adapter.createTable("TestTable", "id INTEGER PRIMARY KEY, name TEXT");
+            adapter.createTable("Other", "id INTEGER PRIMARY KEY");
+            java.util.concurrent.CountDownLatch stalled = new java.util.concurrent.CountDownLatch(1);
+            java.util.concurrent.CountDownLatch resume = new java.util.concurrent.CountDownLatch(1);
+            Iterator<Object[]> slowRows = new Iterator<>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < 5;
+                }
+
+                @Override
+                public Object[] next() {
+                    if (next == 3) {
+                        stalled.countDown();
+                        try {
+                            resume.await();
+                        } catch (InterruptedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                    next++;
+                    return new Object[]{next, "name" + next};
+                }
+            };
+            java.util.concurrent.Future<Long> load = pool.submit(
+                    () -> adapter.bulkInsert("TestTable", List.of("id", "name"), slowRows));
+            assertTrue(stalled.await(5, java.util.concurrent.TimeUnit.SECONDS));
+            // Other writes go through while the load waits for rows, and its staged rows are not visible yet
+            assertEquals(1, adapter.executeUpdate("INSERT INTO Other (id) VALUES (?)", 1));
+            assertTrue(adapter.executeQuery("SELECT * FROM TestTable").isEmpty());
+            resume.countDown();
+            assertEquals(5L, load.get(5, java.util.concurrent.TimeUnit.SECONDS));
+            assertEquals(5, adapter.executeQuery("SELECT * FROM TestTable").size());
+
+            // A load that fails part way inserts nothing
+            Iterator<Object[]> failing = List.of(new Object[]{6, "a"}, new Object[]{7, "b"}, new Object[]{8, "c"}).iterator();
+            Iterator<Object[]> broken = new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return true;
+                }
+
+                @Override
+                public Object[] next() {
+                    if (!failing.hasNext()) throw new IllegalArgumentException("bad row");
+                    return failing.next();
+                }
+            };
+            assertThrows(IllegalArgumentException.class, () -> adapter.bulkInsert("TestTable", List.of("id", "name"), broken));
+            assertEquals(5, adapter.executeQuery("SELECT * FROM TestTable").size());
+        } finally {
+            pool.shutdownNow();
+            adapter.close();
+            try (java.util.stream.Stream<java.nio.file.Path> files = java.nio.file.Files.list(dir)) {
+                for (java.nio.file.Path file : files.toList()) java.nio.file.Files.delete(file);
+            }
+            java.nio.file.Files.delete(dir);
+        }
+    }
+
+    @Test
+    void testSchemaGeneratedNumericColumnsAreReadUnboxed() throws Exception {
+        schemaService(adapter, "type Book { id: ID! title: String pages: Int! price: Float } type Query { book(id: ID!): Book }");
+        adapter.executeUpdate("INSERT INTO Book (id, title, pages, price) VALUES (?, ?, ?, ?)", "b1", "A", 320, 9.5);
+        ResultRows rows = (ResultRows) adapter.executeQuery("SELECT id, title, pages, price FROM Book");
+        assertEquals(Map.of("id", "b1", "title", "A", "pages", 320, "price", 9.5), rows.get(0));
+        assertTrue(rows.isUnboxed(rows.columns().indexOf("pages")));
+        assertTrue(rows.isUnboxed(rows.columns().indexOf("price")));
+        assertEquals("id", adapter.primaryKeyColumn("Book"));
+    }
+
+    @Test
+    void testEntityCacheServesSchemaGeneratedTablesByKey() throws Exception {
+        DatabaseAdapter database = Mockito.spy(adapter);
+        CachingDatabaseAdapter cached = new CachingDatabaseAdapter(database, 100, 60, 60, null);
+        schemaService(cached, "type Book { id: ID! title: String } type Query { book(id: ID!): Book }");
+        cached.executeUpdate("INSERT INTO Book (id, title) VALUES (?, ?)", "b1", "A");
+
+        // book(id:) resolves through the key loader
+        for (int i = 0; i < 2; i++) {
+            assertEquals("A", cached.executeQueryByKeys("Book", List.of("title"), "id", List.of("b1")).get(0).get("title"));
+            assertEquals("A", cached.executeQuerySingle("SELECT title FROM Book WHERE id = ?", "b1").get("title"));
+        }
+        Mockito.verify(database, Mockito.times(1)).executeQueryByKeys(Mockito.eq("Book"), Mockito.anyList(), Mockito.eq("id"), Mockito.anyList());
+        Mockito.verify(database, Mockito.never()).executeQuerySingle(Mockito.anyString(), Mockito.any(Object[].class));
+
+        cached.executeUpdate("UPDATE Book SET title = ? WHERE id = ?", "B", "b1");
+        assertEquals("B", cached.executeQueryByKeys("Book", List.of("title"), "id", List.of("b1")).get(0).get("title"));
+    }
+
+    // Creates the tables of the SDL through SchemaService, as a schema upload does
+    private static SchemaService schemaService(DatabaseAdapter adapter, String sdl) throws Exception {
+        SchemaService schemaService = new SchemaService();
+        java.lang.reflect.Field field = SchemaService.class.getDeclaredField("databaseAdapter");
+        field.setAccessible(true);
+        field.set(schemaService, adapter);
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("schema", ".graphql");
+        try {
+            java.nio.file.Files.writeString(file, sdl);
+            schemaService.processSchemaFile(file.toFile());
+        } finally {
+            java.nio.file.Files.delete(file);
+        }
+        return schemaService;
+    }
+
+    private static void setField(SqliteAdapter adapter, String name, Object value) throws Exception {
+        java.lang.reflect.Field field = SqliteAdapter.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(adapter, value);
+    }
+}